@@ -0,0 +1,154 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks of reading and writing a single '.properties' file with
+ * {@link Bundle}.
+ *
+ * @author kejn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BundleBenchmark {
+
+    private static final String CHANGED_KEY = "changed";
+
+    @Param({ "1000", "10000" })
+    public int keyCount;
+
+    @Param({ "16", "256" })
+    public int valueLength;
+
+    private File directory;
+    private File bundleFile;
+    private File templateFile;
+    private Bundle bundleToSave;
+    private Bundle loadedBundle;
+    private long changes;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = SyntheticCorpus.newDirectory();
+
+        BundleGroup group = SyntheticCorpus.saveGroups(directory, 1, keyCount, 2, valueLength)
+                .get(0);
+        templateFile = Bundles.createFile(directory, group.getName(), Language.DEFAULT);
+        bundleFile = Bundles.createFile(directory, group.getName(), SyntheticCorpus.languages(2)
+                .get(1));
+
+        Properties properties = SyntheticCorpus.properties(keyCount, valueLength,
+                Language.POLISH);
+        loadedBundle = new Bundle(bundleFile);
+        loadedBundle.getTranslations();
+
+        bundleToSave = Bundles.newNotExistingBundle(new File(directory, "saved_pl.properties"),
+                properties);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticCorpus.delete(directory);
+    }
+
+    /**
+     * Loads the file into new {@link Properties}. The cached translations are
+     * discarded first, so the file is parsed on each invocation.
+     *
+     * @return the loaded properties
+     */
+    @Benchmark
+    public Properties getProperties() {
+        BundleCache.invalidateAll();
+        return new Bundle(bundleFile).getProperties();
+    }
+
+    /**
+     * Loads the file into a {@link TranslationTable}, without creating the
+     * {@link Properties}.
+     *
+     * @return the loaded translations
+     */
+    @Benchmark
+    public TranslationTable getTranslations() {
+        BundleCache.invalidateAll();
+        return new Bundle(bundleFile).getTranslations();
+    }
+
+    /**
+     * Reads a single value of an already loaded bundle, which is the path taken
+     * by the exporters for every cell.
+     *
+     * @return the value
+     */
+    @Benchmark
+    public String getPropertyOfLoadedBundle() {
+        return loadedBundle.getProperty("section0.key0");
+    }
+
+    /**
+     * Loads the same file with {@link Properties#load(InputStream)}, the
+     * baseline of {@link #getProperties()}.
+     *
+     * @return the loaded properties
+     *
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public Properties loadProperties() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(bundleFile.toPath())) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    /**
+     * Saves the bundle. The file already has the same content after the first
+     * invocation, so it is only compared, not written.
+     *
+     * @return <code>false</code> after the first invocation
+     *
+     * @throws IOException if the file cannot be saved
+     */
+    @Benchmark
+    public boolean saveToFile() throws IOException {
+        return bundleToSave.saveToFile();
+    }
+
+    /**
+     * Saves the bundle with a different content on each invocation, so the file
+     * is always written.
+     *
+     * @return <code>true</code>
+     *
+     * @throws IOException if the file cannot be saved
+     */
+    @Benchmark
+    public boolean saveChangedToFile() throws IOException {
+        bundleToSave.getProperties().setProperty(CHANGED_KEY, Long.toString(++changes));
+        return bundleToSave.saveToFile();
+    }
+
+    @Benchmark
+    public boolean saveToFileUsingTemplate() throws IOException {
+        return bundleToSave.saveToFile(templateFile);
+    }
+
+}
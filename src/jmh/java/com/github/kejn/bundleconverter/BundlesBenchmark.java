@@ -0,0 +1,131 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of discovering the '.properties' files in a directory with
+ * {@link Bundles#groupsInDirectory(File)} and {@link BundleScanner}, and of
+ * loading and saving them in parallel with {@link Bundles#loadGroups(java.util.Collection, int)} and
+ * {@link Bundles#saveGroups(java.util.Collection, int)}. The sequential benchmarks do not
+ * depend on the <code>parallelism</code> parameter. The benchmarks loading the bundles
+ * discard the {@link BundleCache} first, so the files are parsed on each
+ * invocation.
+ *
+ * @author kejn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BundlesBenchmark {
+
+    @Param({ "10", "100" })
+    public int groupCount;
+
+    @Param({ "2", "10" })
+    public int languageCount;
+
+    @Param({ "100" })
+    public int keyCount;
+
+    @Param({ "32" })
+    public int valueLength;
+
+    @Param({ "1", "4", "8" })
+    public int parallelism;
+
+    private File directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = SyntheticCorpus.newDirectory();
+        SyntheticCorpus.saveGroups(directory, groupCount, keyCount, languageCount, valueLength);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticCorpus.delete(directory);
+    }
+
+    /**
+     * Only discovers the files, the bundles are not loaded.
+     *
+     * @return the discovered groups
+     */
+    @Benchmark
+    public List<BundleGroup> groupsInDirectory() {
+        return Bundles.groupsInDirectory(directory);
+    }
+
+    /**
+     * Only discovers the files with the {@link BundleScanner}, walking the
+     * directory with {@link Bundles#groupsInTree(java.nio.file.Path)}.
+     *
+     * @return the discovered groups
+     *
+     * @throws IOException if the directory cannot be read
+     */
+    @Benchmark
+    public List<BundleGroup> groupsInTree() throws IOException {
+        return Bundles.groupsInTree(directory.toPath());
+    }
+
+    /**
+     * Discovers the files and loads all the bundles.
+     *
+     * @param blackhole consumes the loaded properties
+     */
+    @Benchmark
+    public void groupsInDirectoryLoaded(Blackhole blackhole) {
+        BundleCache.invalidateAll();
+        for (BundleGroup group : Bundles.groupsInDirectory(directory)) {
+            for (LocaleKey localeKey : group.supportedLocales()) {
+                blackhole.consume(group.getBundle(localeKey).getProperties());
+            }
+        }
+    }
+
+    /**
+     * Discovers the files and loads all the bundles in parallel.
+     *
+     * @return the loaded groups
+     */
+    @Benchmark
+    public List<BundleGroup> groupsInDirectoryLoadedInParallel() {
+        BundleCache.invalidateAll();
+        List<BundleGroup> groups = Bundles.groupsInDirectory(directory);
+        Bundles.loadGroups(groups, parallelism);
+        return groups;
+    }
+
+    /**
+     * Discovers the files, then loads and saves all the bundles in parallel.
+     * The content of the files does not change, so they are only compared
+     * with the saved content.
+     *
+     * @return the report of the save
+     *
+     * @throws IOException if the files cannot be saved
+     */
+    @Benchmark
+    public SaveReport saveGroupsInParallel() throws IOException {
+        BundleCache.invalidateAll();
+        List<BundleGroup> groups = Bundles.groupsInDirectory(directory);
+        Bundles.loadGroups(groups, parallelism);
+        return Bundles.saveGroups(groups, parallelism);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of escaping a line of a '.properties' file with
+ * {@link JavaEscaper}, compared with
+ * {@link StringEscapeUtils#ESCAPE_JAVA}, which it replaced.
+ *
+ * @author kejn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JavaEscaperBenchmark {
+
+    @Param({ "ascii", "polish", "cyrillic" })
+    public String text;
+
+    @Param({ "16", "256" })
+    public int length;
+
+    private String line;
+    private Writer writer;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        String sample;
+        switch (text) {
+        case "ascii":
+            sample = "The quick brown fox jumps over the lazy dog. ";
+            break;
+        case "polish":
+            sample = "Zażółć gęślą jaźń. ";
+            break;
+        default:
+            sample = "Съешь же ещё этих мягких французских булок. ";
+        }
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(sample);
+        }
+        line = builder.substring(0, length);
+        writer = new BlackholeWriter(blackhole);
+    }
+
+    @Benchmark
+    public void javaEscaper() throws IOException {
+        JavaEscaper.escape(line, writer);
+    }
+
+    @Benchmark
+    public void stringEscapeUtils() throws IOException {
+        StringEscapeUtils.ESCAPE_JAVA.translate(line, writer);
+    }
+
+    /**
+     * Writer passing everything written to the {@link Blackhole}, so the
+     * benchmarks measure the escaping only.
+     */
+    private static final class BlackholeWriter extends Writer {
+
+        private final Blackhole blackhole;
+
+        BlackholeWriter(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int c) {
+            blackhole.consume(c);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            blackhole.consume(str);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            blackhole.consume(cbuf);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
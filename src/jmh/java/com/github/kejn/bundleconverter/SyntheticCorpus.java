@@ -0,0 +1,162 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the synthetic bundles used by the benchmarks. The same parameters
+ * always give the same bundles, so the results of different runs can be
+ * compared.
+ * <p>
+ * The values are built mostly of ASCII letters, with some punctuation and
+ * non-ASCII letters, so that escaping of the written '.properties' files is
+ * exercised as well.
+ *
+ * @author kejn
+ */
+public final class SyntheticCorpus {
+
+    private static final long SEED = 0x5EED;
+    private static final int KEYS_PER_SECTION = 50;
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz"
+            + "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789     .,:!?='\"ąćęłńóśźżäöüß";
+
+    private SyntheticCorpus() {
+    }
+
+    /**
+     * @param count number of languages, including the {@link Language#DEFAULT}
+     * @return the {@link Language#DEFAULT} and the first <b>count</b> - 1 other
+     *         languages
+     */
+    public static List<Language> languages(int count) {
+        List<Language> languages = new ArrayList<>();
+        languages.add(Language.DEFAULT);
+        languages.addAll(Arrays.stream(Language.values()).filter(language -> {
+            return language != Language.DEFAULT;
+        }).limit(count - 1L).collect(Collectors.toList()));
+        return languages;
+    }
+
+    /**
+     * @param keyCount number of properties
+     * @param valueLength length of each value
+     * @param language the language of the properties, used to make the values
+     *            of different languages differ
+     * @return the generated properties
+     */
+    public static Properties properties(int keyCount, int valueLength, Language language) {
+        Random random = new Random(SEED + language.ordinal());
+        Properties properties = new Properties();
+        char[] value = new char[valueLength];
+        for (int index = 0; index < keyCount; ++index) {
+            for (int i = 0; i < valueLength; ++i) {
+                value[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            }
+            properties.setProperty(key(index), new String(value));
+        }
+        return properties;
+    }
+
+    /**
+     * Generates a group of not existing bundles, which are stored in the
+     * <b>directory</b> only when saved.
+     *
+     * @param directory the directory of the bundles
+     * @param name name of the group
+     * @param keyCount number of properties in each bundle
+     * @param languageCount number of bundles, including the default one
+     * @param valueLength length of each value
+     * @return the generated group
+     */
+    public static BundleGroup group(File directory, String name, int keyCount,
+            int languageCount, int valueLength) {
+        List<Bundle> bundles = new ArrayList<>();
+        for (Language language : languages(languageCount)) {
+            bundles.add(Bundles.newNotExistingBundle(Bundles.createFileName(directory, name,
+                    language), properties(keyCount, valueLength, language)));
+        }
+        return Bundles.newBundleGroup(bundles);
+    }
+
+    /**
+     * Generates <b>groupCount</b> groups and saves them as '.properties' files in
+     * the <b>directory</b>.
+     *
+     * @param directory the target directory
+     * @param groupCount number of groups
+     * @param keyCount number of properties in each bundle
+     * @param languageCount number of bundles in each group, including the default
+     *            one
+     * @param valueLength length of each value
+     * @return the generated groups
+     *
+     * @throws IOException if the files cannot be written
+     */
+    public static List<BundleGroup> saveGroups(File directory, int groupCount, int keyCount,
+            int languageCount, int valueLength) throws IOException {
+        List<BundleGroup> groups = new ArrayList<>();
+        for (int index = 0; index < groupCount; ++index) {
+            BundleGroup group = group(directory, "messages" + index, keyCount, languageCount,
+                    valueLength);
+            group.saveGroupAsPropertiesFiles();
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    /**
+     * @return a new empty temporary directory
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public static File newDirectory() throws IOException {
+        return Files.createTempDirectory("bundle-converter-jmh").toFile();
+    }
+
+    /**
+     * Deletes the <b>directory</b> with all its contents.
+     *
+     * @param directory the directory to delete
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    public static void delete(File directory) throws IOException {
+        Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                    throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc)
+                    throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private static String key(int index) {
+        return "section" + index / KEYS_PER_SECTION + ".key" + index;
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.github.kejn.bundleconverter.converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import com.github.kejn.bundleconverter.BundleGroup;
+import com.github.kejn.bundleconverter.Language;
+import com.github.kejn.bundleconverter.SyntheticCorpus;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the conversions between {@link BundleGroup}s and '.xlsx'
+ * documents. The documents are written to a stream discarding the bytes, so
+ * only the conversion itself is measured.
+ *
+ * @author kejn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class XlsxConverterBenchmark {
+
+    private static final int GROUP_COUNT = 2;
+
+    @Param({ "1000", "10000" })
+    public int keyCount;
+
+    @Param({ "2", "10" })
+    public int languageCount;
+
+    @Param({ "16", "256" })
+    public int valueLength;
+
+    private final XlsxConverter converter = new XlsxConverter();
+    private final DirectXlsxWriter directWriter = new DirectXlsxWriter();
+
+    private final OutputStream discard = new OutputStream() {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private File outputDirectory;
+    private List<BundleGroup> groups;
+    private byte[] document;
+    private Workbook workbook;
+
+    @Setup
+    public void setUp() throws IOException {
+        outputDirectory = SyntheticCorpus.newDirectory();
+
+        groups = new ArrayList<>();
+        for (int index = 0; index < GROUP_COUNT; ++index) {
+            groups.add(SyntheticCorpus.group(outputDirectory, "messages" + index, keyCount,
+                    languageCount, valueLength));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        directWriter.write(groups, out);
+        document = out.toByteArray();
+        workbook = new XSSFWorkbook(new ByteArrayInputStream(document));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        workbook.close();
+        SyntheticCorpus.delete(outputDirectory);
+    }
+
+    @Benchmark
+    public Workbook toXlsx() {
+        return converter.toXlsx(groups);
+    }
+
+    @Benchmark
+    public void writeStreaming() throws IOException {
+        converter.write(groups, discard);
+    }
+
+    @Benchmark
+    public void writeDirect() throws IOException {
+        directWriter.write(groups, discard);
+    }
+
+    @Benchmark
+    public List<BundleGroup> toBundleGroupListFromWorkbook() {
+        return converter.toBundleGroupList(workbook, outputDirectory);
+    }
+
+    @Benchmark
+    public List<BundleGroup> toBundleGroupListFromStream() throws IOException {
+        return converter.toBundleGroupList(new ByteArrayInputStream(document), outputDirectory);
+    }
+
+    /**
+     * Decodes all translation columns of the first sheet in a single pass.
+     *
+     * @return the decoded properties
+     */
+    @Benchmark
+    public Map<Language, Properties> sheetToProperties() {
+        return converter.sheetToProperties(workbook.getSheetAt(0));
+    }
+
+    /**
+     * Decodes the translation columns of the first sheet one by one, visiting
+     * all rows for each of them.
+     *
+     * @param blackhole consumes the decoded properties
+     */
+    @Benchmark
+    public void sheetColumnToProperties(Blackhole blackhole) {
+        Sheet sheet = workbook.getSheetAt(0);
+        for (int column = XlsxConverter.DEFAULT_COLUMN; column <= languageCount; ++column) {
+            blackhole.consume(converter.sheetColumnToProperties(sheet, column));
+        }
+    }
+
+}
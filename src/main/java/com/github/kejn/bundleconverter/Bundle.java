@@ -1,22 +1,19 @@
 package com.github.kejn.bundleconverter;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 import com.google.common.io.Files;
 
-import org.apache.commons.text.StringEscapeUtils;
-
 /**
  * Represents a file with '.properties' extension. It is distinguished by the
  * file name.
@@ -24,7 +21,9 @@ import org.apache.commons.text.StringEscapeUtils;
  * It uses alpha-2 ISO-code suffix in a file name, to determine the
  * {@link Language} of the translation. For example, "bundle.properties" will be
  * detected as a "default" bundle, but "bundle_es.properties" will as a Spanish
- * translation of some "bundle.properties" file. Different translations of the
+ * translation of some "bundle.properties" file. The ISO code can be followed by
+ * a script and a region, e.g. "bundle_es_419.properties", see
+ * {@link LocaleKey}. Different translations of the
  * same bundle can be wrapped and managed using the {@link BundleGroup} object.
  * <p>
  * The Bundle object can be created in two ways:
@@ -39,6 +38,27 @@ import org.apache.commons.text.StringEscapeUtils;
  * Some helpful methods for {@link Bundle} creation could be also found in
  * {@link Bundles} class.
  * <p>
+ * The properties loaded from a file are kept in a compact
+ * {@link TranslationTable}, which can be read with {@link #getTranslations()}
+ * and {@link #getProperty(String)}. The mutable {@link Properties} are created
+ * from the table only when {@link #getProperties()} is called, and from then on
+ * they are used by this bundle instead of the table.
+ * <p>
+ * The bundle can be used by many threads at the same time. The file is loaded
+ * only once, by the first thread which needs it, while the other threads wait
+ * for it and then share the same translations. Once loaded, the translations
+ * are read without any locking.
+ * <p>
+ * The translations loaded from the {@link #file} are not kept by the bundle
+ * itself, but in the {@link BundleCache}, which is bounded by their total size.
+ * If they are evicted from the cache, they are loaded again from the
+ * {@link #file} on the next access. The bundles loaded from the same file share
+ * the same translations.
+ * <p>
+ * The loaded translations are used until {@link #reloadIfChanged()} finds out
+ * that the {@link #file} was modified, or on every access if the bundle is
+ * {@link #setValidating(boolean) validating}.
+ * <p>
  * <b><u>EXAMPLES</u></b>
  * <p>
  * GETTING PROPERTIES USING AN EXISTING FILE
@@ -94,11 +114,19 @@ public class Bundle implements Comparable<Bundle> {
 
     private static final String COMMENT_MARK = "#";
     private static final String KEY_VALUE_SEPARATOR = "=";
-    private static final String UNDERSCORE = "_";
+    private static final char UNDERSCORE = '_';
 
     private final File file;
+    private final String name;
+    private final LocaleKey localeKey;
+
+    private final Object lock = new Object();
 
-    private Properties properties;
+    private volatile Properties properties;
+    private volatile TranslationTable translations;
+    private volatile BundleCache.Key cacheKey;
+    private volatile boolean validating;
+    private volatile PropertiesEncoding encoding = PropertiesEncoding.ISO_8859_1;
 
     /*
      * API.
@@ -118,6 +146,20 @@ public class Bundle implements Comparable<Bundle> {
             throw new IllegalArgumentException("Input file should have '.properties' extension");
         }
         this.file = file;
+
+        String nameWithLanguageVariant = getNameWithLanguageVariant();
+        int separator = nameWithLanguageVariant.indexOf(UNDERSCORE);
+        LocaleKey key = null;
+        while (separator > 0 && key == null) {
+            String suffix = nameWithLanguageVariant.substring(separator + 1);
+            key = suffix.isEmpty() ? null : LocaleKey.forSuffix(suffix);
+            if (key == null) {
+                separator = nameWithLanguageVariant.indexOf(UNDERSCORE, separator + 1);
+            }
+        }
+        this.name = key == null ? nameWithLanguageVariant : nameWithLanguageVariant.substring(0,
+                separator);
+        this.localeKey = key == null ? LocaleKey.DEFAULT : key;
     }
 
     /**
@@ -136,18 +178,43 @@ public class Bundle implements Comparable<Bundle> {
         setProperties(Objects.requireNonNull(properties));
     }
 
+    /**
+     * Creates a new {@link Bundle} with a handle to given <b>file</b> using the
+     * provided <b>translations</b>.
+     * 
+     * @param file the file that should have the '.properties' extension
+     * @param translations CANNOT BE NULL; the initial translations
+     * 
+     * @throws IllegalArgumentException if the <b>file</b> does not have the
+     *             '.properties' extension
+     * @throws NullPointerException if the <b>translations</b> argument is null
+     */
+    public Bundle(File file, TranslationTable translations) {
+        this(file);
+        this.translations = Objects.requireNonNull(translations);
+    }
+
+    /**
+     * @return the '.properties' file of this bundle
+     */
+    File getFile() {
+        return file;
+    }
+
     /**
      * Returns the name of this bundle without the language ISO code. For example,
      * if the file name of the {@link #file} is "bundle_es.properties", then this
      * method will return only "bundle" (the file extension and the language ISO
-     * code is skipped).
+     * code is skipped). The name itself may contain underscores, e.g. the name of
+     * "my_bundle_zh_Hant_TW.properties" is "my_bundle".
      * 
      * @return the name of this bundle without the extension and language ISO code.
      * 
      * @see #getNameWithLanguageVariant()
+     * @see #getLocaleKey()
      */
     public String getName() {
-        return getNameWithLanguageVariant().split(UNDERSCORE)[0];
+        return name;
     }
 
     /**
@@ -176,31 +243,115 @@ public class Bundle implements Comparable<Bundle> {
 
     /**
      * @return the {@link Language} of this bundle using the ISO code in the
-     *         {@link #file} name.
+     *         {@link #file} name, without the script and the region of the
+     *         {@link #getLocaleKey()}
      */
     public Language getLanguage() {
-        String[] nameWithVariants = getNameWithLanguageVariant().split(UNDERSCORE);
-        String isoCode = nameWithVariants.length > 1 ? nameWithVariants[1] : "";
-        return Language.forIsoCode(isoCode);
+        return localeKey.getLanguage();
+    }
+
+    /**
+     * Returns the key of the translation of this bundle, written in the
+     * {@link #file} name after the bundle name, e.g. <code>en_US</code> for
+     * "bundle_en_US.properties". The first underscore followed by a valid
+     * {@link LocaleKey#forSuffix(String) suffix} separates the name and the key,
+     * and the bundle without such a suffix is a default one.
+     * 
+     * @return the {@link LocaleKey} of this bundle
+     */
+    public LocaleKey getLocaleKey() {
+        return localeKey;
     }
 
     /**
      * Return the {@link #properties} of this bundle. It attempts to load the
      * properties from {@link #file} if they were not loaded yet (or initialized
-     * with a proper constructor).
+     * with a proper constructor). The file is read using the same format as
+     * {@link Properties#load(java.io.InputStream)}, in the
+     * {@link #getEncoding() encoding} of this bundle.
+     * <p>
+     * The returned properties can be modified, so from now on they are used by
+     * this bundle instead of the {@link #translations}.
      * 
      * @return the {@link #properties} of this bundle (CAN BE NULL)
      */
     public Properties getProperties() {
-        if (properties == null && file.exists()) {
-            try {
-                properties = new Properties();
-                properties.load(new FileInputStream(file));
-            } catch (IOException e) {
-                properties = null;
+        validate();
+        Properties current = properties;
+        if (current == null) {
+            synchronized (lock) {
+                if (properties == null) {
+                    TranslationTable loaded = loadTranslations();
+                    if (loaded != null) {
+                        properties = loaded.toProperties();
+                        translations = null;
+                    }
+                }
+                current = properties;
             }
         }
-        return properties;
+        return current;
+    }
+
+    /**
+     * Return the {@link #translations} of this bundle. It attempts to load them
+     * from {@link #file} if they were not loaded yet (or initialized with a
+     * proper constructor). If the {@link #properties} of this bundle are already
+     * in use, a snapshot of them is returned.
+     * 
+     * @return the {@link #translations} of this bundle (CAN BE NULL)
+     * 
+     * @see #getProperties()
+     */
+    public TranslationTable getTranslations() {
+        Object current = contents();
+        if (current instanceof Properties) {
+            return TranslationTable.of((Properties) current);
+        }
+        return (TranslationTable) current;
+    }
+
+    /**
+     * Returns the property value mapped by given <b>key</b>. Unlike
+     * {@link #getProperties()}, it does not create the {@link Properties} if they
+     * are not in use yet.
+     * 
+     * @param key the property key
+     * @return the property value mapped by given <b>key</b>, or <code>null</code>
+     *         if this bundle does not contain it or it cannot be loaded
+     */
+    public String getProperty(String key) {
+        return valueOf(contents(), key);
+    }
+
+    /**
+     * Copies the values of given <b>keys</b> to the same indexes of given
+     * <b>values</b>, straight from the {@link Properties} or the
+     * {@link TranslationTable} of this bundle, without taking a snapshot of the
+     * properties like {@link #getTranslations()} does.
+     * 
+     * @param keys the property keys
+     * @param values the array to fill, at least as long as the <b>keys</b>; the
+     *            values of the keys missing in this bundle are set to
+     *            <code>null</code>
+     */
+    void copyProperties(String[] keys, String[] values) {
+        Object current = contents();
+        for (int index = 0; index < keys.length; ++index) {
+            values[index] = valueOf(current, keys[index]);
+        }
+    }
+
+    /**
+     * Return the set of all property keys of this bundle. Unlike
+     * {@link #getProperties()}, it does not create the {@link Properties} if they
+     * are not in use yet.
+     * 
+     * @return the set of all property keys of this bundle; empty if the bundle
+     *         cannot be loaded
+     */
+    public Set<String> stringPropertyNames() {
+        return keysOf(contents());
     }
 
     /**
@@ -210,101 +361,296 @@ public class Bundle implements Comparable<Bundle> {
      * <br>
      * <b>Note:</b> If the {@link #properties} contain some keys not included in the
      * <b>templateFile</b>, then the result file will be missing these extra
-     * properties.
+     * properties.<br>
+     * <br>
+     * The template is compiled with {@link PropertiesTemplate#forFile(File)}, so
+     * it is read again only if the <b>templateFile</b> has changed.
      * 
      * @param templateFile the template file
+     * @return <code>true</code> if the {@link #file} was written,
+     *         <code>false</code> if it already had the same content
+     * 
+     * @throws IllegalStateException if the {@link #file} points to a file, which is
+     *             not a '.properties' file.
+     * @throws IOException if the {@link #file} exists but is a directory rather
+     *             than a regular file, does not exist but cannot be created, or
+     *             cannot be opened for any other reason
+     */
+    public boolean saveToFile(File templateFile) throws IOException {
+        return saveWithTemplate(templateFile == null ? null : PropertiesTemplate.forFile(
+                templateFile));
+    }
+
+    /**
+     * Saves to {@link #file} the {@link #properties} of this object matching
+     * property keys specified in the <b>template</b> and using its file structure.
+     * If the <b>template</b> is null, all the {@link #properties} are saved.<br>
+     * <br>
+     * The lines are written one by one, escaped and encoded in the
+     * {@link #getEncoding() encoding} of this bundle. They are compared with the
+     * existing content of the {@link #file} as they are written, and the file is
+     * not modified at all if its content is the same.
+     * 
+     * @param template the compiled template
+     * @return <code>true</code> if the {@link #file} was written,
+     *         <code>false</code> if it already had the same content
      * 
      * @throws IllegalStateException if the {@link #file} points to a file, which is
      *             not a '.properties' file.
      * @throws IOException if the {@link #file} exists but is a directory rather
      *             than a regular file, does not exist but cannot be created, or
      *             cannot be opened for any other reason
+     * 
+     * @see #saveToFile(File)
      */
-    public void saveToFile(File templateFile) throws IOException {
-        getProperties();
-        if (properties == null) {
+    public boolean saveWithTemplate(PropertiesTemplate template) throws IOException {
+        Object current = contents();
+        if (current == null) {
             throw new IllegalStateException(
                     "The Bundle points to a file which is not a '.properties' file");
         }
 
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(formatProperties(templateFile));
+        PropertiesEncoding currentEncoding = encoding;
+        ContentComparingOutputStream out = new ContentComparingOutputStream(file.toPath());
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, currentEncoding
+                .getCharset()))) {
+            if (template != null) {
+                template.write(writer, key -> valueOf(current, key), currentEncoding);
+            } else {
+                for (String key : keysOf(current)) {
+                    writeNextProperty(writer, current, key, currentEncoding);
+                }
+            }
         }
+        return out.isWritten();
     }
 
     /**
      * Saves all {@link #properties} of this object to {@link #file}.
      * 
+     * @return <code>true</code> if the {@link #file} was written,
+     *         <code>false</code> if it already had the same content
+     * 
      * @throws IllegalStateException if the {@link #file} points to a file, which is
      *             not a '.properties' file.
      * @throws IOException if the {@link #file} exists but is a directory rather
      *             than a regular file, does not exist but cannot be created, or
      *             cannot be opened for any other reason
      */
-    public void saveToFile() throws IOException {
-        saveToFile(null);
+    public boolean saveToFile() throws IOException {
+        return saveToFile(null);
+    }
+
+    /**
+     * Checks whether the {@link #file} changed since this bundle was loaded from
+     * it, by comparing its last modification time and size, and loads the bundle
+     * again if so. The {@link #properties} are discarded as well, together with
+     * any changes of them which were not saved, and the next call of
+     * {@link #getProperties()} returns new {@link Properties}.
+     * <p>
+     * The bundles which were not loaded from the {@link #file}, like the ones
+     * created with the {@link Properties} to save, are never reloaded.
+     * 
+     * @return <code>true</code> if the bundle was reloaded, or discarded because
+     *         the {@link #file} no longer exists
+     */
+    public boolean reloadIfChanged() {
+        BundleCache.Key key = cacheKey;
+        if (key == null || key.getStamp().isCurrent(file.toPath())) {
+            return false;
+        }
+        synchronized (lock) {
+            if (cacheKey != key) {
+                // reloaded by another thread in the meantime
+                return false;
+            }
+            properties = null;
+            translations = null;
+            cacheKey = null;
+            BundleCache.invalidate(key);
+            loadTranslations();
+            return true;
+        }
+    }
+
+    /**
+     * Sets whether this bundle is validating. A validating bundle calls
+     * {@link #reloadIfChanged()} whenever its contents are accessed, so it
+     * always reflects the current {@link #file}, at the cost of reading the
+     * file attributes on every access. By default the bundles are not
+     * validating.
+     * 
+     * @param validating <code>true</code> to validate the bundle on every
+     *            access
+     */
+    public void setValidating(boolean validating) {
+        this.validating = validating;
+    }
+
+    /**
+     * @return <code>true</code> if this bundle is validating
+     * 
+     * @see #setValidating(boolean)
+     */
+    public boolean isValidating() {
+        return validating;
+    }
+
+    /**
+     * Sets the encoding in which this bundle is loaded from and saved to the
+     * {@link #file}. If the bundle was already loaded from the file, and its
+     * {@link #properties} are not in use, it is loaded again in the new
+     * encoding on the next access. By default the bundles use the
+     * {@link PropertiesEncoding#ISO_8859_1} encoding.
+     * 
+     * @param encoding CANNOT BE NULL; the encoding of the {@link #file}
+     * 
+     * @throws NullPointerException if the <b>encoding</b> is null
+     */
+    public void setEncoding(PropertiesEncoding encoding) {
+        Objects.requireNonNull(encoding, "The encoding cannot be null");
+        synchronized (lock) {
+            if (this.encoding != encoding) {
+                this.encoding = encoding;
+                if (properties == null) {
+                    cacheKey = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the encoding of the {@link #file}
+     * 
+     * @see #setEncoding(PropertiesEncoding)
+     */
+    public PropertiesEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Loads the {@link #translations} of this bundle from {@link #file}, unless
+     * they are already loaded or the {@link #properties} are in use.
+     */
+    void load() {
+        contents();
     }
 
     /*
      * Private methods.
      */
 
-    private String formatProperties(File templateFile) throws IOException {
-        StringBuilder builder = new StringBuilder();
-
-        Collection<String> keysOrPropertyStrings = properties.stringPropertyNames();
-        if (templateFile != null) {
-            keysOrPropertyStrings = getPropertyStringList(templateFile);
+    private void validate() {
+        if (validating) {
+            reloadIfChanged();
         }
-        for (String keyOrPropertyString : keysOrPropertyStrings) {
-            appendNextProperty(builder, keyOrPropertyString);
+    }
+
+    /**
+     * Returns the {@link #properties} if they are in use, otherwise the
+     * {@link #translations}, loading them if necessary. The properties are read
+     * again if the translations are not available, because they could have been
+     * created by another thread in the meantime.
+     * 
+     * @return the {@link Properties} or the {@link TranslationTable} of this
+     *         bundle, or <code>null</code> if the bundle cannot be loaded
+     */
+    private Object contents() {
+        validate();
+        Properties current = properties;
+        if (current != null) {
+            return current;
         }
-        return builder.toString();
+        TranslationTable loaded = loadTranslations();
+        return loaded != null ? loaded : properties;
     }
 
-    private List<String> getPropertyStringList(File templateFile) throws IOException {
-        Objects.requireNonNull(templateFile);
+    /**
+     * Returns the {@link #translations} given to the constructor, or the ones
+     * loaded from the {@link #file} and kept in the {@link BundleCache}, loading
+     * them if they were not loaded yet, or were evicted from the cache, and the
+     * {@link #properties} are not in use. The file is loaded while holding the
+     * {@link #lock}, so it is loaded only once even if many threads need it at
+     * the same time.
+     */
+    private TranslationTable loadTranslations() {
+        TranslationTable loaded = translations;
+        if (loaded != null) {
+            return loaded;
+        }
+        BundleCache.Key key = cacheKey;
+        if (key != null && (loaded = BundleCache.getIfPresent(key)) != null) {
+            return loaded;
+        }
+        synchronized (lock) {
+            loaded = translations;
+            if (loaded == null && properties == null && file.exists()) {
+                try {
+                    Path path = file.toPath();
+                    PropertiesEncoding currentEncoding = encoding;
+                    key = new BundleCache.Key(path, FileStamp.read(path), currentEncoding);
+                    loaded = BundleCache.get(key, () -> {
+                        TranslationTable.Builder builder = TranslationTable.builder();
+                        PropertiesParser.parse(path, currentEncoding, builder::put);
+                        return builder.build();
+                    });
+                    cacheKey = key;
+                } catch (IOException e) {
+                    loaded = null;
+                }
+            }
+        }
+        return loaded;
+    }
 
-        List<String> keysOrPropertyStrings = new ArrayList<>();
+    private static String valueOf(Object contents, String key) {
+        if (contents instanceof Properties) {
+            return ((Properties) contents).getProperty(key);
+        }
+        return contents == null ? null : ((TranslationTable) contents).get(key);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(templateFile))) {
-            String line = null;
-            while ((line = reader.readLine()) != null) {
-                keysOrPropertyStrings.add(line);
-            }
+    private static Set<String> keysOf(Object contents) {
+        if (contents instanceof Properties) {
+            return ((Properties) contents).stringPropertyNames();
         }
-        return keysOrPropertyStrings;
+        return contents == null ? Collections.emptySet() : ((TranslationTable) contents)
+                .keySet();
     }
 
-    private void appendNextProperty(StringBuilder builder, String keyOrPropertyString) {
-        Objects.requireNonNull(builder);
+    private void writeNextProperty(Writer writer, Object contents, String keyOrPropertyString,
+            PropertiesEncoding encoding) throws IOException {
         Objects.requireNonNull(keyOrPropertyString);
 
-        String line = keyOrPropertyString;
-        if (!isCommentOrEmptyLine(line)) {
-            line = translateProperty(line);
+        if (isCommentOrEmptyLine(keyOrPropertyString)) {
+            JavaEscaper.escape(keyOrPropertyString, writer, encoding);
+        } else {
+            writeTranslatedProperty(writer, contents, keyOrPropertyString, encoding);
         }
-        builder.append(StringEscapeUtils.escapeJava(line));
-        builder.append(System.lineSeparator());
+        writer.write(System.lineSeparator());
     }
 
     private boolean isCommentOrEmptyLine(String line) {
         return line.startsWith(COMMENT_MARK) || line.isEmpty();
     }
 
-    private String translateProperty(String keyOrPropertyString) {
+    /**
+     * Writes the property of the key from given line, escaping its parts one by
+     * one. The escaping translates each character separately, so the result is
+     * the same as if the whole line was escaped at once.
+     */
+    private void writeTranslatedProperty(Writer writer, Object contents,
+            String keyOrPropertyString, PropertiesEncoding encoding) throws IOException {
         StringTokenizer tokenizer = new StringTokenizer(keyOrPropertyString, KEY_VALUE_SEPARATOR);
         String key = tokenizer.nextToken().trim();
-        String value = properties.getProperty(key);
+        String value = valueOf(contents, key);
 
-        StringBuilder translatedProperty = new StringBuilder();
         if (value == null || value.isEmpty()) {
-            translatedProperty.append(COMMENT_MARK);
+            writer.write(COMMENT_MARK);
         }
-        translatedProperty.append(key);
-        translatedProperty.append(KEY_VALUE_SEPARATOR);
-        translatedProperty.append(value);
-        return translatedProperty.toString();
+        JavaEscaper.escape(key, writer, encoding);
+        writer.write(KEY_VALUE_SEPARATOR);
+        JavaEscaper.escape(String.valueOf(value), writer, encoding);
     }
 
     private void setProperties(Properties properties) {
@@ -0,0 +1,248 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Process-wide cache of the {@link TranslationTable}s loaded from the
+ * '.properties' files by the {@link Bundle}s.
+ * <p>
+ * A {@link Bundle} loaded from a file does not keep its translations itself,
+ * only the key of the cache entry, which consists of the path of the file, its
+ * {@link FileStamp} at the time it was loaded and the {@link PropertiesEncoding}
+ * in which it was read. The cache is bounded by the approximate number of bytes
+ * taken by the cached translations, and the least recently used entries are
+ * evicted when the bound is exceeded. A bundle whose translations were evicted
+ * loads them again from its file on the next access. The bundles loaded from
+ * the same version of the same file share the same cached translations.
+ * <p>
+ * The translations of the bundles created with the initial
+ * {@link java.util.Properties} or {@link TranslationTable}, and the properties
+ * returned by {@link Bundle#getProperties()}, are not cached: they cannot be
+ * loaded again, so they are kept by the bundles.
+ * <p>
+ * A {@link BundleIndex} registers the snapshots of the translations of the
+ * unchanged files instead of the translations themselves. A snapshot is read
+ * only when its translations are needed and not cached, and is cached like
+ * the translations loaded from the file, without counting as a load.
+ *
+ * @author kejn
+ *
+ * @see Bundle#getTranslations()
+ */
+public final class BundleCache {
+
+    private static volatile Cache<Key, TranslationTable> cache = newCache(
+            defaultMaximumWeight());
+    private static final Map<Key, Callable<TranslationTable>> snapshots =
+            new ConcurrentHashMap<>();
+
+    private BundleCache() {
+    }
+
+    /*
+     * API.
+     */
+
+    /**
+     * @return the default maximum weight of the cache, which is a quarter of the
+     *         maximum heap size
+     */
+    public static long defaultMaximumWeight() {
+        return Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    /**
+     * Replaces the cache with a new, empty one, bounded by the given
+     * <b>maximumWeight</b>. The statistics are reset as well.
+     *
+     * @param maximumWeight the approximate maximum number of bytes taken by the
+     *            cached translations
+     *
+     * @throws IllegalArgumentException if <b>maximumWeight</b> is negative
+     */
+    public static void setMaximumWeight(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("The maximum weight cannot be negative");
+        }
+        Cache<Key, TranslationTable> oldCache = cache;
+        cache = newCache(maximumWeight);
+        oldCache.invalidateAll();
+    }
+
+    /**
+     * @return the statistics of the hits, misses, loads and evictions of the
+     *         cache since it was created
+     */
+    public static CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return the approximate number of the cached translations
+     */
+    public static long size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all the cached translations and the registered snapshots. The
+     * bundles load them again from their files on the next access.
+     */
+    public static void invalidateAll() {
+        snapshots.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * @param key the key of the cached translations
+     * @return the cached translations, or <code>null</code> if they are not
+     *         cached
+     */
+    static TranslationTable getIfPresent(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Returns the cached translations, reading them from the snapshot
+     * registered for the <b>key</b>, or loading them with the <b>loader</b> if
+     * there is no valid snapshot, if they are not cached. The translations of the
+     * same key are loaded only once, even if they are requested by many threads
+     * at the same time.
+     *
+     * @param key the key of the cached translations
+     * @param loader loads the translations
+     * @return the translations
+     *
+     * @throws IOException if the <b>loader</b> throws IOException
+     */
+    static TranslationTable get(Key key, Callable<TranslationTable> loader) throws IOException {
+        Callable<TranslationTable> snapshot = snapshots.get(key);
+        if (snapshot != null) {
+            TranslationTable translations = cache.getIfPresent(key);
+            if (translations == null && (translations = readSnapshot(snapshot)) != null) {
+                cache.put(key, translations);
+            }
+            if (translations != null) {
+                return translations;
+            }
+        }
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), IOException.class);
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Caches the <b>translations</b> already loaded from the file of given
+     * <b>key</b>, e.g. from a {@link BundleIndex}, so the bundles do not load
+     * them again.
+     *
+     * @param key the key of the cached translations
+     * @param translations the translations of the file
+     */
+    static void put(Key key, TranslationTable translations) {
+        cache.put(key, translations);
+    }
+
+    /**
+     * Registers the <b>snapshot</b> of the translations of the file of given
+     * <b>key</b>, e.g. kept by a {@link BundleIndex}. The snapshot is read
+     * only when the translations are needed and not cached.
+     *
+     * @param key the key of the translations
+     * @param snapshot reads the translations, or returns <code>null</code> if
+     *            the snapshot is no longer valid, so the translations are loaded
+     *            from the file instead
+     */
+    static void putSnapshot(Key key, Callable<TranslationTable> snapshot) {
+        snapshots.put(key, snapshot);
+    }
+
+    /**
+     * @param key the key of the translations to remove from the cache, together
+     *            with their registered snapshot
+     */
+    static void invalidate(Key key) {
+        snapshots.remove(key);
+        cache.invalidate(key);
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private static TranslationTable readSnapshot(Callable<TranslationTable> snapshot) {
+        try {
+            return snapshot.call();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Cache<Key, TranslationTable> newCache(long maximumWeight) {
+        return CacheBuilder.newBuilder().maximumWeight(maximumWeight).weigher((Key key,
+                TranslationTable translations) -> {
+            return (int) Math.min(Integer.MAX_VALUE, translations.estimatedSize());
+        }).recordStats().build();
+    }
+
+    /**
+     * The key of the cached translations: the normalized absolute path of the
+     * file, its stamp when the translations were loaded, and the encoding in
+     * which it was read.
+     */
+    static final class Key {
+
+        private final Path path;
+        private final FileStamp stamp;
+        private final PropertiesEncoding encoding;
+
+        Key(Path path, FileStamp stamp, PropertiesEncoding encoding) {
+            this.path = path.toAbsolutePath().normalize();
+            this.stamp = stamp;
+            this.encoding = encoding;
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        FileStamp getStamp() {
+            return stamp;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * path.hashCode() + stamp.hashCode()) + encoding.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return path.equals(other.path) && stamp.equals(other.stamp)
+                        && encoding == other.encoding;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "Key [path=" + path + ", stamp=" + stamp + ", encoding=" + encoding + "]";
+        }
+    }
+
+}
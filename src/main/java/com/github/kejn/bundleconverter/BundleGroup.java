@@ -2,14 +2,20 @@ package com.github.kejn.bundleconverter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -18,20 +24,24 @@ import java.util.stream.Collectors;
  * {@link Language#DEFAULT} translation. Other translations can be provided
  * later using the {@link #put(Bundle)} or {@link #putAll(Collection)} methods.
  * <p>
- * They are stored as a map where the keys are {@link Language} enums and the
- * values are the corresponding {@link Bundle} objects.
+ * They are stored as a map where the keys are the {@link LocaleKey}s of the
+ * bundles and the values are the corresponding {@link Bundle} objects, so the
+ * group can contain many variants of the same language, e.g. <code>en</code>,
+ * <code>en_US</code> and <code>en_GB</code>. The methods taking a
+ * {@link Language} refer to the translation without any script and region.
  * 
  * @author kejn
  * 
  * @see Bundle
  * @see Language
+ * @see LocaleKey
  * @see Map
  */
 public class BundleGroup {
 
     private final Bundle defaultBundle;
 
-    private Map<Language, Bundle> bundles = new HashMap<>();
+    private Map<LocaleKey, Bundle> bundles = new HashMap<>();
 
     /*
      * API.
@@ -102,7 +112,7 @@ public class BundleGroup {
      */
     public boolean put(Bundle bundle) {
         checkBundle(bundle);
-        return bundles.put(bundle.getLanguage(), bundle) == null;
+        return bundles.put(bundle.getLocaleKey(), bundle) == null;
     }
 
     /**
@@ -159,7 +169,7 @@ public class BundleGroup {
      *         <tt>false</tt> otherwise
      */
     public boolean contains(Bundle bundle) {
-        return getName().equals(bundle.getName()) && getBundle(bundle.getLanguage()) != null;
+        return getName().equals(bundle.getName()) && getBundle(bundle.getLocaleKey()) != null;
     }
 
     /**
@@ -170,7 +180,18 @@ public class BundleGroup {
      *         <b>language</b>
      */
     public Bundle getBundle(Language language) {
-        return bundles.get(language);
+        return language == null ? null : bundles.get(LocaleKey.of(language));
+    }
+
+    /**
+     * Returns a bundle translation from this group for given <b>localeKey</b>.
+     * 
+     * @param localeKey the key of the translation
+     * @return <tt>null</tt> if this group does not contain a translation for given
+     *         <b>localeKey</b>
+     */
+    public Bundle getBundle(LocaleKey localeKey) {
+        return bundles.get(localeKey);
     }
 
     /**
@@ -184,12 +205,19 @@ public class BundleGroup {
     }
 
     /**
-     * Return the set of all supported languages in this group.
+     * Return the set of all supported languages in this group. The variants of
+     * the same language are reported as a single language.
      * 
      * @return set of {@link Language}s of all bundles in this group
+     * 
+     * @see #supportedLocales()
      */
     public Set<Language> supportedLanguages() {
-        return bundles.keySet();
+        Set<Language> languages = EnumSet.noneOf(Language.class);
+        for (LocaleKey localeKey : bundles.keySet()) {
+            languages.add(localeKey.getLanguage());
+        }
+        return languages;
     }
 
     /**
@@ -200,7 +228,29 @@ public class BundleGroup {
      *         {@link Language#DEFAULT} language
      */
     public Set<Language> supportedLanguagesWithoutDefault() {
-        return bundles.keySet().stream().filter(lang -> !Language.DEFAULT.equals(lang)).collect(
+        Set<Language> languages = supportedLanguages();
+        languages.remove(Language.DEFAULT);
+        return languages;
+    }
+
+    /**
+     * Return the set of the keys of all bundles in this group.
+     * 
+     * @return unmodifiable set of {@link LocaleKey}s of all bundles in this group
+     */
+    public Set<LocaleKey> supportedLocales() {
+        return Collections.unmodifiableSet(bundles.keySet());
+    }
+
+    /**
+     * Return the set of the keys of all bundles in this group, excluding the
+     * {@link LocaleKey#DEFAULT} key.
+     * 
+     * @return set of {@link LocaleKey}s of all bundles in this group excluding the
+     *         {@link LocaleKey#DEFAULT} key
+     */
+    public Set<LocaleKey> supportedLocalesWithoutDefault() {
+        return bundles.keySet().stream().filter(key -> !LocaleKey.DEFAULT.equals(key)).collect(
                 Collectors.toSet());
     }
 
@@ -210,11 +260,7 @@ public class BundleGroup {
      * @return set of property keys that the {@link #defaultBundle} contains
      */
     public Set<String> stringPropertyNames() {
-        Properties properties = defaultBundle.getProperties();
-        if (properties == null) {
-            return Collections.emptySet();
-        }
-        return properties.stringPropertyNames();
+        return defaultBundle.stringPropertyNames();
     }
 
     /**
@@ -235,48 +281,215 @@ public class BundleGroup {
      * @return the property value from given <b>key</b> from the bundle matching
      */
     public String getProperty(String key, Language language) {
-        Bundle bundle = getBundle(language);
+        return getProperty(key, language == null ? null : LocaleKey.of(language));
+    }
+
+    /**
+     * Returns the property value from given <b>key</b> from the bundle matching
+     * given <b>localeKey</b>, just like {@link #getProperty(String, Language)}.
+     * 
+     * @param key the property key
+     * @param localeKey the key of the translation
+     * @return the property value from given <b>key</b> from the bundle matching
+     */
+    public String getProperty(String key, LocaleKey localeKey) {
+        Bundle bundle = getBundle(localeKey);
         if (bundle == null) {
             return null;
         }
-        Properties prop = bundle.getProperties();
-        if (prop == null) {
-            return null;
-        }
-        return prop.getProperty(key);
+        return bundle.getProperty(key);
+    }
+
+    /**
+     * Creates a columnar snapshot of this group: the keys of the
+     * {@link #defaultBundle} indexed once, and a dense column of values for each
+     * supported language. Use it to go through all the values of the group,
+     * rather than calling {@link #getProperty(String, Language)} for every key
+     * and language.
+     *
+     * @return the {@link TranslationMatrix} of the current translations
+     */
+    public TranslationMatrix toMatrix() {
+        return TranslationMatrix.of(this);
     }
 
     /**
      * Saves all the bundles in group as '.properties' files.
      * 
+     * @return the numbers of the written files and of the files skipped because
+     *         they already had the same content
+     * 
      * @throws IOException if the any of the {@link Bundle#saveToFile()} call throws
      *             IOException
      * 
      * @see Bundle#saveToFile()
      */
-    public void saveGroupAsPropertiesFiles() throws IOException {
-        saveGroupAsPropertiesFiles(null);
+    public SaveReport saveGroupAsPropertiesFiles() throws IOException {
+        return saveGroupAsPropertiesFiles(null);
     }
 
     /**
      * Saves all the bundles in group as '.properties' files matching property keys
      * specified in <b>templateFile</b> and using its file structure. It preserves
      * the comments and keys order.
+     * <p>
+     * The <b>templateFile</b> is compiled once, with
+     * {@link PropertiesTemplate#forFile(File)}, before any bundle is saved, and
+     * the compiled template is used for all the bundles.
      * 
      * @param templateFile the template file
+     * @return the numbers of the written files and of the files skipped because
+     *         they already had the same content
      * 
      * @throws IllegalArgumentException if any of the
-     *             {@link Bundle#saveToFile(File)} call throws
+     *             {@link Bundle#saveWithTemplate(PropertiesTemplate)} call throws
      *             IllegalArgumentException
-     * @throws IOException if the any of the {@link Bundle#saveToFile(File)} call
+     * @throws IOException if the <b>templateFile</b> cannot be read, or if the
+     *             any of the {@link Bundle#saveWithTemplate(PropertiesTemplate)} call
      *             throws IOException
      * 
-     * @see Bundle#saveToFile(File)
+     * @see Bundle#saveWithTemplate(PropertiesTemplate)
+     */
+    public SaveReport saveGroupAsPropertiesFiles(File templateFile) throws IOException {
+        PropertiesTemplate template = templateFile == null ? null
+                : PropertiesTemplate.forFile(templateFile);
+        int written = 0;
+        int skipped = 0;
+        for (Bundle bundle : bundles.values()) {
+            if (bundle.saveWithTemplate(template)) {
+                ++written;
+            } else {
+                ++skipped;
+            }
+        }
+        return new SaveReport(written, skipped);
+    }
+
+    /**
+     * Saves all the bundles in group as '.properties' files in parallel, just
+     * like {@link #saveGroupAsPropertiesFiles(File)}. The <b>templateFile</b> is
+     * compiled on the calling thread, then every bundle is saved by a separate
+     * task run on given <b>executor</b>. The method returns when all the tasks
+     * are done, even if some of them failed.
+     * 
+     * @param templateFile the template file; if null, all the properties of each
+     *            bundle are saved
+     * @param executor the executor used to save the bundles
+     * @return the numbers of the written files and of the files skipped because
+     *         they already had the same content
+     * 
+     * @throws IOException if the <b>templateFile</b> cannot be read, or if saving
+     *             any of the bundles throws IOException
+     * 
+     * @see Bundles#saveGroups(Collection, Executor)
+     */
+    public SaveReport saveGroupAsPropertiesFiles(File templateFile, Executor executor)
+            throws IOException {
+        Objects.requireNonNull(executor);
+        PropertiesTemplate template = templateFile == null ? null
+                : PropertiesTemplate.forFile(templateFile);
+        return Bundles.awaitSaves(saveAsync(template, executor));
+    }
+
+    /**
+     * Loads all the bundles in group in parallel. Every bundle is loaded by a
+     * separate task run on given <b>executor</b>. The method returns when all the
+     * bundles are loaded.
+     * 
+     * @param executor the executor used to load the bundles
+     * 
+     * @see Bundles#loadGroups(Collection, Executor)
+     */
+    public void loadBundles(Executor executor) {
+        Objects.requireNonNull(executor);
+        Bundles.awaitLoads(loadAsync(executor));
+    }
+
+    /**
+     * Reloads the bundles in group whose files changed since they were loaded,
+     * as detected by {@link Bundle#reloadIfChanged()}. The other bundles are
+     * kept as they are.
+     * 
+     * @return the keys of the translations of the reloaded bundles, so the
+     *         variants of a language, e.g. <code>en</code> and
+     *         <code>en_US</code>, are reported separately
+     */
+    public Set<LocaleKey> refresh() {
+        Set<LocaleKey> reloaded = new HashSet<>();
+        for (Map.Entry<LocaleKey, Bundle> entry : bundles.entrySet()) {
+            if (entry.getValue().reloadIfChanged()) {
+                reloaded.add(entry.getKey());
+            }
+        }
+        return reloaded;
+    }
+
+    /**
+     * Sets whether all the bundles currently in group are validating.
+     * 
+     * @param validating <code>true</code> to validate the bundles on every
+     *            access
+     * 
+     * @see Bundle#setValidating(boolean)
+     */
+    public void setValidating(boolean validating) {
+        for (Bundle bundle : bundles.values()) {
+            bundle.setValidating(validating);
+        }
+    }
+
+    /**
+     * Sets the encoding in which all the bundles currently in group are loaded
+     * and saved.
+     * 
+     * @param encoding CANNOT BE NULL; the encoding of the files
+     * 
+     * @throws NullPointerException if the <b>encoding</b> is null
+     * 
+     * @see Bundle#setEncoding(PropertiesEncoding)
+     */
+    public void setEncoding(PropertiesEncoding encoding) {
+        Objects.requireNonNull(encoding, "The encoding cannot be null");
+        for (Bundle bundle : bundles.values()) {
+            bundle.setEncoding(encoding);
+        }
+    }
+
+    /**
+     * Starts loading each bundle in group on given <b>executor</b>.
+     * 
+     * @param executor the executor used to load the bundles
+     * @return a future of each bundle
+     */
+    List<CompletableFuture<Void>> loadAsync(Executor executor) {
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (Bundle bundle : bundles.values()) {
+            loads.add(CompletableFuture.runAsync(bundle::load, executor));
+        }
+        return loads;
+    }
+
+    /**
+     * Starts saving each bundle in group on given <b>executor</b>.
+     * 
+     * @param template the compiled template, or null
+     * @param executor the executor used to save the bundles
+     * @return a future of each bundle, completed with the result of
+     *         {@link Bundle#saveWithTemplate(PropertiesTemplate)}, or with an
+     *         {@link UncheckedIOException} if it threw IOException
      */
-    public void saveGroupAsPropertiesFiles(File templateFile) throws IOException {
-        for (Language language : supportedLanguages()) {
-            bundles.get(language).saveToFile(templateFile);
+    List<CompletableFuture<Boolean>> saveAsync(PropertiesTemplate template, Executor executor) {
+        List<CompletableFuture<Boolean>> saves = new ArrayList<>();
+        for (Bundle bundle : bundles.values()) {
+            saves.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return bundle.saveWithTemplate(template);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor));
         }
+        return saves;
     }
 
     /*
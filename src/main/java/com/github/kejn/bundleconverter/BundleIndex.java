@@ -0,0 +1,599 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.hash.HashingOutputStream;
+
+/**
+ * Persistent index of the '.properties' files of the {@link Bundle}s, which
+ * lets the bundles skip parsing the files which did not change since the
+ * previous run.
+ * <p>
+ * For each indexed file, the index keeps its {@link FileStamp}, the hash of its
+ * content, the {@link PropertiesEncoding} in which it was read and the snapshot
+ * of its parsed {@link TranslationTable}. The index is kept in a single file.
+ * The snapshots are not read by {@link #open(Path)}, which keeps only their
+ * positions in the file, so the memory taken by an open index does not depend
+ * on the size of the translations.
+ * <p>
+ * {@link #refresh(Collection)} reads the stamp of each bundle's file. The
+ * snapshots of the unchanged files are registered in the {@link BundleCache},
+ * so a bundle reads its snapshot from the index file instead of parsing its
+ * own file, and only when it needs its translations. Only the files whose
+ * stamp changed are read and hashed, and only the files whose content changed
+ * are parsed; their translations are put to the cache, and written to the
+ * index file by {@link #save()}. The returned {@link Changes} contain just the
+ * paths of the added, modified and removed files.
+ * <p>
+ * The index is a cache: a missing, corrupted or incompatible index file is
+ * treated as an empty index. The index is not thread-safe.
+ * <p>
+ * <b><u>EXAMPLE</u></b>
+ * <hr>
+ * <blockquote>
+ *
+ * <pre>
+ * BundleIndex index = BundleIndex.open(Paths.get("bundles.idx"));
+ * List&lt;BundleGroup&gt; groups = Bundles.groupsInTree(Paths.get("path/to/project"));
+ * BundleIndex.Changes changes = index.refresh(groups);
+ * [...] // only the changed bundles are parsed
+ * index.save();
+ * </pre>
+ *
+ * </blockquote>
+ *
+ * @author kejn
+ *
+ * @see BundleCache
+ */
+public final class BundleIndex {
+
+    private static final int MAGIC = 0x42495858;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * 4;
+    private static final int CHECKSUM_SIZE = 8;
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final Path indexFile;
+    private FileStamp indexStamp;
+    private Map<Path, Entry> entries;
+    private boolean dirty;
+
+    private BundleIndex(Path indexFile, FileStamp indexStamp, Map<Path, Entry> entries) {
+        this.indexFile = indexFile;
+        this.indexStamp = indexStamp;
+        this.entries = entries;
+    }
+
+    /*
+     * API.
+     */
+
+    /**
+     * Opens the index kept in given <b>indexFile</b>. If the file does not
+     * exist yet, or it is not a valid index, the index is empty. The file is
+     * read and verified at once, but the snapshots of the translations are
+     * skipped.
+     *
+     * @param indexFile CANNOT BE NULL; the file of the index
+     * @return the index read from the file
+     *
+     * @throws IOException if the existing file cannot be read
+     */
+    public static BundleIndex open(Path indexFile) throws IOException {
+        Objects.requireNonNull(indexFile);
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(indexFile))) {
+            FileStamp stamp = FileStamp.read(indexFile);
+            return new BundleIndex(indexFile, stamp, readEntries(in, stamp.getSize()));
+        } catch (NoSuchFileException | EOFException | IllegalArgumentException e) {
+            return new BundleIndex(indexFile, null, new HashMap<>());
+        }
+    }
+
+    /**
+     * Brings the index up to date with the files of all the bundles of given
+     * <b>groups</b>, and registers the snapshots of their unchanged files in the
+     * {@link BundleCache}.
+     *
+     * @param groups the groups of the indexed bundles
+     * @return the changes of the files since the previous refresh
+     *
+     * @throws IOException if any of the files cannot be read
+     *
+     * @see #refreshBundles(Collection)
+     */
+    public Changes refresh(Collection<BundleGroup> groups) throws IOException {
+        List<Bundle> bundles = new ArrayList<>();
+        for (BundleGroup group : groups) {
+            for (LocaleKey localeKey : group.supportedLocales()) {
+                bundles.add(group.getBundle(localeKey));
+            }
+        }
+        return refreshBundles(bundles);
+    }
+
+    /**
+     * Brings the index up to date with the files of given <b>bundles</b>, and
+     * registers the snapshots of their unchanged files in the
+     * {@link BundleCache}. The translations of the changed files are parsed and
+     * put to the cache. The bundles whose files do not exist are skipped. The
+     * files of the bundles which are not given are removed from the index.
+     *
+     * @param bundles the indexed bundles
+     * @return the changes of the files since the previous refresh
+     *
+     * @throws IOException if any of the files cannot be read
+     */
+    public Changes refreshBundles(Collection<Bundle> bundles) throws IOException {
+        List<Path> added = new ArrayList<>();
+        List<Path> changed = new ArrayList<>();
+        Set<Path> seen = new HashSet<>();
+        for (Bundle bundle : bundles) {
+            Path path = bundle.getFile().toPath().toAbsolutePath().normalize();
+            FileStamp stamp;
+            try {
+                stamp = FileStamp.read(path);
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            if (!seen.add(path)) {
+                continue;
+            }
+            PropertiesEncoding encoding = bundle.getEncoding();
+            Entry entry = entries.get(path);
+            if (entry == null || !entry.stamp.equals(stamp) || entry.encoding != encoding) {
+                Entry newEntry = readEntry(path, encoding, entry);
+                if (entry == null) {
+                    added.add(path);
+                } else {
+                    if (!Arrays.equals(entry.contentHash, newEntry.contentHash)) {
+                        changed.add(path);
+                    }
+                    BundleCache.invalidate(entry.cacheKey(path));
+                }
+                entries.put(path, newEntry);
+                dirty = true;
+                entry = newEntry;
+            }
+            if (entry.hasSnapshot()) {
+                BundleCache.putSnapshot(entry.cacheKey(path), snapshotLoader(entry));
+            }
+        }
+
+        List<Path> removed = new ArrayList<>();
+        if (seen.size() < entries.size()) {
+            for (Map.Entry<Path, Entry> indexed : entries.entrySet()) {
+                if (!seen.contains(indexed.getKey())) {
+                    removed.add(indexed.getKey());
+                    BundleCache.invalidate(indexed.getValue().cacheKey(indexed.getKey()));
+                }
+            }
+            entries.keySet().removeAll(removed);
+            dirty = true;
+        }
+        return new Changes(added, changed, removed);
+    }
+
+    /**
+     * Returns the number of the keys of the indexed <b>file</b>, without
+     * reading the file.
+     *
+     * @param file the '.properties' file
+     * @return the number of the keys, or <code>-1</code> if the file is not
+     *         indexed
+     */
+    public int keyCount(File file) {
+        Entry entry = entries.get(file.toPath().toAbsolutePath().normalize());
+        return entry == null ? -1 : entry.keyCount;
+    }
+
+    /**
+     * @return the number of the indexed files
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the index to its file, unless it was not modified since it was
+     * opened or saved. The file is replaced atomically where the file system
+     * supports it, so a failed save does not corrupt the previous index.
+     * <p>
+     * The index is written entry by entry. The snapshots of the unchanged files
+     * are copied from the previous index file. The snapshots of the changed
+     * files are taken from the {@link BundleCache}, or parsed again if they were
+     * evicted from it.
+     *
+     * @return <code>true</code> if the file was written
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public boolean save() throws IOException {
+        if (!dirty && Files.exists(indexFile)) {
+            return false;
+        }
+        Path directory = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, indexFile.getFileName()
+                .toString(), ".tmp");
+        Map<Path, Entry> written;
+        try {
+            written = writeEntries(temporaryFile);
+            try {
+                Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        entries = written;
+        indexStamp = FileStamp.read(indexFile);
+        for (Map.Entry<Path, Entry> indexed : entries.entrySet()) {
+            Entry entry = indexed.getValue();
+            BundleCache.putSnapshot(entry.cacheKey(indexed.getKey()), snapshotLoader(entry));
+        }
+        dirty = false;
+        return true;
+    }
+
+    /*
+     * Private methods.
+     */
+
+    /**
+     * Reads and hashes the file. If its content did not change since the
+     * <b>previous</b> entry was made in the same encoding, the snapshot or the
+     * cached translations of that entry are used instead of parsing the content
+     * again. The parsed translations are put to the {@link BundleCache}.
+     */
+    private static Entry readEntry(Path path, PropertiesEncoding encoding, Entry previous)
+            throws IOException {
+        FileStamp stamp = FileStamp.read(path);
+        byte[] content = Files.readAllBytes(path);
+        byte[] contentHash = HASH.hashBytes(content).asBytes();
+        BundleCache.Key key = new BundleCache.Key(path, stamp, encoding);
+        if (previous != null && previous.encoding == encoding && Arrays.equals(
+                previous.contentHash, contentHash)) {
+            if (previous.hasSnapshot()) {
+                return new Entry(stamp, contentHash, encoding, previous.keyCount,
+                        previous.snapshotOffset, previous.snapshotLength);
+            }
+            TranslationTable translations = BundleCache.getIfPresent(previous.cacheKey(path));
+            if (translations != null) {
+                BundleCache.put(key, translations);
+                return new Entry(stamp, contentHash, encoding, translations.size());
+            }
+        }
+        TranslationTable translations = parse(content, encoding);
+        BundleCache.put(key, translations);
+        return new Entry(stamp, contentHash, encoding, translations.size());
+    }
+
+    private static TranslationTable parse(byte[] content, PropertiesEncoding encoding) {
+        TranslationTable.Builder builder = TranslationTable.builder();
+        PropertiesParser.parse(content, content.length, encoding, builder::put);
+        return builder.build();
+    }
+
+    /**
+     * Returns the loader of the snapshot of given <b>entry</b> from the current
+     * index file. The loader returns <code>null</code> if the index file
+     * changed or the snapshot cannot be read, so the bundle parses its own file
+     * instead.
+     */
+    private Callable<TranslationTable> snapshotLoader(Entry entry) {
+        Path file = indexFile;
+        FileStamp stamp = indexStamp;
+        long offset = entry.snapshotOffset;
+        int length = entry.snapshotLength;
+        return () -> {
+            if (!stamp.isCurrent(file)) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(file)) {
+                ByteBuffer snapshot = ByteBuffer.allocate(length);
+                readFully(channel, snapshot, offset);
+                snapshot.flip();
+                return TranslationTable.readFrom(snapshot);
+            } catch (IOException | IllegalArgumentException | BufferUnderflowException e) {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Writes all the entries to given <b>target</b> file, and returns them with
+     * the positions of their snapshots in the <b>target</b>. If the file of an
+     * entry without a snapshot changed since it was refreshed, the entry is
+     * written as stale, so the next refresh reads the file again and reports it
+     * as modified.
+     */
+    private Map<Path, Entry> writeEntries(Path target) throws IOException {
+        boolean snapshotsCurrent = indexStamp != null && indexStamp.isCurrent(indexFile);
+        Map<Path, Entry> written = new HashMap<>();
+        try (FileChannel source = snapshotsCurrent ? FileChannel.open(indexFile) : null;
+                OutputStream file = new BufferedOutputStream(Files.newOutputStream(target))) {
+            HashingOutputStream hashing = new HashingOutputStream(HASH, file);
+            DataOutputStream out = new DataOutputStream(hashing);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            long position = HEADER_SIZE;
+            for (Map.Entry<Path, Entry> indexed : entries.entrySet()) {
+                Path path = indexed.getKey();
+                Entry entry = indexed.getValue();
+                ByteBuffer snapshot;
+                if (source != null && entry.hasSnapshot()) {
+                    snapshot = ByteBuffer.allocate(entry.snapshotLength);
+                    readFully(source, snapshot, entry.snapshotOffset);
+                } else {
+                    TranslationTable translations = BundleCache.getIfPresent(entry.cacheKey(
+                            path));
+                    if (translations == null) {
+                        byte[] content = readIfExists(path);
+                        translations = content == null ? TranslationTable.EMPTY : parse(
+                                content, entry.encoding);
+                        if (content == null || !Arrays.equals(entry.contentHash, HASH
+                                .hashBytes(content).asBytes())) {
+                            entry = Entry.stale(entry.encoding, translations.size());
+                        }
+                    }
+                    snapshot = ByteBuffer.allocate(translations.serializedSize());
+                    translations.writeTo(snapshot);
+                }
+
+                byte[] pathBytes = path.toString().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(pathBytes.length);
+                out.write(pathBytes);
+                out.writeLong(entry.stamp.getSize());
+                out.writeLong(toNanos(entry.stamp.getLastModifiedTime()));
+                out.write(entry.contentHash);
+                out.writeByte(entry.encoding.ordinal());
+                out.write(snapshot.array());
+                long snapshotOffset = position + 4 + pathBytes.length + Entry.FIXED_SIZE;
+                position = snapshotOffset + snapshot.capacity();
+                written.put(path, new Entry(entry.stamp, entry.contentHash, entry.encoding,
+                        entry.keyCount, snapshotOffset, snapshot.capacity()));
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(hashing.hash().asLong());
+        }
+        return written;
+    }
+
+    /**
+     * Reads the entries from the <b>in</b> stream of the index file of given
+     * <b>length</b>, verifying its checksum. The snapshots are skipped, only
+     * their positions are kept.
+     */
+    private static Map<Path, Entry> readEntries(InputStream in, long length)
+            throws IOException {
+        if (length < HEADER_SIZE + CHECKSUM_SIZE) {
+            throw new IllegalArgumentException("The index file is too short");
+        }
+        HashingInputStream hashing = new HashingInputStream(HASH, in);
+        DataInputStream data = new DataInputStream(hashing);
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IllegalArgumentException("The file is not a valid index");
+        }
+
+        int size = data.readInt();
+        if (size < 0) {
+            throw new IllegalArgumentException("The file is not a valid index");
+        }
+        long end = length - CHECKSUM_SIZE;
+        long position = HEADER_SIZE;
+        PropertiesEncoding[] encodings = PropertiesEncoding.values();
+        byte[] header = new byte[TranslationTable.SNAPSHOT_HEADER_SIZE];
+        byte[] skipped = new byte[8192];
+        Map<Path, Entry> entries = new HashMap<>();
+        for (int index = 0; index < size; ++index) {
+            int pathLength = data.readInt();
+            if (pathLength < 0 || pathLength > end - position) {
+                throw new IllegalArgumentException("The file is not a valid index");
+            }
+            byte[] path = new byte[pathLength];
+            data.readFully(path);
+            long fileSize = data.readLong();
+            FileTime lastModifiedTime = FileTime.from(data.readLong(), TimeUnit.NANOSECONDS);
+            byte[] contentHash = new byte[HASH.bits() / 8];
+            data.readFully(contentHash);
+            int encoding = data.readByte();
+            if (encoding < 0 || encoding >= encodings.length) {
+                throw new IllegalArgumentException("The file is not a valid index");
+            }
+
+            data.readFully(header);
+            ByteBuffer snapshotHeader = ByteBuffer.wrap(header);
+            long snapshotSize = TranslationTable.snapshotSize(snapshotHeader);
+            long snapshotOffset = position + 4 + pathLength + Entry.FIXED_SIZE;
+            if (snapshotSize > end - snapshotOffset || snapshotSize > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The file is not a valid index");
+            }
+            for (long remaining = snapshotSize - header.length; remaining > 0;) {
+                int count = (int) Math.min(remaining, skipped.length);
+                data.readFully(skipped, 0, count);
+                remaining -= count;
+            }
+            position = snapshotOffset + snapshotSize;
+
+            entries.put(Paths.get(new String(path, StandardCharsets.UTF_8)),
+                    new Entry(FileStamp.of(lastModifiedTime, fileSize), contentHash,
+                            encodings[encoding], TranslationTable.snapshotKeyCount(
+                                    snapshotHeader), snapshotOffset, (int) snapshotSize));
+        }
+        // the checksum is read past the hashing stream
+        if (position != end || new DataInputStream(in).readLong() != hashing.hash()
+                .asLong()) {
+            throw new IllegalArgumentException("The file is not a valid index");
+        }
+        return entries;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                throw new EOFException("Unexpected end of the index file");
+            }
+            position += count;
+        }
+    }
+
+    private static byte[] readIfExists(Path path) throws IOException {
+        try {
+            return Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static long toNanos(FileTime time) {
+        return time.to(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The indexed state of a single file. The snapshot of its translations is
+     * kept in the index file, at the given offset, unless the entry was added or
+     * changed since the index was saved.
+     */
+    private static final class Entry {
+
+        static final int FIXED_SIZE = 8 + 8 + HASH.bits() / 8 + 1;
+
+        private static final long NO_SNAPSHOT = -1;
+        private static final FileStamp STALE = FileStamp.of(FileTime.fromMillis(0), -1);
+
+        final FileStamp stamp;
+        final byte[] contentHash;
+        final PropertiesEncoding encoding;
+        final int keyCount;
+        final long snapshotOffset;
+        final int snapshotLength;
+
+        Entry(FileStamp stamp, byte[] contentHash, PropertiesEncoding encoding, int keyCount) {
+            this(stamp, contentHash, encoding, keyCount, NO_SNAPSHOT, 0);
+        }
+
+        Entry(FileStamp stamp, byte[] contentHash, PropertiesEncoding encoding, int keyCount,
+                long snapshotOffset, int snapshotLength) {
+            this.stamp = stamp;
+            this.contentHash = contentHash;
+            this.encoding = encoding;
+            this.keyCount = keyCount;
+            this.snapshotOffset = snapshotOffset;
+            this.snapshotLength = snapshotLength;
+        }
+
+        /**
+         * @return the entry which matches no file, so it is always read again
+         */
+        static Entry stale(PropertiesEncoding encoding, int keyCount) {
+            return new Entry(STALE, new byte[HASH.bits() / 8], encoding, keyCount);
+        }
+
+        boolean hasSnapshot() {
+            return snapshotOffset != NO_SNAPSHOT;
+        }
+
+        BundleCache.Key cacheKey(Path path) {
+            return new BundleCache.Key(path, stamp, encoding);
+        }
+    }
+
+    /**
+     * The files which changed since the previous refresh of a
+     * {@link BundleIndex}, ordered by their paths. A file which was only
+     * touched, but whose content did not change, is not reported.
+     *
+     * @author kejn
+     */
+    public static final class Changes {
+
+        private final List<Path> added;
+        private final List<Path> modified;
+        private final List<Path> removed;
+
+        private Changes(List<Path> added, List<Path> modified, List<Path> removed) {
+            Collections.sort(added);
+            Collections.sort(modified);
+            Collections.sort(removed);
+            this.added = Collections.unmodifiableList(added);
+            this.modified = Collections.unmodifiableList(modified);
+            this.removed = Collections.unmodifiableList(removed);
+        }
+
+        /**
+         * @return the absolute paths of the files which were not indexed
+         */
+        public List<Path> getAdded() {
+            return added;
+        }
+
+        /**
+         * @return the absolute paths of the indexed files whose content changed
+         */
+        public List<Path> getModified() {
+            return modified;
+        }
+
+        /**
+         * @return the absolute paths of the indexed files which do not exist
+         *         anymore, or whose bundles were not refreshed
+         */
+        public List<Path> getRemoved() {
+            return removed;
+        }
+
+        /**
+         * @return <code>true</code> if no file was added, modified or removed
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Changes [added=" + added + ", modified=" + modified + ", removed="
+                    + removed + "]";
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Discovers the '.properties' files of a directory tree, built with
+ * {@link #builder()}.
+ * <p>
+ * The tree is walked with {@link Files#walkFileTree(Path, Set, int, FileVisitor)},
+ * so the attributes of each entry are read only once, and only the entries
+ * with the '.properties' extension are turned into the {@link Bundle}s. The
+ * symbolic links are not followed.
+ * <p>
+ * The include and exclude rules are globs of
+ * {@link FileSystem#getPathMatcher(String)}, matched against the path of the
+ * entry relative to the scanned directory, e.g. <code>**&#47;i18n/*</code>.
+ * A file is discovered if it matches any of the include rules, or if there are
+ * no include rules, and it does not match any of the exclude rules. A directory
+ * matching any of the exclude rules is not walked at all.
+ * <p>
+ * With the parallelism greater than one, each directory is listed by a
+ * separate task of a {@link ForkJoinPool}, so the subtrees are walked in
+ * parallel. The result is the same as of the sequential walk.
+ *
+ * @author kejn
+ *
+ * @see Bundles#groupsInTree(Path)
+ */
+public final class BundleScanner {
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final int maxDepth;
+    private final int parallelism;
+
+    private BundleScanner(Builder builder) {
+        this.includes = new ArrayList<>(builder.includes);
+        this.excludes = new ArrayList<>(builder.excludes);
+        this.maxDepth = builder.maxDepth;
+        this.parallelism = builder.parallelism;
+    }
+
+    /**
+     * @return a new builder of the scanner which walks the whole tree
+     *         sequentially and discovers all the '.properties' files
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Discovers the '.properties' files in given <b>directory</b> and its
+     * subdirectories. The bundles are ordered by their paths.
+     *
+     * @param directory the root of the scanned tree
+     * @return the list of all the {@link Bundle}s found, or an empty list if
+     *         the <b>directory</b> does not exist or it is not a directory
+     *
+     * @throws IOException if any of the walked directories cannot be read
+     */
+    public List<Bundle> scanBundles(Path directory) throws IOException {
+        List<Path> files = scanFiles(directory);
+        List<Bundle> bundles = new ArrayList<>(files.size());
+        for (Path file : files) {
+            bundles.add(new Bundle(file.toFile()));
+        }
+        return bundles;
+    }
+
+    /**
+     * Discovers the '.properties' files in given <b>directory</b> and its
+     * subdirectories, and groups them just like
+     * {@link Bundles#groupsInDirectory(java.io.File)}. The bundles of the same
+     * name in different directories belong to different groups. The groups are
+     * ordered by their directories and names.
+     *
+     * @param directory the root of the scanned tree
+     * @return the list of all the {@link BundleGroup}s found
+     *
+     * @throws IOException if any of the walked directories cannot be read
+     * @throws IllegalArgumentException if any of the groups does not contain a
+     *             default bundle
+     *
+     * @see Bundles#newBundleGroup(java.util.Collection)
+     */
+    public List<BundleGroup> scanGroups(Path directory) throws IOException {
+        Map<Path, Map<String, Set<Bundle>>> groupsMap = new TreeMap<>();
+        for (Path file : scanFiles(directory)) {
+            Bundle bundle = new Bundle(file.toFile());
+            groupsMap.computeIfAbsent(file.getParent(), key -> new TreeMap<>())
+                    .computeIfAbsent(bundle.getName(), key -> new TreeSet<>()).add(bundle);
+        }
+
+        List<BundleGroup> groups = new ArrayList<>();
+        for (Map<String, Set<Bundle>> directoryGroups : groupsMap.values()) {
+            for (Set<Bundle> set : directoryGroups.values()) {
+                groups.add(Bundles.newBundleGroup(set));
+            }
+        }
+        return groups;
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private List<Path> scanFiles(Path directory) throws IOException {
+        Objects.requireNonNull(directory);
+
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        Walk walk = new Walk(directory);
+        List<Path> files;
+        if (parallelism > 1) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                files = pool.invoke(walk.new DirectoryTask(directory, 0));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            files = walk.walkTree();
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static List<PathMatcher> compile(FileSystem fileSystem, List<String> globs) {
+        List<PathMatcher> matchers = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            matchers.add(fileSystem.getPathMatcher("glob:" + glob));
+        }
+        return matchers;
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A single walk of the tree, holding the rules compiled for the file system
+     * of its root.
+     */
+    private final class Walk {
+
+        private final Path root;
+        private final List<PathMatcher> includeMatchers;
+        private final List<PathMatcher> excludeMatchers;
+
+        Walk(Path root) {
+            this.root = root;
+            this.includeMatchers = compile(root.getFileSystem(), includes);
+            this.excludeMatchers = compile(root.getFileSystem(), excludes);
+        }
+
+        /**
+         * Walks the whole tree in the current thread.
+         */
+        List<Path> walkTree() throws IOException {
+            List<Path> files = new ArrayList<>();
+            Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class),
+                    maxDepth, new SimpleFileVisitor<Path>() {
+
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path directory,
+                                BasicFileAttributes attributes) {
+                            return directory.equals(root) || !isExcluded(directory)
+                                    ? FileVisitResult.CONTINUE
+                                    : FileVisitResult.SKIP_SUBTREE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(Path file,
+                                BasicFileAttributes attributes) {
+                            if (!attributes.isDirectory() && isBundleFile(file)) {
+                                files.add(file);
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+            return files;
+        }
+
+        /**
+         * Lists a single <b>directory</b>, adding its bundle files to the
+         * <b>files</b> and its subdirectories, which are not excluded and are
+         * above the maximum depth, to the <b>subdirectories</b>.
+         */
+        void walkDirectory(Path directory, int depth, List<Path> files,
+                List<Path> subdirectories) throws IOException {
+            boolean descend = depth + 1 < maxDepth;
+            Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1,
+                    new SimpleFileVisitor<Path>() {
+
+                        @Override
+                        public FileVisitResult visitFile(Path file,
+                                BasicFileAttributes attributes) {
+                            if (attributes.isDirectory()) {
+                                if (descend && !isExcluded(file)) {
+                                    subdirectories.add(file);
+                                }
+                            } else if (isBundleFile(file)) {
+                                files.add(file);
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        }
+
+        private boolean isBundleFile(Path file) {
+            if (!Bundles.fileNameIsValid(file.getFileName().toString())) {
+                return false;
+            }
+            Path relativePath = root.relativize(file);
+            return (includeMatchers.isEmpty() || matchesAny(includeMatchers, relativePath))
+                    && !matchesAny(excludeMatchers, relativePath);
+        }
+
+        private boolean isExcluded(Path directory) {
+            return matchesAny(excludeMatchers, root.relativize(directory));
+        }
+
+        /**
+         * Lists a directory and forks the tasks listing its subdirectories.
+         */
+        final class DirectoryTask extends RecursiveTask<List<Path>> {
+
+            private static final long serialVersionUID = 1L;
+
+            private final Path directory;
+            private final int depth;
+
+            DirectoryTask(Path directory, int depth) {
+                this.directory = directory;
+                this.depth = depth;
+            }
+
+            @Override
+            protected List<Path> compute() {
+                List<Path> files = new ArrayList<>();
+                List<Path> subdirectories = new ArrayList<>();
+                try {
+                    walkDirectory(directory, depth, files, subdirectories);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                List<DirectoryTask> subtasks = new ArrayList<>(subdirectories.size());
+                for (Path subdirectory : subdirectories) {
+                    subtasks.add(new DirectoryTask(subdirectory, depth + 1));
+                }
+                for (DirectoryTask subtask : invokeAll(subtasks)) {
+                    files.addAll(subtask.join());
+                }
+                return files;
+            }
+        }
+    }
+
+    /**
+     * Builder of {@link BundleScanner}.
+     *
+     * @author kejn
+     */
+    public static final class Builder {
+
+        private final List<String> includes = new ArrayList<>();
+        private final List<String> excludes = new ArrayList<>();
+        private int maxDepth = Integer.MAX_VALUE;
+        private int parallelism = 1;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the rule of the files to discover. Once any include rule is
+         * added, only the files matching at least one of them are discovered.
+         *
+         * @param glob CANNOT BE NULL; the glob matched against the path of the
+         *            file relative to the scanned directory
+         * @return this builder
+         *
+         * @throws NullPointerException if the <b>glob</b> is null
+         */
+        public Builder include(String glob) {
+            includes.add(Objects.requireNonNull(glob));
+            return this;
+        }
+
+        /**
+         * Adds the rule of the files and directories to skip. The excluded
+         * directories are not walked at all.
+         *
+         * @param glob CANNOT BE NULL; the glob matched against the path of the
+         *            file or directory relative to the scanned directory
+         * @return this builder
+         *
+         * @throws NullPointerException if the <b>glob</b> is null
+         */
+        public Builder exclude(String glob) {
+            excludes.add(Objects.requireNonNull(glob));
+            return this;
+        }
+
+        /**
+         * Limits the depth of the walk. The files of the scanned directory
+         * itself are at depth 1, so the scanner limited to depth 1 discovers
+         * just the same files as {@link Bundles#bundlesInDirectory(java.io.File)}.
+         *
+         * @param maxDepth the maximum depth of the discovered files
+         * @return this builder
+         *
+         * @throws IllegalArgumentException if <b>maxDepth</b> is not positive
+         */
+        public Builder maxDepth(int maxDepth) {
+            if (maxDepth < 1) {
+                throw new IllegalArgumentException("The maximum depth must be positive");
+            }
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Sets the number of the directories listed at the same time. With the
+         * parallelism of 1, which is the default, the tree is walked in the
+         * calling thread.
+         *
+         * @param parallelism the parallelism of the {@link ForkJoinPool} created
+         *            for each scan
+         * @return this builder
+         *
+         * @throws IllegalArgumentException if <b>parallelism</b> is not positive
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("The parallelism must be positive");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @return a new scanner with the rules added to this builder
+         */
+        public BundleScanner build() {
+            return new BundleScanner(this);
+        }
+    }
+}
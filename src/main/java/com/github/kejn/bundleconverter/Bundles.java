@@ -1,10 +1,11 @@
 package com.github.kejn.bundleconverter;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -12,9 +13,15 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import com.google.common.base.Throwables;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Contains static methods that can be helpful when using or creating the
@@ -41,7 +48,15 @@ public final class Bundles {
      */
     public static boolean fileExtensionIsValid(File file) {
         Objects.requireNonNull(file);
-        return Files.getFileExtension(file.getName()).equalsIgnoreCase(FILE_EXTENSION);
+        return fileNameIsValid(file.getName());
+    }
+
+    /**
+     * Checks if the extension of the file of given <b>fileName</b> is valid
+     * without creating a {@link File}.
+     */
+    static boolean fileNameIsValid(String fileName) {
+        return Files.getFileExtension(fileName).equalsIgnoreCase(FILE_EXTENSION);
     }
 
     /**
@@ -60,6 +75,23 @@ public final class Bundles {
         return new File(createFileName(directory, bundleName, language));
     }
 
+    /**
+     * Creates a valid {@link File} object just like
+     * {@link #createFile(File, String, Language)}, but suffixed with the whole
+     * given <b>localeKey</b>, including its script and region.
+     * 
+     * @param directory the target directory
+     * @param bundleName the bundle name
+     * @param localeKey the key of the translation to find out the suffix
+     * @return a valid {@link File} object that can be used as constructor argument
+     *         when creating the {@link Bundle}
+     * 
+     * @see LocaleKey#getSuffix()
+     */
+    public static File createFile(File directory, String bundleName, LocaleKey localeKey) {
+        return new File(createFileName(directory, bundleName, localeKey));
+    }
+
     /**
      * Creates a valid file path that can be used for the {@link File} used as
      * constructor argument when creating the {@link Bundle}. The result file path
@@ -73,9 +105,28 @@ public final class Bundles {
      *         when creating the {@link Bundle}
      */
     public static String createFileName(File directory, String bundleName, Language language) {
+        return createFileName(directory, bundleName, LocaleKey.of(language));
+    }
+
+    /**
+     * Creates a valid file path just like
+     * {@link #createFileName(File, String, Language)}, but suffixed with the
+     * whole given <b>localeKey</b>, including its script and region, e.g.
+     * "bundle_zh_Hant_TW.properties".
+     * 
+     * @param directory the target directory
+     * @param bundleName the bundle name
+     * @param localeKey the key of the translation to find out the suffix
+     * @return a valid {@link File} object that can be used as constructor argument
+     *         when creating the {@link Bundle}
+     * 
+     * @see LocaleKey#getSuffix()
+     */
+    public static String createFileName(File directory, String bundleName,
+            LocaleKey localeKey) {
         Objects.requireNonNull(directory);
         Objects.requireNonNull(bundleName);
-        Objects.requireNonNull(language);
+        Objects.requireNonNull(localeKey);
 
         if (!isExistingDirectory(directory)) {
             throw new IllegalArgumentException("This file doesn't exist or it is not a directory: "
@@ -89,9 +140,9 @@ public final class Bundles {
         sb.append(directory.getAbsolutePath());
         sb.append(File.separator);
         sb.append(bundleName);
-        if (Language.DEFAULT != language) {
+        if (!LocaleKey.DEFAULT.equals(localeKey)) {
             sb.append("_");
-            sb.append(language.getIsoCode());
+            sb.append(localeKey.getSuffix());
         }
         sb.append(".");
         sb.append(FILE_EXTENSION);
@@ -104,25 +155,23 @@ public final class Bundles {
 
     /**
      * Discovers all bundles in given directory and return them as a list of
-     * {@link Bundle}s.
+     * {@link Bundle}s. The subdirectories are not searched.
      * 
      * @param directory the directory where the discovery will be made
      * @return the list of all {@link Bundle}s found
+     * 
+     * @throws UncheckedIOException if the directory cannot be read
+     * 
+     * @see BundleScanner
      */
     public static List<Bundle> bundlesInDirectory(File directory) {
         Objects.requireNonNull(directory);
 
-        if (!isExistingDirectory(directory)) {
-            return Collections.emptyList();
+        try {
+            return BundleScanner.builder().maxDepth(1).build().scanBundles(directory.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        List<String> bundleNames = Arrays.asList(directory.list((dir, name) -> {
-            File f = new File(dir, name);
-            return !f.isDirectory() && fileExtensionIsValid(f);
-        }));
-
-        return bundleNames.stream().map(bundleName -> new Bundle(new File(directory, bundleName)))
-                .collect(Collectors.toList());
     }
 
     /**
@@ -147,6 +196,22 @@ public final class Bundles {
         return groups;
     }
 
+    /**
+     * Discovers all bundles in given directory and all its subdirectories, and
+     * return them as a list of {@link BundleGroup}s. Each group consists of the
+     * bundles of the same name in the same directory.
+     * 
+     * @param directory the root directory of the discovery
+     * @return the list of all {@link BundleGroup}s found
+     * 
+     * @throws IOException if any of the directories cannot be read
+     * 
+     * @see BundleScanner#scanGroups(Path)
+     */
+    public static List<BundleGroup> groupsInTree(Path directory) throws IOException {
+        return BundleScanner.builder().build().scanGroups(directory);
+    }
+
     private static Map<String, Set<Bundle>> listToGroupsMap(List<Bundle> bundles) {
         Map<String, Set<Bundle>> groupsMap = new TreeMap<>();
         for (Bundle bundle : bundles) {
@@ -249,4 +314,149 @@ public final class Bundles {
     public static Bundle newNotExistingBundle(File file, Properties properties) {
         return new Bundle(file, properties);
     }
+
+    /**
+     * Loads all the bundles of given <b>groups</b> in parallel, using a new
+     * pool of <b>parallelism</b> threads, which is shut down before this method
+     * returns.
+     * 
+     * @param groups the groups to load
+     * @param parallelism the number of the files read at the same time
+     * 
+     * @throws IllegalArgumentException if <b>parallelism</b> is not positive
+     * 
+     * @see #loadGroups(Collection, Executor)
+     */
+    public static void loadGroups(Collection<BundleGroup> groups, int parallelism) {
+        ExecutorService executor = newIoExecutor(parallelism);
+        try {
+            loadGroups(groups, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Loads all the bundles of given <b>groups</b> in parallel. Every bundle is
+     * loaded by a separate task run on given <b>executor</b>, so the parallelism
+     * is bounded by the <b>executor</b>. The method returns when all the bundles
+     * are loaded. The bundles which cannot be loaded are left not loaded, just
+     * like by {@link Bundle#getTranslations()}.
+     * 
+     * @param groups the groups to load
+     * @param executor the executor used to load the bundles
+     */
+    public static void loadGroups(Collection<BundleGroup> groups, Executor executor) {
+        Objects.requireNonNull(executor);
+
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (BundleGroup group : groups) {
+            loads.addAll(group.loadAsync(executor));
+        }
+        awaitLoads(loads);
+    }
+
+    /**
+     * Saves all the bundles of given <b>groups</b> as '.properties' files in
+     * parallel, using a new pool of <b>parallelism</b> threads, which is shut
+     * down before this method returns.
+     * 
+     * @param groups the groups to save
+     * @param parallelism the number of the files written at the same time
+     * @return the numbers of the written files and of the files skipped because
+     *         they already had the same content
+     * 
+     * @throws IllegalArgumentException if <b>parallelism</b> is not positive
+     * @throws IOException if saving any of the bundles throws IOException
+     * 
+     * @see #saveGroups(Collection, Executor)
+     */
+    public static SaveReport saveGroups(Collection<BundleGroup> groups, int parallelism)
+            throws IOException {
+        ExecutorService executor = newIoExecutor(parallelism);
+        try {
+            return saveGroups(groups, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Saves all the bundles of given <b>groups</b> as '.properties' files in
+     * parallel, just like {@link BundleGroup#saveGroupAsPropertiesFiles()} saves
+     * each of the groups. Every bundle is saved by a separate task run on given
+     * <b>executor</b>, so the parallelism is bounded by the <b>executor</b>. The
+     * method returns when all the tasks are done, even if some of them failed.
+     * 
+     * @param groups the groups to save
+     * @param executor the executor used to save the bundles
+     * @return the numbers of the written files and of the files skipped because
+     *         they already had the same content
+     * 
+     * @throws IOException if saving any of the bundles throws IOException
+     */
+    public static SaveReport saveGroups(Collection<BundleGroup> groups, Executor executor)
+            throws IOException {
+        Objects.requireNonNull(executor);
+
+        List<CompletableFuture<Boolean>> saves = new ArrayList<>();
+        for (BundleGroup group : groups) {
+            saves.addAll(group.saveAsync(null, executor));
+        }
+        return awaitSaves(saves);
+    }
+
+    /**
+     * Creates the executor used by the batch operations of this class and of the
+     * {@link BundleGroup}. Its threads are daemons, so an executor which is not
+     * shut down does not prevent the JVM from exiting.
+     * 
+     * @param parallelism the number of threads
+     * @return a new fixed thread pool
+     * 
+     * @throws IllegalArgumentException if <b>parallelism</b> is not positive
+     */
+    static ExecutorService newIoExecutor(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be positive");
+        }
+        return Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                .setNameFormat("bundle-io-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Waits until all the <b>loads</b> are done.
+     */
+    static void awaitLoads(List<CompletableFuture<Void>> loads) {
+        try {
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until all the <b>saves</b> are done and counts the written and the
+     * skipped files. The IOException of a failed save is rethrown as it is.
+     */
+    static SaveReport awaitSaves(List<CompletableFuture<Boolean>> saves) throws IOException {
+        try {
+            CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+
+        int written = 0;
+        for (CompletableFuture<Boolean> save : saves) {
+            if (save.join()) {
+                ++written;
+            }
+        }
+        return new SaveReport(written, saves.size() - written);
+    }
 }
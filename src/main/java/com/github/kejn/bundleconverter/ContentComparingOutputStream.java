@@ -0,0 +1,133 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output stream writing to a file only if the written content differs from
+ * the existing content of the file.
+ * <p>
+ * The written bytes are compared with the bytes of the existing file while
+ * they are written, so the content is never held in memory. At the first
+ * different byte the file is opened for writing, and the rest of the content
+ * is written from that position on: the preceding bytes of the file are
+ * already the same. When the stream is closed, the file is truncated to the
+ * length of the written content. If all bytes are the same, the file is not
+ * opened for writing at all, so its modification time does not change.
+ *
+ * @author kejn
+ */
+final class ContentComparingOutputStream extends OutputStream {
+
+    private final Path path;
+    private final byte[] existingBytes = new byte[8192];
+
+    private InputStream existing;
+    private FileChannel channel;
+    private long position;
+    private boolean closed;
+
+    /**
+     * @param path the file to write to
+     *
+     * @throws IOException if the file exists but cannot be read, or does not
+     *             exist and cannot be created
+     */
+    ContentComparingOutputStream(Path path) throws IOException {
+        this.path = path;
+        if (Files.isRegularFile(path)) {
+            existing = new BufferedInputStream(Files.newInputStream(path));
+        } else {
+            channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the file was written, <code>false</code> if
+     *         the written content was the same as the existing one so far
+     */
+    boolean isWritten() {
+        return channel != null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int written = 0;
+        while (channel == null && written < len) {
+            int count = existing.read(existingBytes, 0, Math.min(len - written,
+                    existingBytes.length));
+            if (count < 0) {
+                startWriting();
+                break;
+            }
+            for (int index = 0; index < count; ++index) {
+                if (existingBytes[index] != b[off + written]) {
+                    startWriting();
+                    break;
+                }
+                ++written;
+                ++position;
+            }
+        }
+        if (written < len) {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off + written, len - written);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            position += len - written;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (channel == null && existing.read() >= 0) {
+                // the existing file is longer than the written content
+                startWriting();
+            }
+        } finally {
+            closeExisting();
+            if (channel != null) {
+                try (FileChannel fileChannel = channel) {
+                    fileChannel.truncate(position);
+                }
+            }
+        }
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private void startWriting() throws IOException {
+        closeExisting();
+        channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        channel.position(position);
+    }
+
+    private void closeExisting() throws IOException {
+        if (existing != null) {
+            InputStream in = existing;
+            existing = null;
+            in.close();
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * The last modification time and the size of a file, used to cheaply detect
+ * whether the file changed since it was read. Both of them are read with a
+ * single {@link Files#readAttributes(Path, Class, java.nio.file.LinkOption...)}
+ * call.
+ *
+ * @author kejn
+ */
+final class FileStamp {
+
+    private final FileTime lastModifiedTime;
+    private final long size;
+
+    private FileStamp(FileTime lastModifiedTime, long size) {
+        this.lastModifiedTime = lastModifiedTime;
+        this.size = size;
+    }
+
+    /**
+     * @param lastModifiedTime the last modification time of the file
+     * @param size the size of the file in bytes
+     * @return the stamp with given attributes
+     */
+    static FileStamp of(FileTime lastModifiedTime, long size) {
+        return new FileStamp(lastModifiedTime, size);
+    }
+
+    /**
+     * @param path the file
+     * @return the current stamp of the file
+     *
+     * @throws IOException if the attributes of the file cannot be read, for
+     *             example because it does not exist
+     */
+    static FileStamp read(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new FileStamp(attributes.lastModifiedTime(), attributes.size());
+    }
+
+    /**
+     * @param path the file
+     * @return <code>true</code> if the file still has this stamp,
+     *         <code>false</code> if it changed or its attributes cannot be read
+     */
+    boolean isCurrent(Path path) {
+        try {
+            return equals(read(path));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the last modification time of the file
+     */
+    FileTime getLastModifiedTime() {
+        return lastModifiedTime;
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    long getSize() {
+        return size;
+    }
+
+    /*
+     * Methods overridden from Object.
+     */
+
+    @Override
+    public int hashCode() {
+        return 31 * lastModifiedTime.hashCode() + Long.hashCode(size);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof FileStamp) {
+            FileStamp other = (FileStamp) obj;
+            return lastModifiedTime.equals(other.lastModifiedTime) && size == other.size;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "FileStamp [lastModifiedTime=" + lastModifiedTime + ", size=" + size + "]";
+    }
+
+}
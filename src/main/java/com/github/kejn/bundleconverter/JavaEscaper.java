@@ -0,0 +1,142 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Escapes the strings written to the '.properties' files in the same way as
+ * {@link org.apache.commons.text.StringEscapeUtils#ESCAPE_JAVA}: the quote
+ * and the backslash are escaped with a backslash, the backspace, tab, new line,
+ * form feed and carriage return with their short escapes, and all the other
+ * characters outside of the printable ASCII range as <code>\\uXXXX</code>,
+ * with upper-case hexadecimal digits.
+ * <p>
+ * In the {@link PropertiesEncoding#UTF_8} encoding, the characters outside of
+ * the ASCII range are written as they are, and only the surrogates which do
+ * not form a pair, and so cannot be encoded in UTF-8, are escaped.
+ * <p>
+ * Unlike the translators of commons-text, it writes directly to the
+ * {@link Writer} without creating any objects. The runs of characters which do
+ * not need escaping are written at once, so a string without any such
+ * characters is written with a single call of the writer.
+ *
+ * @author kejn
+ */
+final class JavaEscaper {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final String[] ASCII_ESCAPES = new String[0x80];
+
+    static {
+        for (char c = 0; c < ' '; ++c) {
+            ASCII_ESCAPES[c] = "\\u00" + HEX_DIGITS[c >> 4] + HEX_DIGITS[c & 0xF];
+        }
+        ASCII_ESCAPES['\b'] = "\\b";
+        ASCII_ESCAPES['\t'] = "\\t";
+        ASCII_ESCAPES['\n'] = "\\n";
+        ASCII_ESCAPES['\f'] = "\\f";
+        ASCII_ESCAPES['\r'] = "\\r";
+        ASCII_ESCAPES['"'] = "\\\"";
+        ASCII_ESCAPES['\\'] = "\\\\";
+    }
+
+    private JavaEscaper() {
+    }
+
+    /**
+     * Writes the escaped <b>string</b> to the <b>writer</b>.
+     *
+     * @param string CANNOT BE NULL; the string to escape
+     * @param writer the target writer
+     *
+     * @throws IOException if the <b>writer</b> throws IOException
+     */
+    static void escape(String string, Writer writer) throws IOException {
+        escape(string, writer, PropertiesEncoding.ISO_8859_1);
+    }
+
+    /**
+     * Writes the <b>string</b> escaped for given <b>encoding</b> to the
+     * <b>writer</b>.
+     *
+     * @param string CANNOT BE NULL; the string to escape
+     * @param writer the target writer
+     * @param encoding CANNOT BE NULL; the encoding of the written file
+     *
+     * @throws IOException if the <b>writer</b> throws IOException
+     */
+    static void escape(String string, Writer writer, PropertiesEncoding encoding)
+            throws IOException {
+        boolean unicode = encoding == PropertiesEncoding.UTF_8;
+        int length = string.length();
+        int start = 0;
+        for (int index = 0; index < length; ++index) {
+            char c = string.charAt(index);
+            if (!needsEscaping(c)) {
+                continue;
+            }
+            if (unicode && c >= 0x80) {
+                if (!Character.isSurrogate(c)) {
+                    continue;
+                }
+                if (Character.isHighSurrogate(c) && index + 1 < length && Character
+                        .isLowSurrogate(string.charAt(index + 1))) {
+                    ++index;
+                    continue;
+                }
+            }
+            if (index > start) {
+                writer.write(string, start, index - start);
+            }
+            if (c < 0x80) {
+                writer.write(ASCII_ESCAPES[c]);
+            } else {
+                writer.write('\\');
+                writer.write('u');
+                writer.write(HEX_DIGITS[c >> 12]);
+                writer.write(HEX_DIGITS[(c >> 8) & 0xF]);
+                writer.write(HEX_DIGITS[(c >> 4) & 0xF]);
+                writer.write(HEX_DIGITS[c & 0xF]);
+            }
+            start = index + 1;
+        }
+        if (start == 0) {
+            writer.write(string);
+        } else if (start < length) {
+            writer.write(string, start, length - start);
+        }
+    }
+
+    /**
+     * @param string CANNOT BE NULL; the string to escape
+     * @return the escaped <b>string</b>; the same instance if it does not need
+     *         escaping
+     */
+    static String escape(String string) {
+        int index = 0;
+        while (index < string.length() && !needsEscaping(string.charAt(index))) {
+            ++index;
+        }
+        if (index == string.length()) {
+            return string;
+        }
+        StringWriter writer = new StringWriter(string.length() + 16);
+        try {
+            escape(string, writer);
+        } catch (IOException e) {
+            // StringWriter does not throw IOException
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private static boolean needsEscaping(char c) {
+        return c < ' ' || c > 0x7F || c == '"' || c == '\\';
+    }
+
+}
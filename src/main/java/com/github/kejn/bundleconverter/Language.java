@@ -2,7 +2,9 @@ package com.github.kejn.bundleconverter;
 
 import static java.util.Arrays.stream;
 
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -14,8 +16,13 @@ import java.util.stream.Collectors;
  * codes, some enums are suffsixed with "_2" (as well as their
  * {@link #displayLanguage} value). Example: {@link #YIDDISH} and
  * {@link #YIDDISH_2}.
+ * <p>
+ * Both {@link #forIsoCode(String)} and {@link #forDisplayLanguage(String)} are
+ * resolved with the hash indexes built once, when the enum is initialized.
  * 
  * @author kejn
+ * 
+ * @see LocaleKey
  */
 public enum Language {
     ABKHAZIAN("ab", "Abkhazian"), //
@@ -208,6 +215,16 @@ public enum Language {
     ZHUANG("za", "Zhuang"), //
     ZULU("zu", "Zulu");
 
+    private static final Map<String, Language> BY_ISO_CODE = new HashMap<>();
+    private static final Map<String, Language> BY_DISPLAY_LANGUAGE = new HashMap<>();
+
+    static {
+        for (Language language : values()) {
+            BY_ISO_CODE.putIfAbsent(foldCase(language.isoCode), language);
+            BY_DISPLAY_LANGUAGE.putIfAbsent(foldCase(language.displayLanguage), language);
+        }
+    }
+
     private final String isoCode;
 
     private final String displayLanguage;
@@ -226,12 +243,7 @@ public enum Language {
      *         language could be found
      */
     public static Language forIsoCode(String isoCode) {
-        for (Language language : values()) {
-            if (language.isoCode.equalsIgnoreCase(isoCode)) {
-                return language;
-            }
-        }
-        return null;
+        return isoCode == null ? null : BY_ISO_CODE.get(foldCase(isoCode));
     }
 
     /**
@@ -243,12 +255,8 @@ public enum Language {
      *         matching language could be found
      */
     public static Language forDisplayLanguage(String displayLanguage) {
-        for (Language language : values()) {
-            if (language.displayLanguage.equalsIgnoreCase(displayLanguage)) {
-                return language;
-            }
-        }
-        return null;
+        return displayLanguage == null ? null
+                : BY_DISPLAY_LANGUAGE.get(foldCase(displayLanguage));
     }
 
     /**
@@ -279,4 +287,17 @@ public enum Language {
         return isoCode;
     }
 
-}
\ No newline at end of file
+    /**
+     * Folds the case of every character of given <b>string</b> the same way as
+     * {@link String#equalsIgnoreCase(String)} compares them, so two strings
+     * equal ignoring case have equal folded forms.
+     */
+    private static String foldCase(String string) {
+        char[] chars = string.toCharArray();
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+}
@@ -0,0 +1,334 @@
+package com.github.kejn.bundleconverter;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Identifies a translation of a bundle: a {@link Language}, optionally refined
+ * by a script and a region, e.g. <code>en</code>, <code>en_US</code>,
+ * <code>sr_Latn</code> or <code>zh_Hant_TW</code>.
+ * <p>
+ * The key is written in the file name of a bundle as a suffix, just like the
+ * bundle names of {@link java.util.ResourceBundle.Control#toBundleName(String, Locale)}:
+ * <tt>name_language[_Script][_REGION].properties</tt>. The script consists of
+ * four letters and is written in title case, the region consists of two
+ * letters written in upper case or of three digits.
+ * <p>
+ * The display name of the key, used in the headers of the sheets, is the
+ * display language, followed by the script and the region in parentheses,
+ * e.g. <code>English</code>, <code>English (US)</code> or
+ * <code>Chinese (Hant_TW)</code>.
+ * <p>
+ * The keys of the plain languages are created only once, so
+ * {@link #of(Language)} does not allocate.
+ *
+ * @author kejn
+ *
+ * @see Bundle#getLocaleKey()
+ */
+public final class LocaleKey {
+
+    private static final char SEPARATOR = '_';
+    private static final String DISPLAY_OPEN = " (";
+    private static final String DISPLAY_CLOSE = ")";
+
+    private static final Map<Language, LocaleKey> LANGUAGE_KEYS = new EnumMap<>(Language.class);
+
+    static {
+        for (Language language : Language.values()) {
+            LANGUAGE_KEYS.put(language, new LocaleKey(language, "", ""));
+        }
+    }
+
+    /**
+     * The key of the default bundle, which has no suffix at all.
+     */
+    public static final LocaleKey DEFAULT = of(Language.DEFAULT);
+
+    private final Language language;
+    private final String script;
+    private final String region;
+
+    private LocaleKey(Language language, String script, String region) {
+        this.language = language;
+        this.script = script;
+        this.region = region;
+    }
+
+    /**
+     * @param language CANNOT BE NULL; the language
+     * @return the key of given <b>language</b> without any script and region
+     *
+     * @throws NullPointerException if the <b>language</b> is null
+     */
+    public static LocaleKey of(Language language) {
+        return LANGUAGE_KEYS.get(Objects.requireNonNull(language));
+    }
+
+    /**
+     * Creates the key of given <b>language</b>, <b>script</b> and <b>region</b>.
+     * The case of the script and the region is normalized.
+     *
+     * @param language CANNOT BE NULL; the language
+     * @param script the four letters of the script, or an empty string or
+     *            <tt>null</tt> for no script
+     * @param region the two letters or three digits of the region, or an empty
+     *            string or <tt>null</tt> for no region
+     * @return the key of given <b>language</b>, <b>script</b> and <b>region</b>
+     *
+     * @throws NullPointerException if the <b>language</b> is null
+     * @throws IllegalArgumentException if the <b>script</b> or the <b>region</b>
+     *             is not well-formed, or if any of them is given for the
+     *             {@link Language#DEFAULT} language
+     */
+    public static LocaleKey of(Language language, String script, String region) {
+        Objects.requireNonNull(language);
+
+        String normalizedScript = script == null ? "" : normalizeScript(script);
+        String normalizedRegion = region == null ? "" : normalizeRegion(region);
+        if (normalizedScript == null) {
+            throw new IllegalArgumentException("Script must consist of 4 letters: " + script);
+        }
+        if (normalizedRegion == null) {
+            throw new IllegalArgumentException("Region must consist of 2 letters or 3 digits: "
+                    + region);
+        }
+        if (normalizedScript.isEmpty() && normalizedRegion.isEmpty()) {
+            return of(language);
+        }
+        if (language == Language.DEFAULT) {
+            throw new IllegalArgumentException("The default language cannot have a script or "
+                    + "a region");
+        }
+        return new LocaleKey(language, normalizedScript, normalizedRegion);
+    }
+
+    /**
+     * Returns the key written in given <b>suffix</b> of a file name, e.g.
+     * <code>en_US</code>. The check is case insensitive.
+     *
+     * @param suffix the suffix of a file name, without the leading underscore;
+     *            an empty suffix is the one of the default bundle
+     * @return the key written in the <b>suffix</b>, or <tt>null</tt> if the
+     *         <b>suffix</b> is not a valid key
+     */
+    public static LocaleKey forSuffix(String suffix) {
+        if (suffix == null) {
+            return null;
+        }
+        int languageEnd = suffix.indexOf(SEPARATOR);
+        if (languageEnd < 0) {
+            return suffix.isEmpty() ? DEFAULT : languageKey(suffix);
+        }
+        Language language = Language.forIsoCode(suffix.substring(0, languageEnd));
+        if (language == null || language == Language.DEFAULT) {
+            return null;
+        }
+        return withSubtags(language, suffix.substring(languageEnd + 1));
+    }
+
+    /**
+     * Returns the key of given <b>displayName</b>, e.g.
+     * <code>English (US)</code>. The check is case insensitive.
+     *
+     * @param displayName the display name of the key
+     * @return the key of the <b>displayName</b>, or <tt>null</tt> if the
+     *         <b>displayName</b> is not a valid key
+     *
+     * @see #getDisplayName()
+     */
+    public static LocaleKey forDisplayName(String displayName) {
+        if (displayName == null) {
+            return null;
+        }
+        int open = displayName.indexOf(DISPLAY_OPEN);
+        if (open < 0 || !displayName.endsWith(DISPLAY_CLOSE)) {
+            Language language = Language.forDisplayLanguage(displayName);
+            return language == null ? null : of(language);
+        }
+        Language language = Language.forDisplayLanguage(displayName.substring(0, open));
+        if (language == null || language == Language.DEFAULT) {
+            return null;
+        }
+        return withSubtags(language, displayName.substring(open + DISPLAY_OPEN.length(),
+                displayName.length() - DISPLAY_CLOSE.length()));
+    }
+
+    /**
+     * @return the language of this key
+     */
+    public Language getLanguage() {
+        return language;
+    }
+
+    /**
+     * @return the script of this key, in title case, or an empty string if
+     *         there is no script
+     */
+    public String getScript() {
+        return script;
+    }
+
+    /**
+     * @return the region of this key, in upper case, or an empty string if there
+     *         is no region
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * @return <code>true</code> if this key has neither a script nor a region
+     */
+    public boolean isLanguageOnly() {
+        return script.isEmpty() && region.isEmpty();
+    }
+
+    /**
+     * @return the suffix of the file names of the bundles of this key, without
+     *         the leading underscore, e.g. <code>zh_Hant_TW</code>; an empty
+     *         string for {@link #DEFAULT}
+     */
+    public String getSuffix() {
+        return language.getIsoCode() + subtags();
+    }
+
+    /**
+     * @return the display name of this key, e.g. <code>English (US)</code>
+     *
+     * @see #forDisplayName(String)
+     */
+    public String getDisplayName() {
+        if (isLanguageOnly()) {
+            return language.getDisplayLanguage();
+        }
+        return language.getDisplayLanguage() + DISPLAY_OPEN + subtags().substring(1)
+                + DISPLAY_CLOSE;
+    }
+
+    @Override
+    public int hashCode() {
+        return (language.hashCode() * 31 + script.hashCode()) * 31 + region.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LocaleKey)) {
+            return false;
+        }
+        LocaleKey other = (LocaleKey) obj;
+        return language == other.language && script.equals(other.script) && region.equals(
+                other.region);
+    }
+
+    @Override
+    public String toString() {
+        return language == Language.DEFAULT ? language.name() : getSuffix();
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private static LocaleKey languageKey(String isoCode) {
+        Language language = Language.forIsoCode(isoCode);
+        return language == null ? null : of(language);
+    }
+
+    /**
+     * Parses the script and the region separated by the underscore, e.g.
+     * <code>Hant_TW</code>, <code>Latn</code> or <code>US</code>.
+     */
+    private static LocaleKey withSubtags(Language language, String subtags) {
+        int separator = subtags.indexOf(SEPARATOR);
+        String script;
+        String region;
+        if (separator < 0) {
+            script = normalizeScript(subtags);
+            region = script == null ? normalizeRegion(subtags) : "";
+            if (script == null) {
+                script = "";
+            }
+        } else {
+            script = normalizeScript(subtags.substring(0, separator));
+            region = normalizeRegion(subtags.substring(separator + 1));
+        }
+        if (script == null || region == null || script.isEmpty() && region.isEmpty()) {
+            return null;
+        }
+        return new LocaleKey(language, script, region);
+    }
+
+    /**
+     * @return the script in title case, an empty string for an empty
+     *         <b>script</b>, or <tt>null</tt> if it is not well-formed
+     */
+    private static String normalizeScript(String script) {
+        if (script.isEmpty()) {
+            return "";
+        }
+        if (script.length() != 4 || !isAsciiLetters(script)) {
+            return null;
+        }
+        return script.substring(0, 1).toUpperCase(Locale.ROOT) + script.substring(1)
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the region in upper case, an empty string for an empty
+     *         <b>region</b>, or <tt>null</tt> if it is not well-formed
+     */
+    private static String normalizeRegion(String region) {
+        if (region.isEmpty()) {
+            return "";
+        }
+        if (region.length() == 2 && isAsciiLetters(region)) {
+            return region.toUpperCase(Locale.ROOT);
+        }
+        if (region.length() == 3 && isAsciiDigits(region)) {
+            return region;
+        }
+        return null;
+    }
+
+    private static boolean isAsciiLetters(String string) {
+        for (int i = 0; i < string.length(); ++i) {
+            char c = string.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiDigits(String string) {
+        for (int i = 0; i < string.length(); ++i) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the non-empty script and region, each preceded by the separator,
+     *         e.g. <code>_Hant_TW</code>
+     */
+    private String subtags() {
+        StringBuilder sb = new StringBuilder();
+        if (!script.isEmpty()) {
+            sb.append(SEPARATOR).append(script);
+        }
+        if (!region.isEmpty()) {
+            sb.append(SEPARATOR).append(region);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.github.kejn.bundleconverter;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The encodings of the '.properties' files, in which the {@link Bundle}s are
+ * loaded and saved. In both encodings the files are parsed with the grammar of
+ * {@link java.util.Properties} since Java 9, whichever Java version is running.
+ * 
+ * @author kejn
+ * 
+ * @see Bundle#setEncoding(PropertiesEncoding)
+ * @see BundleGroup#setEncoding(PropertiesEncoding)
+ */
+public enum PropertiesEncoding {
+
+    /**
+     * The encoding of {@link java.util.Properties#load(java.io.InputStream)}:
+     * the files are read and written in ISO 8859-1, and all the characters
+     * outside of the printable ASCII range are saved as
+     * <code>&#92;uXXXX</code> escapes. This is the default encoding.
+     */
+    ISO_8859_1(StandardCharsets.ISO_8859_1),
+
+    /**
+     * The encoding of {@link java.util.PropertyResourceBundle} since Java 9: the
+     * files are read in UTF-8, or in ISO 8859-1 if they are not valid UTF-8, and
+     * written in UTF-8. Only the control characters and the characters which
+     * cannot be encoded are saved as <code>&#92;uXXXX</code> escapes, so the
+     * files of the non-Latin languages take 2-3 times less space.
+     */
+    UTF_8(StandardCharsets.UTF_8);
+
+    private final Charset charset;
+
+    private PropertiesEncoding(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * @return the charset in which the files are written
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+}
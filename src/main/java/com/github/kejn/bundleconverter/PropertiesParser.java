@@ -0,0 +1,442 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+/**
+ * Parses the '.properties' files using exactly the same grammar as
+ * {@link java.util.Properties#load(java.io.InputStream)} since Java 9, and so
+ * {@link java.util.PropertyResourceBundle}:
+ * <ul>
+ * <li>the file is read in the ISO 8859-1 encoding,
+ * <li>the lines are terminated with <code>\n</code>, <code>\r</code> or
+ * <code>\r\n</code>,
+ * <li>the lines starting with <code>#</code> or <code>!</code> are comments,
+ * which always end with the line, even if it ends with a backslash,
+ * <li>a line ending with an odd number of backslashes is continued in the next
+ * line, without the leading whitespace of that line; if nothing but the
+ * backslash precedes it, the logical line still starts in the next line, which
+ * then can be a comment,
+ * <li>the key is terminated by the first unescaped <code>=</code>,
+ * <code>:</code> or whitespace,
+ * <li>the <code>\t</code>, <code>\n</code>, <code>\f</code>, <code>\r</code>
+ * and <code>&#92;uXXXX</code> escapes are decoded, and the backslash is dropped
+ * before any other character.
+ * </ul>
+ * The {@link java.util.Properties} of Java 8 differ only in two rare cases:
+ * there, a comment ending with an odd number of backslashes affects the
+ * continuation of the next line, and a line continued before any other
+ * character is never a comment.
+ * <p>
+ * In the {@link PropertiesEncoding#UTF_8} encoding, the file is read in UTF-8
+ * instead, just like by {@link java.util.PropertyResourceBundle} since Java 9,
+ * unless it is not valid UTF-8. The special characters of the grammar are all
+ * ASCII, and the bytes of the multi-byte UTF-8 sequences are never ASCII, so
+ * the lines are split in the same way in both encodings, and only the keys and
+ * values are decoded differently.
+ * <p>
+ * The whole file is read with a single call and the file is closed before
+ * parsing. The lines are parsed in place, so a {@link String} is created only
+ * for each key and value, and the characters are decoded only for the keys and
+ * values containing escapes.
+ *
+ * @author kejn
+ */
+final class PropertiesParser {
+
+    private static final String MALFORMED_UNICODE_ESCAPE = "Malformed \\uxxxx encoding.";
+
+    private final byte[] data;
+    private final int limit;
+    private final boolean utf8;
+    private int position;
+
+    private byte[] lineBuffer = new byte[0];
+    private char[] charBuffer = new char[0];
+
+    private byte[] line;
+    private int lineStart;
+    private int lineEnd;
+
+    private PropertiesParser(byte[] data, int limit, boolean utf8) {
+        this.data = data;
+        this.limit = limit;
+        this.utf8 = utf8;
+    }
+
+    /**
+     * Parses the '.properties' file at given <b>path</b> and passes each key and
+     * value to the <b>consumer</b>, in the order of the file. A key which occurs
+     * more than once is passed each time.
+     *
+     * @param path the path of the file
+     * @param consumer receives the keys and values
+     *
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file contains a malformed
+     *             <code>&#92;uXXXX</code> escape
+     */
+    static void parse(Path path, BiConsumer<String, String> consumer) throws IOException {
+        parse(path, PropertiesEncoding.ISO_8859_1, consumer);
+    }
+
+    /**
+     * Parses the '.properties' file at given <b>path</b> in given
+     * <b>encoding</b> and passes each key and value to the <b>consumer</b>, in
+     * the order of the file. A key which occurs more than once is passed each
+     * time.
+     *
+     * @param path the path of the file
+     * @param encoding CANNOT BE NULL; the encoding of the file
+     * @param consumer receives the keys and values
+     *
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file contains a malformed
+     *             <code>&#92;uXXXX</code> escape
+     */
+    static void parse(Path path, PropertiesEncoding encoding,
+            BiConsumer<String, String> consumer) throws IOException {
+        byte[] data = Files.readAllBytes(path);
+        parse(data, data.length, encoding, consumer);
+    }
+
+    /**
+     * Parses the first <b>length</b> bytes of the '.properties' file content in
+     * <b>data</b> and passes each key and value to the <b>consumer</b>, in the
+     * order of the content.
+     *
+     * @param data the content of the file
+     * @param length the number of bytes to parse
+     * @param consumer receives the keys and values
+     *
+     * @throws IllegalArgumentException if the content contains a malformed
+     *             <code>&#92;uXXXX</code> escape
+     */
+    static void parse(byte[] data, int length, BiConsumer<String, String> consumer) {
+        parse(data, length, PropertiesEncoding.ISO_8859_1, consumer);
+    }
+
+    /**
+     * Parses the first <b>length</b> bytes of the '.properties' file content in
+     * <b>data</b>, in given <b>encoding</b>, and passes each key and value to
+     * the <b>consumer</b>, in the order of the content.
+     *
+     * @param data the content of the file
+     * @param length the number of bytes to parse
+     * @param encoding CANNOT BE NULL; the encoding of the content
+     * @param consumer receives the keys and values
+     *
+     * @throws IllegalArgumentException if the content contains a malformed
+     *             <code>&#92;uXXXX</code> escape
+     */
+    static void parse(byte[] data, int length, PropertiesEncoding encoding,
+            BiConsumer<String, String> consumer) {
+        boolean utf8 = encoding == PropertiesEncoding.UTF_8 && isValidUtf8(data, length);
+        PropertiesParser parser = new PropertiesParser(data, length, utf8);
+        while (parser.nextLine()) {
+            parser.parseLine(consumer);
+        }
+    }
+
+    /*
+     * Private methods.
+     */
+
+    /**
+     * Finds the next logical line, skipping the blank lines and the comments.
+     * The line is then available between {@link #lineStart} and
+     * {@link #lineEnd} of the {@link #line}, which is either the {@link #data}
+     * itself, or the {@link #lineBuffer} if the line was continued.
+     */
+    private boolean nextLine() {
+        while (true) {
+            while (position < limit && isWhitespaceOrLineTerminator(data[position])) {
+                ++position;
+            }
+            if (position >= limit) {
+                return false;
+            }
+            if (data[position] == '#' || data[position] == '!') {
+                skipComment();
+            } else if (readLine()) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Skips the comment line. The comment always ends with the line, even if it
+     * ends with a backslash.
+     */
+    private void skipComment() {
+        while (position < limit && !isLineTerminator(data[position])) {
+            ++position;
+        }
+    }
+
+    /**
+     * Reads the logical line starting at the current position.
+     *
+     * @return <code>false</code> if the line turned out to be empty, which
+     *         happens only if it consists of the continued lines which are all
+     *         blank, or if it turned out to be a comment continued before any
+     *         other character, which is then at the current position
+     */
+    private boolean readLine() {
+        int lineLength = 0;
+        boolean continued = false;
+        int segmentStart = position;
+        boolean precedingBackslash = false;
+        while (position < limit) {
+            byte c = data[position];
+            if (isLineTerminator(c)) {
+                // just like Properties, the last line of data is not continued
+                if (!precedingBackslash || position + 1 == limit) {
+                    break;
+                }
+                lineLength = appendToLineBuffer(lineLength, segmentStart, position - 1);
+                continued = true;
+
+                skipLineTerminator();
+                while (position < limit && isWhitespace(data[position])) {
+                    ++position;
+                }
+                // a line continued before any other character is still at its
+                // start, so it can turn out to be a comment
+                if (lineLength == 0 && position < limit
+                        && (data[position] == '#' || data[position] == '!')) {
+                    return false;
+                }
+                segmentStart = position;
+                precedingBackslash = false;
+                continue;
+            }
+            precedingBackslash = c == '\\' && !precedingBackslash;
+            ++position;
+        }
+
+        if (continued && lineLength + position - segmentStart == 0) {
+            skipLineTerminator();
+            return false;
+        }
+        int segmentEnd = precedingBackslash ? position - 1 : position;
+        if (continued) {
+            lineEnd = appendToLineBuffer(lineLength, segmentStart, segmentEnd);
+            lineStart = 0;
+            line = lineBuffer;
+        } else {
+            line = data;
+            lineStart = segmentStart;
+            lineEnd = segmentEnd;
+        }
+        skipLineTerminator();
+        return true;
+    }
+
+    private void parseLine(BiConsumer<String, String> consumer) {
+        int keyEnd = lineStart;
+        int valueStart = lineEnd;
+        boolean hasSeparator = false;
+        boolean precedingBackslash = false;
+        while (keyEnd < lineEnd) {
+            byte c = line[keyEnd];
+            if ((c == '=' || c == ':') && !precedingBackslash) {
+                valueStart = keyEnd + 1;
+                hasSeparator = true;
+                break;
+            } else if (isWhitespace(c) && !precedingBackslash) {
+                valueStart = keyEnd + 1;
+                break;
+            }
+            precedingBackslash = c == '\\' && !precedingBackslash;
+            ++keyEnd;
+        }
+        while (valueStart < lineEnd) {
+            byte c = line[valueStart];
+            if (!isWhitespace(c)) {
+                if (!hasSeparator && (c == '=' || c == ':')) {
+                    hasSeparator = true;
+                } else {
+                    break;
+                }
+            }
+            ++valueStart;
+        }
+        String key = decode(lineStart, keyEnd);
+        consumer.accept(key, decode(valueStart, lineEnd));
+    }
+
+    private String decode(int start, int end) {
+        int special = start;
+        while (special < end && line[special] != '\\' && (line[special] >= 0 || !utf8)) {
+            ++special;
+        }
+        if (special == end) {
+            return new String(line, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        if (charBuffer.length < end - start) {
+            charBuffer = new char[end - start];
+        }
+        char[] chars = charBuffer;
+        int length = 0;
+        int index = start;
+        while (index < end) {
+            int c = line[index++] & 0xFF;
+            if (c == '\\' && index < end) {
+                c = line[index++] & 0xFF;
+                switch (c) {
+                case 'u':
+                    c = decodeUnicodeEscape(index, end);
+                    index += 4;
+                    chars[length++] = (char) c;
+                    continue;
+                case 't':
+                    c = '\t';
+                    break;
+                case 'r':
+                    c = '\r';
+                    break;
+                case 'n':
+                    c = '\n';
+                    break;
+                case 'f':
+                    c = '\f';
+                    break;
+                default:
+                    break;
+                }
+            }
+            if (c >= 0x80 && utf8) {
+                // the sequence is valid, it was checked before parsing
+                int trailingBytes = c >= 0xF0 ? 3 : c >= 0xE0 ? 2 : 1;
+                int codePoint = c & (0x3F >> trailingBytes);
+                for (; trailingBytes > 0; --trailingBytes) {
+                    codePoint = codePoint << 6 | line[index++] & 0x3F;
+                }
+                if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                    chars[length++] = Character.highSurrogate(codePoint);
+                    c = Character.lowSurrogate(codePoint);
+                } else {
+                    c = codePoint;
+                }
+            }
+            chars[length++] = (char) c;
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Returns the charset in which the text of given <b>data</b> is read in the
+     * {@link PropertiesEncoding#UTF_8} encoding, e.g. the text of a template.
+     *
+     * @param data the content of the file
+     * @param length the number of bytes of the content
+     * @return UTF-8 if the first <b>length</b> bytes of <b>data</b> are valid
+     *         UTF-8, ISO 8859-1 otherwise
+     */
+    static Charset charsetOf(byte[] data, int length) {
+        return isValidUtf8(data, length) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Checks whether the first <b>length</b> bytes of <b>data</b> are valid
+     * UTF-8, rejecting the overlong sequences and the encoded surrogates just
+     * like the UTF-8 decoder of Java.
+     */
+    private static boolean isValidUtf8(byte[] data, int length) {
+        int index = 0;
+        while (index < length) {
+            int c = data[index++];
+            if (c >= 0) {
+                continue;
+            }
+            c &= 0xFF;
+            int trailingBytes;
+            int minimum;
+            if (c >= 0xC2 && c <= 0xDF) {
+                trailingBytes = 1;
+                minimum = 0x80;
+            } else if (c >= 0xE0 && c <= 0xEF) {
+                trailingBytes = 2;
+                minimum = 0x800;
+            } else if (c >= 0xF0 && c <= 0xF4) {
+                trailingBytes = 3;
+                minimum = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+            } else {
+                return false;
+            }
+            if (index + trailingBytes > length) {
+                return false;
+            }
+            int codePoint = c & (0x3F >> trailingBytes);
+            for (; trailingBytes > 0; --trailingBytes) {
+                int trailing = data[index++];
+                if ((trailing & 0xC0) != 0x80) {
+                    return false;
+                }
+                codePoint = codePoint << 6 | trailing & 0x3F;
+            }
+            if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT
+                    || (codePoint >= Character.MIN_SURROGATE
+                            && codePoint <= Character.MAX_SURROGATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private char decodeUnicodeEscape(int start, int end) {
+        if (end - start < 4) {
+            throw new IllegalArgumentException(MALFORMED_UNICODE_ESCAPE);
+        }
+        int value = 0;
+        for (int index = start; index < start + 4; ++index) {
+            int digit = Character.digit(line[index], 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException(MALFORMED_UNICODE_ESCAPE);
+            }
+            value = (value << 4) + digit;
+        }
+        return (char) value;
+    }
+
+    private int appendToLineBuffer(int lineLength, int start, int end) {
+        int newLength = lineLength + end - start;
+        if (lineBuffer.length < newLength) {
+            byte[] buffer = new byte[Math.max(newLength, lineBuffer.length * 2)];
+            System.arraycopy(lineBuffer, 0, buffer, 0, lineLength);
+            lineBuffer = buffer;
+        }
+        System.arraycopy(data, start, lineBuffer, lineLength, end - start);
+        return newLength;
+    }
+
+    private void skipLineTerminator() {
+        if (position < limit && data[position] == '\r') {
+            ++position;
+            if (position < limit && data[position] == '\n') {
+                ++position;
+            }
+        } else if (position < limit && data[position] == '\n') {
+            ++position;
+        }
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    private static boolean isLineTerminator(byte c) {
+        return c == '\n' || c == '\r';
+    }
+
+    private static boolean isWhitespaceOrLineTerminator(byte c) {
+        return isWhitespace(c) || isLineTerminator(c);
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.github.kejn.bundleconverter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringTokenizer;
+import java.util.function.Function;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Compiled template of a '.properties' file, used to save the {@link Bundle}s
+ * with the structure of the template file. It preserves the comments, the
+ * blank lines and the order of the keys of the template.
+ * <p>
+ * The template file is read and parsed only once: each line is compiled into
+ * either a comment or blank line, or the key of a property. The lines are
+ * escaped while they are written, for the encoding of the saved bundle. The
+ * compiled template is immutable, so it can be shared by all the bundles saved
+ * with the same template file.
+ * <p>
+ * The templates returned by {@link #forFile(File)} are cached, so the groups
+ * sharing a template file use the same compiled template, as long as the file
+ * is not modified.
+ *
+ * @author kejn
+ *
+ * @see Bundle#saveWithTemplate(PropertiesTemplate)
+ * @see BundleGroup#saveGroupAsPropertiesFiles(File)
+ */
+public final class PropertiesTemplate {
+
+    private static final String COMMENT_MARK = "#";
+    private static final String KEY_VALUE_SEPARATOR = "=";
+    private static final int CACHE_SIZE = 64;
+
+    private static final Cache<Path, PropertiesTemplate> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE).build();
+
+    private final String[] keys;
+    private final String[] commentLines;
+    private final FileStamp stamp;
+
+    private PropertiesTemplate(List<String> lines, FileStamp stamp) {
+        this.keys = new String[lines.size()];
+        this.commentLines = new String[lines.size()];
+        this.stamp = stamp;
+        for (int index = 0; index < lines.size(); ++index) {
+            String line = lines.get(index);
+            if (isCommentOrEmptyLine(line)) {
+                commentLines[index] = line;
+            } else {
+                keys[index] = new StringTokenizer(line, KEY_VALUE_SEPARATOR).nextToken().trim();
+            }
+        }
+    }
+
+    /*
+     * API.
+     */
+
+    /**
+     * Reads and compiles the <b>templateFile</b>. The file is read in UTF-8,
+     * or in ISO 8859-1 if it is not valid UTF-8, just like the files of the
+     * {@link PropertiesEncoding#UTF_8} encoding, so its comments and keys do
+     * not depend on the default charset of the platform.
+     *
+     * @param templateFile CANNOT BE NULL; the template file
+     * @return the compiled template
+     *
+     * @throws IOException if the <b>templateFile</b> cannot be read
+     * @throws java.util.NoSuchElementException if the <b>templateFile</b>
+     *             contains a line consisting of '=' characters only
+     */
+    public static PropertiesTemplate compile(File templateFile) throws IOException {
+        FileStamp stamp = FileStamp.read(templateFile.toPath());
+
+        byte[] content = Files.readAllBytes(templateFile.toPath());
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(content), PropertiesParser.charsetOf(content,
+                        content.length)))) {
+            String line = null;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return new PropertiesTemplate(lines, stamp);
+    }
+
+    /**
+     * Returns the compiled template of the <b>templateFile</b>. The template is
+     * compiled again only if it is not cached yet, or if the last modification
+     * time or the size of the file changed since it was compiled.
+     *
+     * @param templateFile CANNOT BE NULL; the template file
+     * @return the compiled template
+     *
+     * @throws IOException if the <b>templateFile</b> cannot be read
+     * @throws java.util.NoSuchElementException if the <b>templateFile</b>
+     *             contains a line consisting of '=' characters only
+     */
+    public static PropertiesTemplate forFile(File templateFile) throws IOException {
+        Path path = templateFile.toPath().toAbsolutePath().normalize();
+        FileStamp stamp = FileStamp.read(path);
+
+        PropertiesTemplate template = CACHE.getIfPresent(path);
+        if (template == null || !template.stamp.equals(stamp)) {
+            template = compile(path.toFile());
+            CACHE.put(path, template);
+        }
+        return template;
+    }
+
+    /**
+     * Writes the lines of this template to the <b>writer</b>, replacing the
+     * properties with the values from given <b>values</b> function. The
+     * properties without a value are commented out. The lines are escaped for
+     * given <b>encoding</b>.
+     *
+     * @param writer the target writer
+     * @param values CANNOT BE NULL; returns the value of a key, or
+     *            <code>null</code> if there is none
+     * @param encoding CANNOT BE NULL; the encoding of the written file
+     *
+     * @throws IOException if the <b>writer</b> throws IOException
+     */
+    void write(Writer writer, Function<String, String> values, PropertiesEncoding encoding)
+            throws IOException {
+        Objects.requireNonNull(values);
+        for (int index = 0; index < keys.length; ++index) {
+            if (keys[index] == null) {
+                JavaEscaper.escape(commentLines[index], writer, encoding);
+            } else {
+                String value = values.apply(keys[index]);
+                if (value == null || value.isEmpty()) {
+                    writer.write(COMMENT_MARK);
+                }
+                JavaEscaper.escape(keys[index], writer, encoding);
+                writer.write(KEY_VALUE_SEPARATOR);
+                JavaEscaper.escape(String.valueOf(value), writer, encoding);
+            }
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private static boolean isCommentOrEmptyLine(String line) {
+        return line.startsWith(COMMENT_MARK) || line.isEmpty();
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.github.kejn.bundleconverter;
+
+/**
+ * Summary of saving a number of {@link Bundle}s as '.properties' files. The
+ * files which already had the same content as the saved one are not written,
+ * so they are counted separately.
+ *
+ * @author kejn
+ *
+ * @see BundleGroup#saveGroupAsPropertiesFiles(java.io.File)
+ */
+public final class SaveReport {
+
+    /**
+     * The report of saving no files at all.
+     */
+    public static final SaveReport EMPTY = new SaveReport(0, 0);
+
+    private final int writtenFiles;
+    private final int skippedFiles;
+
+    /**
+     * @param writtenFiles number of the written files
+     * @param skippedFiles number of the files which were not written because
+     *            they already had the same content
+     *
+     * @throws IllegalArgumentException if any of the numbers is negative
+     */
+    public SaveReport(int writtenFiles, int skippedFiles) {
+        if (writtenFiles < 0 || skippedFiles < 0) {
+            throw new IllegalArgumentException("The numbers of files cannot be negative");
+        }
+        this.writtenFiles = writtenFiles;
+        this.skippedFiles = skippedFiles;
+    }
+
+    /*
+     * API.
+     */
+
+    /**
+     * @return number of the written files
+     */
+    public int getWrittenFiles() {
+        return writtenFiles;
+    }
+
+    /**
+     * @return number of the files which were not written because they already
+     *         had the same content
+     */
+    public int getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * @return number of all the saved files, written or skipped
+     */
+    public int getSavedFiles() {
+        return writtenFiles + skippedFiles;
+    }
+
+    /**
+     * @param other the report to add
+     * @return a new report with the numbers of this and the <b>other</b> report
+     *         added
+     */
+    public SaveReport plus(SaveReport other) {
+        return new SaveReport(writtenFiles + other.writtenFiles, skippedFiles
+                + other.skippedFiles);
+    }
+
+    /*
+     * Methods overridden from Object.
+     */
+
+    @Override
+    public int hashCode() {
+        return 31 * writtenFiles + skippedFiles;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof SaveReport) {
+            SaveReport other = (SaveReport) obj;
+            return writtenFiles == other.writtenFiles && skippedFiles == other.skippedFiles;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "SaveReport [writtenFiles=" + writtenFiles + ", skippedFiles=" + skippedFiles
+                + "]";
+    }
+
+}
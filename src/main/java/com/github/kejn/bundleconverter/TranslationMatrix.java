@@ -0,0 +1,265 @@
+package com.github.kejn.bundleconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable, columnar view of a {@link BundleGroup}, created with
+ * {@link BundleGroup#toMatrix()}.
+ * <p>
+ * The values of each translation are read once, straight from the bundle, and
+ * kept in a dense column, in which the value of a key is stored at the index of
+ * the key. The keys are indexed only when they are first looked up by
+ * {@link #indexOfKey(String)}. So the exporters and validators can iterate the
+ * rows and the columns by their indexes, without looking up every single cell
+ * in the translations of a bundle.
+ * <p>
+ * The first column is always the {@link LocaleKey#DEFAULT} one, followed by the
+ * columns of {@link BundleGroup#supportedLocalesWithoutDefault()}, ordered by
+ * the language, then by the script and the region, so the columns of the
+ * matrices of the same group are always in the same order. The exported sheets
+ * have the columns in the order of the matrix. A cell is <tt>null</tt> if
+ * the bundle of the translation cannot be loaded, or if it does not contain the
+ * key.
+ * <p>
+ * The matrix is a snapshot of the translations at the time it was created.
+ * The later changes of the bundles are not reflected by it.
+ *
+ * @author kejn
+ */
+public final class TranslationMatrix {
+
+    private static final Comparator<LocaleKey> LOCALE_ORDER = Comparator.comparing(
+            LocaleKey::getLanguage).thenComparing(LocaleKey::getScript).thenComparing(
+                    LocaleKey::getRegion);
+
+    private final String name;
+    private final String[] keys;
+    private final List<LocaleKey> locales;
+    private final String[][] columns;
+    private volatile Map<String, Integer> keyIndexes;
+
+    private TranslationMatrix(String name, String[] keys, List<LocaleKey> locales,
+            String[][] columns) {
+        this.name = name;
+        this.keys = keys;
+        this.locales = locales;
+        this.columns = columns;
+    }
+
+    /**
+     * Creates the matrix of given <b>group</b>. The translations of each bundle
+     * are read only once.
+     *
+     * @param group CANNOT BE NULL; the group to view
+     * @return the matrix of the current translations of the <b>group</b>
+     *
+     * @throws NullPointerException if the <b>group</b> is null
+     */
+    static TranslationMatrix of(BundleGroup group) {
+        Objects.requireNonNull(group);
+
+        String[] keys = group.stringPropertyNames().toArray(new String[0]);
+        List<LocaleKey> locales = new ArrayList<>(group.supportedLocalesWithoutDefault());
+        locales.sort(LOCALE_ORDER);
+        locales.add(0, LocaleKey.DEFAULT);
+
+        String[][] columns = new String[locales.size()][];
+        for (int column = 0; column < columns.length; ++column) {
+            columns[column] = column(group.getBundle(locales.get(column)), keys);
+        }
+        return new TranslationMatrix(group.getName(), keys, Collections.unmodifiableList(
+                locales), columns);
+    }
+
+    /**
+     * @return the name of the viewed group
+     *
+     * @see BundleGroup#getName()
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of the rows, i.e. the keys of the default bundle
+     */
+    public int keyCount() {
+        return keys.length;
+    }
+
+    /**
+     * @return the number of the columns, i.e. the translations of the group
+     */
+    public int localeCount() {
+        return columns.length;
+    }
+
+    /**
+     * @return the unmodifiable list of the keys, in the order of the rows
+     */
+    public List<String> getKeys() {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * @return the unmodifiable list of the keys of the translations, in the
+     *         order of the columns, starting with {@link LocaleKey#DEFAULT}
+     */
+    public List<LocaleKey> getLocales() {
+        return locales;
+    }
+
+    /**
+     * @param row the index of the row
+     * @return the key of given <b>row</b>
+     *
+     * @throws IndexOutOfBoundsException if the <b>row</b> is out of range
+     */
+    public String getKey(int row) {
+        return keys[row];
+    }
+
+    /**
+     * @param key the property key
+     * @return the index of the row of given <b>key</b>, or -1 if the default
+     *         bundle does not contain the <b>key</b>
+     */
+    public int indexOfKey(String key) {
+        Integer row = keyIndexes().get(key);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * @param localeKey the key of the translation
+     * @return the index of the column of given <b>localeKey</b>, or -1 if the
+     *         group does not contain a bundle for the <b>localeKey</b>
+     */
+    public int indexOfLocale(LocaleKey localeKey) {
+        return locales.indexOf(localeKey);
+    }
+
+    /**
+     * @param language the language
+     * @return the index of the column of given <b>language</b> without any
+     *         script and region, or -1 if the group does not contain a bundle
+     *         for the <b>language</b>
+     */
+    public int indexOfLanguage(Language language) {
+        return language == null ? -1 : indexOfLocale(LocaleKey.of(language));
+    }
+
+    /**
+     * Returns the value of a single cell.
+     *
+     * @param row the index of the row
+     * @param column the index of the column
+     * @return the value of the key of given <b>row</b> in the language of given
+     *         <b>column</b>, or <tt>null</tt> if there is no such value
+     *
+     * @throws IndexOutOfBoundsException if the <b>row</b> or the <b>column</b> is
+     *             out of range
+     */
+    public String get(int row, int column) {
+        if (row < 0 || row >= keys.length) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", rows: " + keys.length);
+        }
+        return columns[column][row];
+    }
+
+    /**
+     * Returns the value of given <b>key</b> in given <b>language</b>, just like
+     * {@link BundleGroup#getProperty(String, Language)} at the time this matrix
+     * was created, except for the keys missing in the default bundle.
+     *
+     * @param key the property key
+     * @param language the language
+     * @return the value of the <b>key</b> in the <b>language</b>, or
+     *         <tt>null</tt> if there is no such row, column or value
+     */
+    public String get(String key, Language language) {
+        return valueAt(key, indexOfLanguage(language));
+    }
+
+    /**
+     * Returns the value of given <b>key</b> in the translation of given
+     * <b>localeKey</b>, just like {@link BundleGroup#getProperty(String, LocaleKey)}
+     * at the time this matrix was created, except for the keys missing in the
+     * default bundle.
+     *
+     * @param key the property key
+     * @param localeKey the key of the translation
+     * @return the value of the <b>key</b> in the translation, or <tt>null</tt> if
+     *         there is no such row, column or value
+     */
+    public String get(String key, LocaleKey localeKey) {
+        return valueAt(key, indexOfLocale(localeKey));
+    }
+
+    /**
+     * Copies the values of given <b>row</b> to given <b>target</b>, starting at
+     * given <b>offset</b>, in the order of the columns.
+     *
+     * @param row the index of the row
+     * @param target the array to fill
+     * @param offset the index of the <b>target</b> for the first column
+     *
+     * @throws IndexOutOfBoundsException if the <b>row</b> is out of range, or
+     *             the <b>target</b> is too short
+     */
+    public void copyRow(int row, String[] target, int offset) {
+        if (row < 0 || row >= keys.length) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", rows: " + keys.length);
+        }
+        for (int column = 0; column < columns.length; ++column) {
+            target[offset + column] = columns[column][row];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TranslationMatrix [name=" + name + ", keys=" + keys.length + ", locales="
+                + locales + "]";
+    }
+
+    /*
+     * Private methods.
+     */
+
+    /**
+     * Returns the index of the keys, building it on the first call. The index
+     * is never changed once built, so the threads racing to build it just
+     * build the same index.
+     */
+    private Map<String, Integer> keyIndexes() {
+        Map<String, Integer> indexes = keyIndexes;
+        if (indexes == null) {
+            indexes = new HashMap<>(keys.length * 4 / 3 + 1);
+            for (int row = 0; row < keys.length; ++row) {
+                indexes.put(keys[row], row);
+            }
+            keyIndexes = indexes;
+        }
+        return indexes;
+    }
+
+    private String valueAt(String key, int column) {
+        int row = indexOfKey(key);
+        return row < 0 || column < 0 ? null : columns[column][row];
+    }
+
+    private static String[] column(Bundle bundle, String[] keys) {
+        String[] column = new String[keys.length];
+        if (bundle != null) {
+            bundle.copyProperties(keys, column);
+        }
+        return column;
+    }
+
+}
@@ -0,0 +1,522 @@
+package com.github.kejn.bundleconverter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable table of translations, mapping the property keys to their values.
+ * It is a compact, read-only alternative to {@link Properties}.
+ * <p>
+ * All keys and values of the table are stored one after another in a single
+ * byte array. A string is stored using one byte per character if all its
+ * characters are in the ISO 8859-1 range, which is the case for the most of
+ * '.properties' files, or two bytes per character otherwise. The entries are
+ * found using an open-addressed hash table of <code>int</code>s, so the table
+ * does not create any objects per entry, and the looked up key is compared
+ * with the stored one without decoding it.
+ * <p>
+ * The keys are kept in the order in which they were added to the
+ * {@link Builder}.
+ *
+ * @author kejn
+ *
+ * @see Bundle#getTranslations()
+ */
+public final class TranslationTable {
+
+    /**
+     * The table without any translations.
+     */
+    public static final TranslationTable EMPTY = builder().build();
+
+    /**
+     * The number of bytes of the header of the snapshot written by
+     * {@link #writeTo(ByteBuffer)}.
+     */
+    static final int SNAPSHOT_HEADER_SIZE = 4 * 4;
+
+    private static final int UTF16 = 0x80000000;
+    private static final int LENGTH_MASK = ~UTF16;
+    private static final int INTS_PER_ENTRY = 4;
+
+    private final byte[] data;
+    private final int[] entries;
+    private final int[] hashes;
+    private final int[] slots;
+    private final int size;
+
+    private TranslationTable(byte[] data, int[] entries, int[] hashes, int[] slots, int size) {
+        this.data = data;
+        this.entries = entries;
+        this.hashes = hashes;
+        this.slots = slots;
+        this.size = size;
+    }
+
+    /*
+     * API.
+     */
+
+    /**
+     * @return a new builder of {@link TranslationTable}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a table containing all the string properties from given
+     * <b>properties</b>, including the default ones.
+     *
+     * @param properties CANNOT BE NULL; the properties to copy
+     * @return a table with the properties
+     */
+    public static TranslationTable of(Properties properties) {
+        Builder builder = builder();
+        for (String key : properties.stringPropertyNames()) {
+            builder.put(key, properties.getProperty(key));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return number of the translations in this table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return <code>true</code> if this table does not contain any translations
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value mapped by given <b>key</b>.
+     *
+     * @param key the property key
+     * @return the value mapped by given <b>key</b>, or <code>null</code> if the
+     *         table does not contain it
+     */
+    public String get(String key) {
+        int entry = indexOf(key);
+        return entry < 0 ? null : decode(entry * INTS_PER_ENTRY + 2);
+    }
+
+    /**
+     * @param key the property key
+     * @return <code>true</code> if this table contains the mapping for given
+     *         <b>key</b>
+     */
+    public boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the keys of this table. The set is an unmodifiable view of the
+     * table, iterated in the order of the keys in the table.
+     *
+     * @return the keys of this table
+     */
+    public Set<String> keySet() {
+        return new KeySet();
+    }
+
+    /**
+     * Passes each key and value to the <b>consumer</b>, in the order of the keys
+     * in the table.
+     *
+     * @param consumer receives the keys and values
+     */
+    public void forEach(BiConsumer<String, String> consumer) {
+        for (int entry = 0; entry < size; ++entry) {
+            consumer.accept(decode(entry * INTS_PER_ENTRY), decode(entry * INTS_PER_ENTRY + 2));
+        }
+    }
+
+    /**
+     * @return new {@link Properties} with all the translations of this table
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        forEach(properties::setProperty);
+        return properties;
+    }
+
+    /**
+     * @return approximate number of bytes of the heap taken by this table
+     */
+    long estimatedSize() {
+        // object and array headers, and the references to the arrays
+        long overhead = 16 + 4 * 16 + 4 * 8;
+        return overhead + data.length + 4L * (entries.length + hashes.length + slots.length);
+    }
+
+    /**
+     * @return the number of bytes written by {@link #writeTo(ByteBuffer)}
+     */
+    int serializedSize() {
+        return SNAPSHOT_HEADER_SIZE + data.length + 4 * (entries.length + hashes.length
+                + slots.length);
+    }
+
+    /**
+     * Writes the snapshot of this table to the <b>buffer</b>. The arrays of the
+     * table are written as they are, so the table is read back by
+     * {@link #readFrom(ByteBuffer)} without building it again.
+     *
+     * @param buffer the target buffer, with at least {@link #serializedSize()}
+     *            bytes remaining
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(size).putInt(data.length).putInt(entries.length).putInt(slots.length);
+        buffer.put(data);
+        buffer.asIntBuffer().put(entries).put(hashes).put(slots);
+        buffer.position(buffer.position() + 4 * (entries.length + hashes.length
+                + slots.length));
+    }
+
+    /**
+     * Reads the snapshot written by {@link #writeTo(ByteBuffer)} from the
+     * <b>buffer</b>.
+     *
+     * @param buffer the source buffer
+     * @return the table read from the <b>buffer</b>
+     *
+     * @throws IllegalArgumentException if the <b>buffer</b> does not contain a
+     *             valid snapshot
+     */
+    static TranslationTable readFrom(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        int dataLength = buffer.getInt();
+        int entriesLength = buffer.getInt();
+        int slotsLength = buffer.getInt();
+        if (size < 0 || size > buffer.remaining() / 4 || dataLength < 0
+                || entriesLength != size * INTS_PER_ENTRY
+                || slotsLength != Builder.tableSize(size) || dataLength > buffer.remaining()
+                || 4L * (entriesLength + size + slotsLength) > buffer.remaining()
+                - dataLength) {
+            throw new IllegalArgumentException("Invalid snapshot of the translations");
+        }
+
+        byte[] data = new byte[dataLength];
+        buffer.get(data);
+        int[] entries = new int[entriesLength];
+        int[] hashes = new int[size];
+        int[] slots = new int[slotsLength];
+        buffer.asIntBuffer().get(entries).get(hashes).get(slots);
+        buffer.position(buffer.position() + 4 * (entriesLength + size + slotsLength));
+        for (int field = 0; field < entriesLength; field += 2) {
+            int length = entries[field + 1] & LENGTH_MASK;
+            int byteLength = (entries[field + 1] & UTF16) != 0 ? 2 * length : length;
+            if (entries[field] < 0 || entries[field] + (long) byteLength > dataLength) {
+                throw new IllegalArgumentException("Invalid snapshot of the translations");
+            }
+        }
+        for (int slot : slots) {
+            if (slot < 0 || slot > size) {
+                throw new IllegalArgumentException("Invalid snapshot of the translations");
+            }
+        }
+        return new TranslationTable(data, entries, hashes, slots, size);
+    }
+
+    /**
+     * Reads the header of the snapshot written by {@link #writeTo(ByteBuffer)},
+     * so the snapshot can be skipped or copied without reading the table.
+     *
+     * @param header the buffer with the header of the snapshot at its position,
+     *            which is not changed
+     * @return the number of bytes of the whole snapshot, including its header
+     *
+     * @throws IllegalArgumentException if the <b>header</b> is not valid
+     */
+    static long snapshotSize(ByteBuffer header) {
+        int position = header.position();
+        int size = header.getInt(position);
+        int dataLength = header.getInt(position + 4);
+        int entriesLength = header.getInt(position + 8);
+        int slotsLength = header.getInt(position + 12);
+        if (size < 0 || size > Integer.MAX_VALUE / (2 * INTS_PER_ENTRY) || dataLength < 0
+                || entriesLength != size * INTS_PER_ENTRY
+                || slotsLength != Builder.tableSize(size)) {
+            throw new IllegalArgumentException("Invalid snapshot of the translations");
+        }
+        return SNAPSHOT_HEADER_SIZE + (long) dataLength + 4L * (entriesLength + size
+                + slotsLength);
+    }
+
+    /**
+     * @param header the buffer with the header of the snapshot written by
+     *            {@link #writeTo(ByteBuffer)} at its position, which is not
+     *            changed
+     * @return the number of the translations of the snapshot
+     */
+    static int snapshotKeyCount(ByteBuffer header) {
+        return header.getInt(header.position());
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private int indexOf(String key) {
+        if (key == null || size == 0) {
+            return -1;
+        }
+        int hash = key.hashCode();
+        int mask = slots.length - 1;
+        for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (hashes[entry] == hash && matches(entry * INTS_PER_ENTRY, key)) {
+                return entry;
+            }
+        }
+    }
+
+    private boolean matches(int field, String string) {
+        int lengthAndCoder = entries[field + 1];
+        int length = lengthAndCoder & LENGTH_MASK;
+        if (length != string.length()) {
+            return false;
+        }
+        int offset = entries[field];
+        boolean utf16 = (lengthAndCoder & UTF16) != 0;
+        for (int index = 0; index < length; ++index) {
+            if (charAt(offset, utf16, index) != string.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int field) {
+        int offset = entries[field];
+        int lengthAndCoder = entries[field + 1];
+        int length = lengthAndCoder & LENGTH_MASK;
+        if ((lengthAndCoder & UTF16) == 0) {
+            return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length];
+        for (int index = 0; index < length; ++index) {
+            chars[index] = charAt(offset, true, index);
+        }
+        return new String(chars);
+    }
+
+    private char charAt(int offset, boolean utf16, int index) {
+        if (utf16) {
+            int position = offset + 2 * index;
+            return (char) ((data[position] & 0xFF) << 8 | (data[position + 1] & 0xFF));
+        }
+        return (char) (data[offset + index] & 0xFF);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /*
+     * Methods overridden from Object.
+     */
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int entry = 0; entry < size; ++entry) {
+            hashCode += hashes[entry] ^ decode(entry * INTS_PER_ENTRY + 2).hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof TranslationTable)) {
+            return false;
+        }
+        TranslationTable other = (TranslationTable) obj;
+        if (size != other.size) {
+            return false;
+        }
+        for (int entry = 0; entry < size; ++entry) {
+            int field = entry * INTS_PER_ENTRY;
+            int otherEntry = other.indexOf(decode(field));
+            if (otherEntry < 0 || !other.matches(otherEntry * INTS_PER_ENTRY + 2, decode(field
+                    + 2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("TranslationTable[");
+        forEach((key, value) -> {
+            if (builder.length() > "TranslationTable[".length()) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Unmodifiable view of the keys of the table.
+     */
+    private final class KeySet extends AbstractSet<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+
+                private int entry;
+
+                @Override
+                public boolean hasNext() {
+                    return entry < size;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return decode(entry++ * INTS_PER_ENTRY);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof String && containsKey((String) o);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Builder of {@link TranslationTable}. When a key is put more than once, the
+     * last value is used, just like in {@link Properties}, but the key keeps its
+     * first position.
+     *
+     * @author kejn
+     */
+    public static final class Builder {
+
+        private final Map<String, String> translations = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Maps the <b>key</b> to the <b>value</b>.
+         *
+         * @param key CANNOT BE NULL; the property key
+         * @param value CANNOT BE NULL; the property value
+         * @return this builder
+         *
+         * @throws NullPointerException if the <b>key</b> or <b>value</b> is null
+         */
+        public Builder put(String key, String value) {
+            translations.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+            return this;
+        }
+
+        /**
+         * @return a new table with all the translations put to this builder
+         */
+        public TranslationTable build() {
+            int size = translations.size();
+            int dataLength = 0;
+            for (Map.Entry<String, String> translation : translations.entrySet()) {
+                dataLength += encodedLength(translation.getKey()) + encodedLength(translation
+                        .getValue());
+            }
+
+            byte[] data = new byte[dataLength];
+            int[] entries = new int[size * INTS_PER_ENTRY];
+            int[] hashes = new int[size];
+            int[] slots = new int[tableSize(size)];
+            int mask = slots.length - 1;
+            int offset = 0;
+            int entry = 0;
+            for (Map.Entry<String, String> translation : translations.entrySet()) {
+                int field = entry * INTS_PER_ENTRY;
+                offset = encode(translation.getKey(), data, offset, entries, field);
+                offset = encode(translation.getValue(), data, offset, entries, field + 2);
+
+                int hash = translation.getKey().hashCode();
+                hashes[entry] = hash;
+                int slot = spread(hash) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = ++entry;
+            }
+            return new TranslationTable(data, entries, hashes, slots, size);
+        }
+
+        private static int tableSize(int size) {
+            int tableSize = 1;
+            while (tableSize < size * 2) {
+                tableSize <<= 1;
+            }
+            return tableSize;
+        }
+
+        private static boolean isLatin1(String string) {
+            for (int index = 0; index < string.length(); ++index) {
+                if (string.charAt(index) > 0xFF) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int encodedLength(String string) {
+            return isLatin1(string) ? string.length() : 2 * string.length();
+        }
+
+        private static int encode(String string, byte[] data, int offset, int[] entries,
+                int field) {
+            int length = string.length();
+            entries[field] = offset;
+            if (isLatin1(string)) {
+                entries[field + 1] = length;
+                for (int index = 0; index < length; ++index) {
+                    data[offset + index] = (byte) string.charAt(index);
+                }
+                return offset + length;
+            }
+            entries[field + 1] = length | UTF16;
+            for (int index = 0; index < length; ++index) {
+                char c = string.charAt(index);
+                data[offset + 2 * index] = (byte) (c >>> 8);
+                data[offset + 2 * index + 1] = (byte) c;
+            }
+            return offset + 2 * length;
+        }
+    }
+
+}
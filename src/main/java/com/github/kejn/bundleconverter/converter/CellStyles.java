@@ -0,0 +1,76 @@
+package com.github.kejn.bundleconverter.converter;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * The cell styles used in the sheets created by {@link XlsxConverter}. The
+ * styles and their fonts are created once per {@link Workbook} and shared by
+ * all of its sheets.
+ * <p>
+ * Only the indexes of the styles are kept, so this object does not hold a
+ * reference to the workbook it was created for.
+ *
+ * @author kejn
+ */
+final class CellStyles {
+
+    static final short FONT_SIZE = 10;
+    static final String FONT_NAME = "Arial";
+
+    private final short headerStyleIndex;
+    private final short contentStyleIndex;
+
+    /**
+     * Creates the header and content styles in given <b>workbook</b>.
+     *
+     * @param workbook the workbook to create the styles in
+     */
+    CellStyles(Workbook workbook) {
+        Font headerFont = createFont(workbook);
+        headerFont.setBold(true);
+
+        headerStyleIndex = createCellStyle(workbook, headerFont).getIndex();
+        contentStyleIndex = createCellStyle(workbook, createFont(workbook)).getIndex();
+    }
+
+    /**
+     * @param workbook the workbook these styles were created for
+     * @return the style of the table header cells
+     */
+    CellStyle getHeaderStyle(Workbook workbook) {
+        return workbook.getCellStyleAt(headerStyleIndex);
+    }
+
+    /**
+     * @param workbook the workbook these styles were created for
+     * @return the style of the cells containing the keys and values
+     */
+    CellStyle getContentStyle(Workbook workbook) {
+        return workbook.getCellStyleAt(contentStyleIndex);
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private static CellStyle createCellStyle(Workbook workbook, Font font) {
+        CellStyle cellStyle = workbook.createCellStyle();
+        cellStyle.setFont(font);
+        cellStyle.setWrapText(true);
+        cellStyle.setAlignment(HorizontalAlignment.LEFT);
+        cellStyle.setVerticalAlignment(VerticalAlignment.TOP);
+        return cellStyle;
+    }
+
+    private static Font createFont(Workbook workbook) {
+        Font font = workbook.createFont();
+        font.setFontName(FONT_NAME);
+        font.setFontHeightInPoints(FONT_SIZE);
+        return font;
+    }
+
+}
@@ -0,0 +1,478 @@
+package com.github.kejn.bundleconverter.converter;
+
+import static com.github.kejn.bundleconverter.converter.XlsxConverter.CONTENT_FIRST_ROW;
+import static com.github.kejn.bundleconverter.converter.XlsxConverter.DEFAULT_COLUMN;
+import static com.github.kejn.bundleconverter.converter.XlsxConverter.HEADER_ROW;
+import static com.github.kejn.bundleconverter.converter.XlsxConverter.KEY_COLUMN;
+import static com.github.kejn.bundleconverter.converter.XlsxConverter.KEY_LABEL;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.github.kejn.bundleconverter.BundleGroup;
+import com.github.kejn.bundleconverter.LocaleKey;
+import com.github.kejn.bundleconverter.TranslationMatrix;
+
+/**
+ * {@link XlsxWriter} implementation which writes the parts of the '.xlsx'
+ * document (content types, relationships, workbook, styles and sheets) straight
+ * into a {@link ZipOutputStream}. The values are written as inline strings, so
+ * no shared strings table has to be kept in memory, and no Apache POI objects
+ * are created at all.
+ * <p>
+ * The sheets have the same contents as the ones created by
+ * {@link XlsxConverter#createSheet(org.apache.poi.ss.usermodel.Workbook, BundleGroup)}:
+ * the header row, the frozen pane, the auto-filter, the column widths and the
+ * cell styles.
+ * <p>
+ * Unlike the {@link XlsxConverter}, which always uses the default compression
+ * of Apache POI, the deflate level of the written parts can be chosen, e.g.
+ * {@link Deflater#BEST_SPEED} for the documents which are only read by tools.
+ * <p>
+ * Just like in the {@link XlsxConverter}, a group having more keys than the
+ * maximum number of rows per sheet is split into consecutive sheets.
+ *
+ * @author kejn
+ *
+ * @see XlsxConverter
+ */
+public class DirectXlsxWriter implements XlsxWriter {
+
+    private static final String INVALID_SHEET_NAME_CHARACTERS = "/\\?*:[]";
+
+    private static final int HEADER_FONT = 1;
+    private static final int CONTENT_FONT = 2;
+    private static final String HEADER_STYLE = "\" s=\"1\"";
+    private static final String CONTENT_STYLE = "\" s=\"2\"";
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" "
+            + "standalone=\"yes\"?>\n";
+    private static final String SPREADSHEETML_NAMESPACE = "http://schemas.openxmlformats.org/"
+            + "spreadsheetml/2006/main";
+    private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/"
+            + "officeDocument/2006/relationships";
+    private static final String PACKAGE_RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats."
+            + "org/package/2006/relationships";
+    private static final String CONTENT_TYPE_PREFIX = "application/vnd.openxmlformats-";
+
+    private final int compressionLevel;
+    private final int maxRowsPerSheet;
+
+    /**
+     * Creates a writer using the {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public DirectXlsxWriter() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a writer compressing the document parts with given
+     * <b>compressionLevel</b>.
+     *
+     * @param compressionLevel the deflate level, from
+     *            {@link Deflater#NO_COMPRESSION} to
+     *            {@link Deflater#BEST_COMPRESSION}, or
+     *            {@link Deflater#DEFAULT_COMPRESSION}
+     *
+     * @throws IllegalArgumentException if the <b>compressionLevel</b> is not a
+     *             valid deflate level
+     */
+    public DirectXlsxWriter(int compressionLevel) {
+        this(compressionLevel, XlsxConverter.MAX_ROWS_PER_SHEET);
+    }
+
+    /**
+     * Creates a writer compressing the document parts with given
+     * <b>compressionLevel</b> and splitting the groups into sheets of at most
+     * <b>maxRowsPerSheet</b> keys.
+     *
+     * @param compressionLevel the deflate level, from
+     *            {@link Deflater#NO_COMPRESSION} to
+     *            {@link Deflater#BEST_COMPRESSION}, or
+     *            {@link Deflater#DEFAULT_COMPRESSION}
+     * @param maxRowsPerSheet maximum number of keys written to a single sheet
+     *
+     * @throws IllegalArgumentException if the <b>compressionLevel</b> is not a
+     *             valid deflate level, or the <b>maxRowsPerSheet</b> is not
+     *             positive or it is greater than
+     *             {@link XlsxConverter#MAX_ROWS_PER_SHEET}
+     */
+    public DirectXlsxWriter(int compressionLevel, int maxRowsPerSheet) {
+        if ((compressionLevel < Deflater.NO_COMPRESSION
+                || compressionLevel > Deflater.BEST_COMPRESSION)
+                && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        this.maxRowsPerSheet = SheetShard.checkMaxRowsPerSheet(maxRowsPerSheet);
+    }
+
+    /*
+     * API.
+     */
+
+    @Override
+    public void write(List<BundleGroup> bundleGroups, OutputStream outputStream)
+            throws IOException {
+        Objects.requireNonNull(bundleGroups);
+        Objects.requireNonNull(outputStream);
+        List<SheetShard> sheets = splitIntoSheets(bundleGroups);
+        checkSheetNames(sheets);
+
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            ZipOutputStream zip = new DeflaterZipOutputStream(outputStream, deflater);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(zip,
+                    StandardCharsets.UTF_8));
+
+            putEntry(zip, writer, "[Content_Types].xml");
+            writeContentTypes(writer, sheets.size());
+
+            putEntry(zip, writer, "_rels/.rels");
+            writeRootRelationships(writer);
+
+            putEntry(zip, writer, "xl/workbook.xml");
+            writeWorkbook(writer, sheets);
+
+            putEntry(zip, writer, "xl/_rels/workbook.xml.rels");
+            writeWorkbookRelationships(writer, sheets.size());
+
+            putEntry(zip, writer, "xl/styles.xml");
+            writeStyles(writer);
+
+            for (int index = 0; index < sheets.size(); ++index) {
+                putEntry(zip, writer, sheetPartName(index));
+                writeSheet(writer, sheets.get(index));
+            }
+
+            writer.flush();
+            zip.closeEntry();
+            zip.finish();
+        } finally {
+            // the zip stream is not closed, as it would close the outputStream,
+            // so the native memory of the deflater has to be released here
+            deflater.end();
+        }
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private List<SheetShard> splitIntoSheets(List<BundleGroup> bundleGroups) {
+        List<SheetShard> sheets = new ArrayList<>();
+        for (BundleGroup group : bundleGroups) {
+            Objects.requireNonNull(group, "The BundleGroup list contain null value");
+            sheets.addAll(SheetShard.split(group, maxRowsPerSheet));
+        }
+        return sheets;
+    }
+
+    private void checkSheetNames(List<SheetShard> sheets) {
+        Set<String> sheetNames = new HashSet<>();
+        for (SheetShard sheet : sheets) {
+            String name = sheet.getSheetName();
+            if (name.isEmpty() || name.length() > SheetShard.MAX_SHEET_NAME_LENGTH
+                    || name.startsWith("'") || name.endsWith("'") || containsAny(name,
+                            INVALID_SHEET_NAME_CHARACTERS)) {
+                throw new IllegalArgumentException("Invalid sheet name: [" + name + "]");
+            }
+            if (!sheetNames.add(name.toUpperCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("The workbook already contains a sheet named: ["
+                        + name + "]");
+            }
+        }
+    }
+
+    private static boolean containsAny(String value, String characters) {
+        for (int i = 0; i < characters.length(); ++i) {
+            if (value.indexOf(characters.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putEntry(ZipOutputStream zip, Writer writer, String name) throws IOException {
+        writer.flush();
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(XML_DECLARATION);
+    }
+
+    private void writeContentTypes(Writer writer, int sheetCount) throws IOException {
+        writer.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/"
+                + "content-types\">");
+        writer.write("<Default Extension=\"rels\" ContentType=\"" + CONTENT_TYPE_PREFIX
+                + "package.relationships+xml\"/>");
+        writer.write("<Default Extension=\"xml\" ContentType=\"application/xml\"/>");
+        writeContentTypeOverride(writer, "/xl/workbook.xml", "spreadsheetml.sheet.main+xml");
+        writeContentTypeOverride(writer, "/xl/styles.xml", "spreadsheetml.styles+xml");
+        for (int index = 0; index < sheetCount; ++index) {
+            writeContentTypeOverride(writer, "/" + sheetPartName(index),
+                    "spreadsheetml.worksheet+xml");
+        }
+        writer.write("</Types>");
+    }
+
+    private void writeContentTypeOverride(Writer writer, String partName, String contentType)
+            throws IOException {
+        writer.write("<Override PartName=\"" + partName + "\" ContentType=\"" + CONTENT_TYPE_PREFIX
+                + "officedocument." + contentType + "\"/>");
+    }
+
+    private void writeRootRelationships(Writer writer) throws IOException {
+        writer.write("<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS_NAMESPACE + "\">");
+        writeRelationship(writer, "rId1", "officeDocument", "xl/workbook.xml");
+        writer.write("</Relationships>");
+    }
+
+    private void writeWorkbookRelationships(Writer writer, int sheetCount) throws IOException {
+        writer.write("<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS_NAMESPACE + "\">");
+        for (int index = 0; index < sheetCount; ++index) {
+            writeRelationship(writer, sheetRelationshipId(index), "worksheet", "worksheets/sheet"
+                    + (index + 1) + ".xml");
+        }
+        writeRelationship(writer, sheetRelationshipId(sheetCount), "styles", "styles.xml");
+        writer.write("</Relationships>");
+    }
+
+    private void writeRelationship(Writer writer, String id, String type, String target)
+            throws IOException {
+        writer.write("<Relationship Id=\"" + id + "\" Type=\"" + RELATIONSHIPS_NAMESPACE + "/"
+                + type + "\" Target=\"" + target + "\"/>");
+    }
+
+    private void writeWorkbook(Writer writer, List<SheetShard> sheets) throws IOException {
+        writer.write("<workbook xmlns=\"" + SPREADSHEETML_NAMESPACE + "\" xmlns:r=\""
+                + RELATIONSHIPS_NAMESPACE + "\">");
+        writer.write("<workbookPr date1904=\"false\"/>");
+        writer.write("<bookViews><workbookView activeTab=\"0\"/></bookViews>");
+
+        writer.write("<sheets>");
+        for (int index = 0; index < sheets.size(); ++index) {
+            writer.write("<sheet name=\"");
+            writeEscaped(writer, sheets.get(index).getSheetName());
+            writer.write("\" sheetId=\"" + (index + 1) + "\" r:id=\"" + sheetRelationshipId(index)
+                    + "\"/>");
+        }
+        writer.write("</sheets>");
+
+        if (!sheets.isEmpty()) {
+            writer.write("<definedNames>");
+            for (int index = 0; index < sheets.size(); ++index) {
+                SheetShard sheet = sheets.get(index);
+                writer.write("<definedName name=\"_xlnm._FilterDatabase\" localSheetId=\"" + index
+                        + "\" hidden=\"1\">");
+                writeEscaped(writer, "'" + sheet.getSheetName().replace("'", "''") + "'!"
+                        + autoFilterReference(sheet, "$"));
+                writer.write("</definedName>");
+            }
+            writer.write("</definedNames>");
+        }
+        writer.write("</workbook>");
+    }
+
+    private void writeStyles(Writer writer) throws IOException {
+        writer.write("<styleSheet xmlns=\"" + SPREADSHEETML_NAMESPACE + "\">");
+        writer.write("<fonts count=\"3\">");
+        writer.write("<font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font>");
+        writer.write("<font><b val=\"true\"/><sz val=\"" + CellStyles.FONT_SIZE + "\"/><name val=\""
+                + CellStyles.FONT_NAME + "\"/></font>");
+        writer.write("<font><sz val=\"" + CellStyles.FONT_SIZE + "\"/><name val=\""
+                + CellStyles.FONT_NAME + "\"/></font>");
+        writer.write("</fonts>");
+        // The second fill is reserved as 'gray125' by ECMA-376, POI writes 'darkGray'
+        writer.write("<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+                + "<fill><patternFill patternType=\"gray125\"/></fill></fills>");
+        writer.write("<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/>"
+                + "</border></borders>");
+        writer.write("<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" "
+                + "borderId=\"0\"/></cellStyleXfs>");
+        writer.write("<cellXfs count=\"3\">");
+        writer.write("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>");
+        writeCellStyle(writer, HEADER_FONT);
+        writeCellStyle(writer, CONTENT_FONT);
+        writer.write("</cellXfs>");
+        writer.write("<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" "
+                + "builtinId=\"0\"/></cellStyles>");
+        writer.write("</styleSheet>");
+    }
+
+    private void writeCellStyle(Writer writer, int fontId) throws IOException {
+        writer.write("<xf numFmtId=\"0\" fontId=\"" + fontId + "\" fillId=\"0\" borderId=\"0\" "
+                + "xfId=\"0\" applyFont=\"true\" applyAlignment=\"true\">");
+        writer.write("<alignment horizontal=\"left\" vertical=\"top\" wrapText=\"true\"/>");
+        writer.write("</xf>");
+    }
+
+    private void writeSheet(Writer writer, SheetShard sheet) throws IOException {
+        TranslationMatrix matrix = sheet.getMatrix();
+        List<LocaleKey> locales = matrix.getLocales();
+
+        writer.write("<worksheet xmlns=\"" + SPREADSHEETML_NAMESPACE + "\">");
+        writer.write("<sheetViews><sheetView workbookViewId=\"0\">");
+        writer.write("<pane ySplit=\"" + CONTENT_FIRST_ROW + "\" topLeftCell=\"" + cellReference(
+                KEY_COLUMN, CONTENT_FIRST_ROW) + "\" activePane=\"bottomLeft\" state=\"frozen\"/>");
+        writer.write("<selection pane=\"bottomLeft\"/>");
+        writer.write("</sheetView></sheetViews>");
+        writer.write("<sheetFormatPr defaultRowHeight=\"15.0\"/>");
+        writer.write("<cols><col min=\"1\" max=\"" + (DEFAULT_COLUMN + matrix.localeCount())
+                + "\" width=\"" + XlsxConverter.COLUMN_WIDTH / 256.0
+                + "\" customWidth=\"true\"/></cols>");
+
+        writer.write("<sheetData>");
+        String[] columnNames = new String[locales.size() + 1];
+        for (int column = 0; column < columnNames.length; ++column) {
+            columnNames[column] = columnName(column);
+        }
+
+        String[] row = new String[columnNames.length];
+        row[KEY_COLUMN] = KEY_LABEL;
+        for (int index = 0; index < locales.size(); ++index) {
+            row[index + 1] = locales.get(index).getDisplayName();
+        }
+        writeRow(writer, columnNames, HEADER_ROW, HEADER_STYLE, row);
+
+        int rowIndex = CONTENT_FIRST_ROW;
+        for (int matrixRow = sheet.getFromRow(); matrixRow < sheet.getToRow(); ++matrixRow) {
+            row[KEY_COLUMN] = matrix.getKey(matrixRow);
+            matrix.copyRow(matrixRow, row, KEY_COLUMN + 1);
+            writeRow(writer, columnNames, rowIndex, CONTENT_STYLE, row);
+            ++rowIndex;
+        }
+        writer.write("</sheetData>");
+
+        writer.write("<autoFilter ref=\"" + autoFilterReference(sheet, "") + "\"/>");
+        writer.write("</worksheet>");
+    }
+
+    private void writeRow(Writer writer, String[] columnNames, int rowIndex, String style,
+            String[] values) throws IOException {
+        String rowNumber = Integer.toString(rowIndex + 1);
+        writer.write("<row r=\"");
+        writer.write(rowNumber);
+        writer.write("\">");
+        for (int column = 0; column < values.length; ++column) {
+            writer.write("<c r=\"");
+            writer.write(columnNames[column]);
+            writer.write(rowNumber);
+            writer.write(style);
+            String value = values[column];
+            if (value == null) {
+                writer.write("/>");
+            } else {
+                writer.write(" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                writeEscaped(writer, value, true);
+                writer.write("</t></is></c>");
+            }
+        }
+        writer.write("</row>");
+    }
+
+    private void writeEscaped(Writer writer, String value) throws IOException {
+        writeEscaped(writer, value, false);
+    }
+
+    /**
+     * Writes the <b>value</b> escaped for XML. The characters which are not
+     * allowed in XML are written as <code>_xHHHH_</code>, so in the text of a
+     * cell, the underscore starting such a sequence written literally is escaped
+     * as <code>_x005F_</code>, just like Apache POI does, so it is not decoded.
+     */
+    private void writeEscaped(Writer writer, String value, boolean cellText)
+            throws IOException {
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '&':
+                writer.write("&amp;");
+                break;
+            case '<':
+                writer.write("&lt;");
+                break;
+            case '>':
+                writer.write("&gt;");
+                break;
+            case '"':
+                writer.write("&quot;");
+                break;
+            case '_':
+                writer.write(cellText && SheetXmlHandler.isEscapedCharacter(value, i) ? "_x005F_"
+                        : "_");
+                break;
+            default:
+                if (isValidXmlCharacter(value, i)) {
+                    writer.write(c);
+                } else {
+                    writer.write(String.format("_x%04X_", (int) c));
+                }
+                break;
+            }
+        }
+    }
+
+    private static boolean isValidXmlCharacter(String value, int index) {
+        char c = value.charAt(index);
+        if (Character.isHighSurrogate(c)) {
+            return index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1));
+        }
+        if (Character.isLowSurrogate(c)) {
+            return index > 0 && Character.isHighSurrogate(value.charAt(index - 1));
+        }
+        return c >= 0x20 && c <= 0xFFFD || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private String autoFilterReference(SheetShard sheet, String absolute) {
+        int maxRows = sheet.getKeys().size();
+        int maxCols = DEFAULT_COLUMN + sheet.getMatrix().localeCount() - 1;
+        return absolute + columnName(KEY_COLUMN) + absolute + (HEADER_ROW + 1) + ":" + absolute
+                + columnName(maxCols) + absolute + (maxRows + 1);
+    }
+
+    private static String sheetPartName(int index) {
+        return "xl/worksheets/sheet" + (index + 1) + ".xml";
+    }
+
+    private static String sheetRelationshipId(int index) {
+        return "rId" + (index + 1);
+    }
+
+    private static String cellReference(int column, int row) {
+        return columnName(column) + (row + 1);
+    }
+
+    private static String columnName(int column) {
+        StringBuilder name = new StringBuilder();
+        for (int index = column + 1; index > 0; index = (index - 1) / 26) {
+            name.insert(0, (char) ('A' + (index - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    /**
+     * {@link ZipOutputStream} deflating the entries with given {@link Deflater},
+     * so it can be ended by the owner without closing the underlying stream.
+     */
+    private static final class DeflaterZipOutputStream extends ZipOutputStream {
+
+        DeflaterZipOutputStream(OutputStream out, Deflater deflater) {
+            super(out, StandardCharsets.UTF_8);
+            def.end();
+            def = deflater;
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.github.kejn.bundleconverter.converter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Predicate;
+
+import com.github.kejn.bundleconverter.Bundle;
+import com.github.kejn.bundleconverter.BundleGroup;
+import com.github.kejn.bundleconverter.Bundles;
+import com.github.kejn.bundleconverter.LocaleKey;
+
+/**
+ * Joins the {@link BundleGroup}s read from the consecutive sheets of a group
+ * split by {@link SheetShard#split(BundleGroup, int)} back into a single group.
+ * <p>
+ * A sheet is treated as a continuation only if it directly follows the
+ * previous sheets of its group and has the expected number, so a sheet which
+ * is just named like a continuation sheet is read as a separate group.
+ *
+ * @author kejn
+ */
+final class ShardStitcher {
+
+    private final File outputDirectory;
+    private final Predicate<String> sheetFilter;
+
+    private final List<BundleGroup> groups = new ArrayList<>();
+
+    private String groupName;
+    private int nextIndex;
+    private boolean groupAccepted;
+    private boolean continuation;
+
+    /**
+     * @param outputDirectory the path for the {@link Bundle}s added to the
+     *            stitched groups
+     * @param sheetFilter accepts the names of the groups to be read
+     */
+    ShardStitcher(File outputDirectory, Predicate<String> sheetFilter) {
+        this.outputDirectory = outputDirectory;
+        this.sheetFilter = sheetFilter;
+    }
+
+    /**
+     * Checks whether the sheet with given <b>sheetName</b>, which follows the
+     * previously checked sheets, should be read. A continuation sheet is
+     * accepted if the first sheet of its group was accepted.
+     *
+     * @param sheetName name of the next sheet
+     * @return <code>true</code> if the sheet should be read and passed to
+     *         {@link #add(BundleGroup)}, <code>false</code> if it should be skipped
+     */
+    boolean accept(String sheetName) {
+        continuation = groupName != null && sheetName.equals(SheetShard.sheetName(groupName,
+                nextIndex));
+        if (continuation) {
+            ++nextIndex;
+        } else {
+            groupName = sheetName;
+            nextIndex = 1;
+            groupAccepted = sheetFilter.test(sheetName);
+        }
+        return groupAccepted;
+    }
+
+    /**
+     * Adds the <b>group</b> read from the sheet most recently accepted by
+     * {@link #accept(String)}. The group read from a continuation sheet is merged
+     * into the group read from the first sheet.
+     *
+     * @param group the group read from the sheet
+     */
+    void add(BundleGroup group) {
+        if (!continuation) {
+            groups.add(group);
+            return;
+        }
+
+        BundleGroup target = groups.get(groups.size() - 1);
+        for (LocaleKey localeKey : group.supportedLocales()) {
+            Properties properties = group.getBundle(localeKey).getProperties();
+            Bundle bundle = target.getBundle(localeKey);
+            if (bundle == null) {
+                target.put(Bundles.newNotExistingBundle(Bundles.createFileName(outputDirectory,
+                        target.getName(), localeKey), properties));
+            } else {
+                bundle.getProperties().putAll(properties);
+            }
+        }
+    }
+
+    /**
+     * @return the groups read from the accepted sheets, in order of the sheets
+     */
+    List<BundleGroup> getGroups() {
+        return groups;
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.github.kejn.bundleconverter.converter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.kejn.bundleconverter.BundleGroup;
+import com.github.kejn.bundleconverter.TranslationMatrix;
+
+/**
+ * A part of a {@link BundleGroup} written to a single sheet. The keys of a
+ * group which do not fit into a single sheet are split into consecutive
+ * sheets: the first one has the name of the group, and the continuation sheets
+ * have the number of the sheet appended, e.g. <code>messages</code>,
+ * <code>messages~2</code>, <code>messages~3</code>. The name of the group is
+ * shortened in the names of the continuation sheets if they would be longer
+ * than {@link #MAX_SHEET_NAME_LENGTH} characters otherwise.
+ * <p>
+ * A group whose name ends like the name of a continuation sheet, e.g.
+ * <code>messages~2</code>, cannot be written, because it would be joined with
+ * the group written before it when the document is read.
+ * <p>
+ * All the sheets of a group share the same {@link TranslationMatrix}, and each
+ * of them writes a consecutive range of its rows.
+ *
+ * @author kejn
+ *
+ * @see ShardStitcher
+ */
+final class SheetShard {
+
+    /**
+     * Separates the name of the group and the number of the continuation sheet.
+     */
+    static final String SEPARATOR = "~";
+
+    /**
+     * Maximum length of the name of a sheet allowed by Excel.
+     */
+    static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    private final String sheetName;
+    private final BundleGroup group;
+    private final TranslationMatrix matrix;
+    private final int fromRow;
+    private final int toRow;
+
+    private SheetShard(String sheetName, BundleGroup group, TranslationMatrix matrix,
+            int fromRow, int toRow) {
+        this.sheetName = sheetName;
+        this.group = group;
+        this.matrix = matrix;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    /**
+     * Splits the keys of given <b>group</b> into the sheets containing at most
+     * <b>maxRowsPerSheet</b> keys each. A group without any keys is written to a
+     * single sheet. The translations of the group are read only once, into
+     * the {@link TranslationMatrix} shared by all the sheets.
+     *
+     * @param group the group to split
+     * @param maxRowsPerSheet maximum number of keys per sheet
+     * @return the list of sheets to be written for the group, in order
+     *
+     * @throws IllegalArgumentException if the name of the <b>group</b> ends like
+     *             the name of a continuation sheet
+     */
+    static List<SheetShard> split(BundleGroup group, int maxRowsPerSheet) {
+        if (isContinuationSheetName(group.getName())) {
+            throw new IllegalArgumentException("The name of the group cannot end with "
+                    + SEPARATOR + " followed by a number: [" + group.getName() + "]");
+        }
+        TranslationMatrix matrix = group.toMatrix();
+        int keyCount = matrix.keyCount();
+        if (keyCount <= maxRowsPerSheet) {
+            return Collections.singletonList(new SheetShard(group.getName(), group, matrix, 0,
+                    keyCount));
+        }
+
+        List<SheetShard> shards = new ArrayList<>((keyCount - 1) / maxRowsPerSheet + 1);
+        for (int fromRow = 0; fromRow < keyCount; fromRow += maxRowsPerSheet) {
+            int toRow = Math.min(fromRow + maxRowsPerSheet, keyCount);
+            shards.add(new SheetShard(sheetName(group.getName(), shards.size()), group, matrix,
+                    fromRow, toRow));
+        }
+        return shards;
+    }
+
+    /**
+     * @param groupName name of the group
+     * @param index zero-based index of the sheet within the group
+     * @return name of the sheet with given <b>index</b>; the <b>groupName</b> is
+     *         shortened in the name of a continuation sheet, so it is not longer
+     *         than {@link #MAX_SHEET_NAME_LENGTH} characters
+     */
+    static String sheetName(String groupName, int index) {
+        if (index == 0) {
+            return groupName;
+        }
+        String suffix = SEPARATOR + (index + 1);
+        int length = Math.min(groupName.length(), MAX_SHEET_NAME_LENGTH - suffix.length());
+        if (length < groupName.length() && length > 0 && Character.isHighSurrogate(groupName
+                .charAt(length - 1))) {
+            --length;
+        }
+        return groupName.substring(0, length) + suffix;
+    }
+
+    /**
+     * @param name name of a group or a sheet
+     * @return <code>true</code> if the <b>name</b> ends with the
+     *         {@link #SEPARATOR} followed by a number
+     */
+    static boolean isContinuationSheetName(String name) {
+        int digits = name.length();
+        while (digits > 0 && name.charAt(digits - 1) >= '0' && name.charAt(digits - 1) <= '9') {
+            --digits;
+        }
+        return digits < name.length() && name.startsWith(SEPARATOR, digits - 1);
+    }
+
+    /**
+     * @param maxRowsPerSheet maximum number of keys per sheet
+     * @return the <b>maxRowsPerSheet</b>
+     *
+     * @throws IllegalArgumentException if <b>maxRowsPerSheet</b> is not positive
+     *             or it is greater than {@link XlsxConverter#MAX_ROWS_PER_SHEET}
+     */
+    static int checkMaxRowsPerSheet(int maxRowsPerSheet) {
+        if (maxRowsPerSheet < 1 || maxRowsPerSheet > XlsxConverter.MAX_ROWS_PER_SHEET) {
+            throw new IllegalArgumentException("Maximum number of rows per sheet must be between 1 "
+                    + "and " + XlsxConverter.MAX_ROWS_PER_SHEET + ", but was: "
+                    + maxRowsPerSheet);
+        }
+        return maxRowsPerSheet;
+    }
+
+    /**
+     * @return name of the sheet
+     */
+    String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * @return the group this sheet is a part of
+     */
+    BundleGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * @return the matrix of the whole group, shared by all its sheets
+     */
+    TranslationMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * @return the index of the first row of the {@link #getMatrix()} written to
+     *         this sheet
+     */
+    int getFromRow() {
+        return fromRow;
+    }
+
+    /**
+     * @return the index following the last row of the {@link #getMatrix()}
+     *         written to this sheet
+     */
+    int getToRow() {
+        return toRow;
+    }
+
+    /**
+     * @return the keys written to this sheet, in order
+     */
+    List<String> getKeys() {
+        return matrix.getKeys().subList(fromRow, toRow);
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.github.kejn.bundleconverter.converter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.github.kejn.bundleconverter.Language;
+import com.github.kejn.bundleconverter.LocaleKey;
+
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX handler reading a single sheet XML part of an '.xlsx' document created
+ * by {@link XlsxConverter}. The rows are processed one by one as they are
+ * parsed, so only the resulting {@link Properties} are kept in memory.
+ * <p>
+ * The first row of the sheet is treated as the table header, which maps the
+ * columns to the {@link Language}s. Each of the following rows contributes its
+ * key (the {@link XlsxConverter#KEY_COLUMN}) and values to the Properties of
+ * the corresponding languages. Just like in
+ * {@link XlsxConverter#sheetColumnToProperties(org.apache.poi.ss.usermodel.Sheet, int)},
+ * a cell which exists but has no value is read as an empty string, and a cell
+ * which is missing is skipped.
+ * <p>
+ * Only the columns of the requested languages are read. The text of the cells
+ * in the other columns is not collected nor resolved.
+ * <p>
+ * The characters escaped as <code>_xHHHH_</code> in the inline strings, like
+ * the ones written by {@link DirectXlsxWriter}, are decoded just like by Apache
+ * POI.
+ *
+ * @author kejn
+ */
+class SheetXmlHandler extends DefaultHandler {
+
+    private static final String ROW = "row";
+    private static final String CELL = "c";
+    private static final String VALUE = "v";
+    private static final String INLINE_TEXT = "t";
+    private static final String PHONETIC_RUN = "rPh";
+
+    private static final String REFERENCE_ATTRIBUTE = "r";
+    private static final String TYPE_ATTRIBUTE = "t";
+    private static final String SHARED_STRING_TYPE = "s";
+    private static final String INLINE_STRING_TYPE = "inlineStr";
+    private static final int ESCAPED_CHARACTER_LENGTH = "_xHHHH_".length();
+
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final Set<Language> languages;
+
+    private final Map<Integer, LocaleKey> columnLocales = new LinkedHashMap<>();
+    private final Map<Integer, Properties> columnProperties = new LinkedHashMap<>();
+
+    private final StringBuilder text = new StringBuilder();
+
+    private boolean headerRead;
+    private boolean headerRow;
+    private String rowKey;
+
+    private int column;
+    private String cellType;
+    private boolean skippingCell;
+    private boolean readingText;
+    private boolean readingPhonetic;
+
+    /**
+     * Creates a handler resolving the shared strings using given
+     * <b>sharedStrings</b> table and reading the columns of given
+     * <b>languages</b>.
+     *
+     * @param sharedStrings the shared strings of the document being read
+     * @param languages the languages of the columns to be read; the
+     *            {@link Language#DEFAULT} column is always read
+     */
+    SheetXmlHandler(ReadOnlySharedStringsTable sharedStrings, Set<Language> languages) {
+        this.sharedStrings = sharedStrings;
+        this.languages = languages;
+    }
+
+    /**
+     * Returns the properties read from the sheet for each translation of the
+     * header row, in the order of the columns.
+     *
+     * @return the map of the keys of the translations and their properties
+     */
+    Map<LocaleKey, Properties> getProperties() {
+        Map<LocaleKey, Properties> properties = new LinkedHashMap<>();
+        for (Map.Entry<Integer, LocaleKey> entry : columnLocales.entrySet()) {
+            properties.putIfAbsent(entry.getValue(), columnProperties.get(entry.getKey()));
+        }
+        return properties;
+    }
+
+    /*
+     * DefaultHandler methods.
+     */
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+        case ROW:
+            headerRow = !headerRead;
+            rowKey = null;
+            column = -1;
+            break;
+        case CELL:
+            column = columnOf(attributes.getValue(REFERENCE_ATTRIBUTE), column + 1);
+            cellType = attributes.getValue(TYPE_ATTRIBUTE);
+            skippingCell = !headerRow && column != XlsxConverter.KEY_COLUMN
+                    && !columnProperties.containsKey(column);
+            text.setLength(0);
+            break;
+        case VALUE:
+        case INLINE_TEXT:
+            readingText = !skippingCell && !readingPhonetic;
+            break;
+        case PHONETIC_RUN:
+            readingPhonetic = true;
+            break;
+        default:
+            break;
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+        case ROW:
+            headerRead = true;
+            break;
+        case CELL:
+            if (!skippingCell) {
+                readCell(cellValue());
+            }
+            break;
+        case VALUE:
+        case INLINE_TEXT:
+            readingText = false;
+            break;
+        case PHONETIC_RUN:
+            readingPhonetic = false;
+            break;
+        default:
+            break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (readingText) {
+            text.append(ch, start, length);
+        }
+    }
+
+    /*
+     * Private methods.
+     */
+
+    private String cellValue() {
+        if (SHARED_STRING_TYPE.equals(cellType) && text.length() > 0) {
+            return sharedStrings.getEntryAt(Integer.parseInt(text.toString()));
+        }
+        if (INLINE_STRING_TYPE.equals(cellType)) {
+            return decodeEscapedCharacters(text);
+        }
+        return text.toString();
+    }
+
+    private void readCell(String value) {
+        if (column == XlsxConverter.KEY_COLUMN) {
+            rowKey = value;
+        } else if (headerRow) {
+            LocaleKey localeKey = XlsxConverter.headerLocale(value);
+            if (XlsxConverter.isRequested(localeKey, languages)) {
+                columnLocales.put(column, localeKey);
+                columnProperties.put(column, new Properties());
+            }
+        } else if (rowKey != null) {
+            Properties properties = columnProperties.get(column);
+            if (properties != null) {
+                properties.setProperty(rowKey, value);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the <b>value</b> contains the <code>_xHHHH_</code> sequence
+     * of an escaped character at given <b>index</b>.
+     *
+     * @param value the text of a cell
+     * @param index the index of the underscore starting the sequence
+     * @return <code>true</code> if the sequence starts at the <b>index</b>
+     */
+    static boolean isEscapedCharacter(CharSequence value, int index) {
+        if (index + ESCAPED_CHARACTER_LENGTH > value.length() || value.charAt(index) != '_'
+                || value.charAt(index + 1) != 'x' || value.charAt(index
+                        + ESCAPED_CHARACTER_LENGTH - 1) != '_') {
+            return false;
+        }
+        for (int i = index + 2; i < index + ESCAPED_CHARACTER_LENGTH - 1; ++i) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'A' && c <= 'F' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decodeEscapedCharacters(CharSequence value) {
+        StringBuilder decoded = null;
+        int start = 0;
+        for (int i = 0; i < value.length(); ++i) {
+            if (isEscapedCharacter(value, i)) {
+                if (decoded == null) {
+                    decoded = new StringBuilder(value.length());
+                }
+                decoded.append(value, start, i).append((char) Integer.parseInt(value.subSequence(
+                        i + 2, i + ESCAPED_CHARACTER_LENGTH - 1).toString(), 16));
+                i += ESCAPED_CHARACTER_LENGTH - 1;
+                start = i + 1;
+            }
+        }
+        if (decoded == null) {
+            return value.toString();
+        }
+        return decoded.append(value, start, value.length()).toString();
+    }
+
+    private static int columnOf(String cellReference, int defaultColumn) {
+        if (cellReference == null) {
+            return defaultColumn;
+        }
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); ++i) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+}
@@ -1,52 +1,88 @@
 package com.github.kejn.bundleconverter.converter;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import javax.xml.parsers.ParserConfigurationException;
 
 import com.github.kejn.bundleconverter.Bundle;
 import com.github.kejn.bundleconverter.BundleGroup;
 import com.github.kejn.bundleconverter.Bundles;
 import com.github.kejn.bundleconverter.Language;
-
+import com.github.kejn.bundleconverter.LocaleKey;
+import com.github.kejn.bundleconverter.TranslationMatrix;
+import com.google.common.base.Throwables;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 /**
  * Supports the following conversions:
  * <ul>
  * <li>{@link BundleGroup} (single/vararg/array object or {@link List}) --&gt;
  * {@link Workbook}
+ * <li>{@link List} of {@link BundleGroup} --&gt; streaming {@link SXSSFWorkbook}
  * <li>{@link BundleGroup} --&gt; {@link Sheet}
  * <li>{@link Workbook} --&gt; {@link List} of {@link BundleGroup}
+ * <li>'.xlsx' {@link InputStream} or {@link Path} --&gt; {@link List} of
+ * {@link BundleGroup}
  * <li>{@link Sheet} --&gt; {@link BundleGroup}
  * </ul>
  * and some more handy methods that can be used when converting between
  * '.properties' and '.xlsx' file formats.
+ * <p>
+ * A group having more keys than the maximum number of rows per sheet is split
+ * into consecutive sheets, e.g. <code>messages</code>, <code>messages~2</code>,
+ * and such sheets are joined back into a single group when the document is
+ * converted to the {@link BundleGroup}s.
  * 
  * @author kejn
  * 
  * @see BundleGroup
  * @see Workbook
+ * @see XlsxWriter
  */
-public class XlsxConverter {
+public class XlsxConverter implements XlsxWriter {
 
-    private static final int COLUMN_WIDTH = 11000;
-    private static final short FONT_SIZE = 10;
-    private static final String FONT_NAME = "Arial";
+    static final int COLUMN_WIDTH = 11000;
 
     /**
      * Row index in a {@link Sheet} for table header.
@@ -74,6 +110,48 @@ public class XlsxConverter {
      */
     public static final String KEY_LABEL = "Key";
 
+    /**
+     * Default number of rows kept in memory (per {@link Sheet}) by the streaming
+     * workbooks created with {@link #toStreamingXlsx(List)}.
+     */
+    public static final int DEFAULT_ROW_ACCESS_WINDOW = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+    /**
+     * Maximum number of keys written to a single sheet, which is the number of
+     * rows supported by the '.xlsx' format minus the header row.
+     */
+    public static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows()
+            - CONTENT_FIRST_ROW;
+
+    private static final Predicate<String> ALL_SHEETS = sheetName -> true;
+    private static final String READ_FAILURE_MESSAGE = "Could not read the '.xlsx' document";
+
+    private final Map<Workbook, CellStyles> cellStyles = Collections.synchronizedMap(
+            new WeakHashMap<>());
+
+    private final int maxRowsPerSheet;
+
+    /**
+     * Creates a converter splitting the groups into sheets of
+     * {@link #MAX_ROWS_PER_SHEET} keys.
+     */
+    public XlsxConverter() {
+        this(MAX_ROWS_PER_SHEET);
+    }
+
+    /**
+     * Creates a converter splitting the groups into sheets of at most
+     * <b>maxRowsPerSheet</b> keys.
+     * 
+     * @param maxRowsPerSheet maximum number of keys written to a single sheet
+     * 
+     * @throws IllegalArgumentException if <b>maxRowsPerSheet</b> is not positive
+     *             or it is greater than {@link #MAX_ROWS_PER_SHEET}
+     */
+    public XlsxConverter(int maxRowsPerSheet) {
+        this.maxRowsPerSheet = SheetShard.checkMaxRowsPerSheet(maxRowsPerSheet);
+    }
+
     /*
      * API.
      */
@@ -119,13 +197,111 @@ public class XlsxConverter {
         Objects.requireNonNull(bundleGroups);
 
         Workbook workbook = new XSSFWorkbook();
-        for (BundleGroup group : bundleGroups) {
-            Objects.requireNonNull(group, "The BundleGroup list contain null value");
-            createSheet(workbook, group);
-        }
+        createSheets(workbook, bundleGroups);
         return workbook;
     }
 
+    /**
+     * Converts list of <b>bundleGroups</b> to a streaming {@link SXSSFWorkbook}
+     * keeping at most {@link #DEFAULT_ROW_ACCESS_WINDOW} rows of each sheet in
+     * memory and compressing the temporary files.
+     * 
+     * @param bundleGroups list of {@link BundleGroup}s
+     * @return the {@link SXSSFWorkbook} containing a {@link Sheet} for each of
+     *         <b>bundleGroups</b>
+     * 
+     * @see #toStreamingXlsx(List, int, boolean)
+     */
+    public SXSSFWorkbook toStreamingXlsx(List<BundleGroup> bundleGroups) {
+        return toStreamingXlsx(bundleGroups, DEFAULT_ROW_ACCESS_WINDOW, true);
+    }
+
+    /**
+     * Converts list of <b>bundleGroups</b> to a streaming {@link SXSSFWorkbook}.
+     * The result document has the same contents as the one created by
+     * {@link #toXlsx(List)}, but only the last <b>rowAccessWindowSize</b> rows of
+     * each sheet are kept in memory. The older rows are flushed to temporary files,
+     * so the heap usage does not depend on the number of properties.
+     * <p>
+     * The flushed rows cannot be accessed anymore. Once the workbook is written,
+     * the caller should invoke {@link SXSSFWorkbook#dispose()} to delete the
+     * temporary files.
+     * 
+     * @param bundleGroups list of {@link BundleGroup}s
+     * @param rowAccessWindowSize number of rows of each sheet kept in memory
+     * @param compressTempFiles whether the temporary files should be compressed
+     * @return the {@link SXSSFWorkbook} containing a {@link Sheet} for each of
+     *         <b>bundleGroups</b>
+     * 
+     * @throws IllegalArgumentException if <b>rowAccessWindowSize</b> is not
+     *             positive
+     */
+    public SXSSFWorkbook toStreamingXlsx(List<BundleGroup> bundleGroups, int rowAccessWindowSize,
+            boolean compressTempFiles) {
+        Objects.requireNonNull(bundleGroups);
+        SXSSFWorkbook workbook = newStreamingWorkbook(rowAccessWindowSize, compressTempFiles);
+        createSheets(workbook, bundleGroups);
+        return workbook;
+    }
+
+    /**
+     * Converts list of <b>bundleGroups</b> to a streaming {@link SXSSFWorkbook}
+     * just like {@link #toStreamingXlsx(List, int, boolean)}, but the rows of the
+     * sheets are created in parallel. The sheets, their headers and formatting
+     * are created on the calling thread. Then the rows of each sheet are written
+     * by a separate task run on given <b>executor</b>, because every sheet depends
+     * only on its own {@link BundleGroup}. When all of the tasks are done, the
+     * sheets are ready to be written as a single document.
+     * <p>
+     * The <b>executor</b> can be for example the {@link ForkJoinPool#commonPool()}
+     * or, on Java 21 and newer, an executor starting a virtual thread per task.
+     * The {@link BundleGroup}s must not share the same {@link Bundle} objects.
+     * 
+     * @param bundleGroups list of {@link BundleGroup}s
+     * @param rowAccessWindowSize number of rows of each sheet kept in memory
+     * @param compressTempFiles whether the temporary files should be compressed
+     * @param executor the executor used to create the rows of the sheets
+     * @return the {@link SXSSFWorkbook} containing a {@link Sheet} for each of
+     *         <b>bundleGroups</b>
+     * 
+     * @throws IllegalArgumentException if <b>rowAccessWindowSize</b> is not
+     *             positive
+     * @throws CompletionException if creating the rows of any sheet failed with a
+     *             checked exception; unchecked exceptions are rethrown as they are
+     */
+    public SXSSFWorkbook toStreamingXlsx(List<BundleGroup> bundleGroups, int rowAccessWindowSize,
+            boolean compressTempFiles, Executor executor) {
+        Objects.requireNonNull(bundleGroups);
+        Objects.requireNonNull(executor);
+        SXSSFWorkbook workbook = newStreamingWorkbook(rowAccessWindowSize, compressTempFiles);
+        createSheets(workbook, bundleGroups, executor);
+        return workbook;
+    }
+
+    /**
+     * Writes the <b>bundleGroups</b> as an '.xlsx' document to given
+     * <b>outputStream</b>. The document is created using
+     * {@link #toStreamingXlsx(List)}, so the temporary files are deleted as soon
+     * as the document is written.
+     * 
+     * @param bundleGroups list of {@link BundleGroup}s
+     * @param outputStream the target stream; it is not closed by this method
+     * 
+     * @throws IOException if writing to the <b>outputStream</b> fails
+     */
+    @Override
+    public void write(List<BundleGroup> bundleGroups, OutputStream outputStream)
+            throws IOException {
+        Objects.requireNonNull(outputStream);
+
+        SXSSFWorkbook workbook = toStreamingXlsx(bundleGroups);
+        try {
+            workbook.write(outputStream);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
     /**
      * Creates a {@link Sheet} in given <b>workbook</b> using given <b>group</b>.
      * The result sheet contains the following columns:
@@ -136,27 +312,54 @@ public class XlsxConverter {
      * </ul>
      * There is also applied an auto-filter and the header row is frozen, not to
      * loose context while browsing the result document.
+     * <p>
+     * If the group has more keys than the maximum number of rows per sheet, the
+     * keys are split into consecutive sheets with the same layout, named
+     * <code>name~2</code>, <code>name~3</code> and so on. So the name of the
+     * group cannot end with <code>~</code> followed by a number.
+     * <p>
+     * The cell styles are created only once per <b>workbook</b> and they are
+     * shared by all sheets created with this converter.
      * 
      * @param workbook the target workbook, where the sheet will be created
      * @param group the {@link BundleGroup} used to create the sheet
+     * 
+     * @throws IllegalArgumentException if the name of the <b>group</b> ends with
+     *             <code>~</code> followed by a number
      */
     public void createSheet(Workbook workbook, BundleGroup group) {
         Objects.requireNonNull(workbook);
         Objects.requireNonNull(group);
 
-        Sheet sheet = workbook.createSheet(group.getName());
+        CellStyle cellStyle = getCellStyles(workbook).getContentStyle(workbook);
+        for (SheetShard shard : SheetShard.split(group, maxRowsPerSheet)) {
+            Sheet sheet = createShardSheet(workbook, shard);
+            createTranslations(sheet, shard, cellStyle);
+        }
+    }
 
-        createHeader(sheet, group);
-        createTranslations(sheet, group);
+    /**
+     * Creates the header row and the rows containing the keys and values in
+     * given <b>sheet</b> using the languages that are supported by given
+     * <b>group</b>. The translations of the group are read only once, so the
+     * header and the values always come from the same state of the group.
+     * 
+     * @param sheet the target sheet to create the header and the translations
+     * @param group the group used to get the supported languages
+     */
+    public void createSheetContent(Sheet sheet, BundleGroup group) {
+        Objects.requireNonNull(sheet);
+        Objects.requireNonNull(group);
 
-        setAutoFilter(sheet, group);
-        sheet.createFreezePane(KEY_COLUMN, CONTENT_FIRST_ROW);
-        setWidthForAllColumns(sheet, group);
+        createSheetContent(sheet, group.toMatrix());
     }
 
     /**
      * Creates a header row in given <b>sheet</b> using the languages that are
-     * supported by given <b>group</b>.
+     * supported by given <b>group</b>, in the same order as the columns created
+     * by {@link #createTranslations(Sheet, BundleGroup)}. The translations of
+     * the group are read by each of these methods, so use
+     * {@link #createSheetContent(Sheet, BundleGroup)} to create both.
      * 
      * @param sheet the target sheet to create the header
      * @param group the group used to get the supported languages
@@ -165,12 +368,7 @@ public class XlsxConverter {
         Objects.requireNonNull(sheet);
         Objects.requireNonNull(group);
 
-        CellStyle cellStyle = getHeaderCellStyle(sheet.getWorkbook());
-
-        Row row = sheet.createRow(HEADER_ROW);
-        createRow(group, row, cellStyle, KEY_LABEL, language -> {
-            return language.getDisplayLanguage();
-        });
+        createHeader(sheet, group.toMatrix());
     }
 
     /**
@@ -179,21 +377,14 @@ public class XlsxConverter {
      * 
      * @param sheet the target sheet to create the translations
      * @param group the group used to get the supported languages
+     *
+     * @see #createSheetContent(Sheet, BundleGroup)
      */
     public void createTranslations(Sheet sheet, BundleGroup group) {
         Objects.requireNonNull(sheet);
         Objects.requireNonNull(group);
 
-        CellStyle cellStyle = getContentCellStyle(sheet.getWorkbook());
-
-        int rowIndex = CONTENT_FIRST_ROW;
-        for (String key : group.stringPropertyNames()) {
-            Row row = sheet.createRow(rowIndex);
-            createRow(group, row, cellStyle, key, language -> {
-                return group.getProperty(key, language);
-            });
-            ++rowIndex;
-        }
+        createTranslations(sheet, group.toMatrix());
     }
 
     /**
@@ -214,13 +405,188 @@ public class XlsxConverter {
         Objects.requireNonNull(workbook);
         Objects.requireNonNull(outputDirectory);
 
-        List<BundleGroup> groups = new ArrayList<>();
+        ShardStitcher stitcher = new ShardStitcher(outputDirectory, ALL_SHEETS);
+
+        Iterator<Sheet> iterator = workbook.sheetIterator();
+        while (iterator.hasNext()) {
+            Sheet sheet = iterator.next();
+            if (stitcher.accept(sheet.getSheetName())) {
+                stitcher.add(toBundleGroup(sheet, outputDirectory));
+            }
+        }
+        return stitcher.getGroups();
+    }
+
+    /**
+     * Converts the sheets of given <b>workbook</b> accepted by the
+     * <b>sheetFilter</b> to the list of {@link BundleGroup}s. Only the columns of
+     * given <b>languages</b> are decoded, so the effective groups contain only
+     * the {@link Bundle}s of these languages. The {@link Language#DEFAULT} column
+     * is always decoded, because the group cannot be created without it.
+     * 
+     * @param workbook the source workbook
+     * @param outputDirectory the path for the {@link Bundle}s in the effective
+     *            {@link BundleGroup}s.
+     * @param sheetFilter accepts the names of the sheets to be converted
+     * @param languages the languages of the bundles to be created
+     * @return the list of bundle groups created using the data from the accepted
+     *         sheets of the source workbook, in the order of the sheets
+     * 
+     * @throws IllegalStateException if the accepted sheet contains translation
+     *             column not supported by the API
+     */
+    public List<BundleGroup> toBundleGroupList(Workbook workbook, File outputDirectory,
+            Predicate<String> sheetFilter, Set<Language> languages) {
+        Objects.requireNonNull(workbook);
+        Objects.requireNonNull(outputDirectory);
+        Objects.requireNonNull(sheetFilter);
+        Objects.requireNonNull(languages);
+
+        ShardStitcher stitcher = new ShardStitcher(outputDirectory, sheetFilter);
 
         Iterator<Sheet> iterator = workbook.sheetIterator();
         while (iterator.hasNext()) {
-            groups.add(toBundleGroup(iterator.next(), outputDirectory));
+            Sheet sheet = iterator.next();
+            if (stitcher.accept(sheet.getSheetName())) {
+                stitcher.add(toBundleGroup(sheet, outputDirectory, languages));
+            }
+        }
+        return stitcher.getGroups();
+    }
+
+    /**
+     * Reads the '.xlsx' document from given <b>inputStream</b> and converts it to
+     * the list of {@link BundleGroup}s. The <b>outputDirectory</b> parameter is
+     * used as the path for the {@link Bundle}s in the effective
+     * {@link BundleGroup}s.
+     * <p>
+     * Unlike {@link #toBundleGroupList(Workbook, File)}, this method does not
+     * build the {@link Workbook} object model. Each sheet is parsed with a SAX
+     * parser and the properties are collected row by row, so the memory usage is
+     * proportional to the result bundles rather than to the document.
+     * 
+     * @param inputStream the source '.xlsx' document; it is not closed by this
+     *            method
+     * @param outputDirectory the path for the {@link Bundle}s in the effective
+     *            {@link BundleGroup}s.
+     * @return the list of bundle groups created using the data from the source
+     *         document
+     * 
+     * @throws IOException if the document cannot be read or it is not a valid
+     *             '.xlsx' document
+     * @throws IllegalStateException if the source sheet contains translation column
+     *             not supported by the API
+     */
+    public List<BundleGroup> toBundleGroupList(InputStream inputStream, File outputDirectory)
+            throws IOException {
+        return toBundleGroupList(inputStream, outputDirectory, ALL_SHEETS, EnumSet.allOf(
+                Language.class));
+    }
+
+    /**
+     * Reads the '.xlsx' document from given <b>inputStream</b> and converts the
+     * sheets accepted by the <b>sheetFilter</b> to the list of
+     * {@link BundleGroup}s. Only the columns of given <b>languages</b> are
+     * decoded, so the effective groups contain only the {@link Bundle}s of these
+     * languages. The {@link Language#DEFAULT} column is always decoded, because
+     * the group cannot be created without it.
+     * <p>
+     * The sheets which are not accepted are not parsed at all, and the cells of
+     * the columns which are not requested are skipped while parsing.
+     * 
+     * @param inputStream the source '.xlsx' document; it is not closed by this
+     *            method
+     * @param outputDirectory the path for the {@link Bundle}s in the effective
+     *            {@link BundleGroup}s.
+     * @param sheetFilter accepts the names of the sheets to be converted
+     * @param languages the languages of the bundles to be created
+     * @return the list of bundle groups created using the data from the accepted
+     *         sheets of the source document, in the order of the sheets
+     * 
+     * @throws IOException if the document cannot be read or it is not a valid
+     *             '.xlsx' document
+     * @throws IllegalStateException if the accepted sheet contains translation
+     *             column not supported by the API
+     */
+    public List<BundleGroup> toBundleGroupList(InputStream inputStream, File outputDirectory,
+            Predicate<String> sheetFilter, Set<Language> languages) throws IOException {
+        Objects.requireNonNull(inputStream);
+        Objects.requireNonNull(outputDirectory);
+        Objects.requireNonNull(sheetFilter);
+        Objects.requireNonNull(languages);
+
+        OPCPackage xlsxPackage;
+        try {
+            xlsxPackage = OPCPackage.open(inputStream);
+        } catch (OpenXML4JException e) {
+            throw new IOException(READ_FAILURE_MESSAGE, e);
+        }
+        return toBundleGroupList(xlsxPackage, outputDirectory, sheetFilter, languages);
+    }
+
+    /**
+     * Reads the '.xlsx' file at given <b>path</b> and converts it to the list of
+     * {@link BundleGroup}s. The <b>outputDirectory</b> parameter is used as the
+     * path for the {@link Bundle}s in the effective {@link BundleGroup}s.
+     * 
+     * @param path the path of the source '.xlsx' file
+     * @param outputDirectory the path for the {@link Bundle}s in the effective
+     *            {@link BundleGroup}s.
+     * @return the list of bundle groups created using the data from the source
+     *         file
+     * 
+     * @throws IOException if the file does not exist, cannot be read or it is not
+     *             a valid '.xlsx' document
+     * @throws IllegalStateException if the source sheet contains translation column
+     *             not supported by the API
+     * 
+     * @see #toBundleGroupList(Path, File, Predicate, Set)
+     */
+    public List<BundleGroup> toBundleGroupList(Path path, File outputDirectory)
+            throws IOException {
+        return toBundleGroupList(path, outputDirectory, ALL_SHEETS, EnumSet.allOf(
+                Language.class));
+    }
+
+    /**
+     * Reads the '.xlsx' file at given <b>path</b> and converts the sheets
+     * accepted by the <b>sheetFilter</b> to the list of {@link BundleGroup}s,
+     * just like {@link #toBundleGroupList(InputStream, File, Predicate, Set)}.
+     * <p>
+     * The file is opened for random access in read-only mode, so unlike the
+     * {@link InputStream} variant, the document is not buffered in memory and
+     * only the parts which are actually read are decompressed.
+     * 
+     * @param path the path of the source '.xlsx' file
+     * @param outputDirectory the path for the {@link Bundle}s in the effective
+     *            {@link BundleGroup}s.
+     * @param sheetFilter accepts the names of the sheets to be converted
+     * @param languages the languages of the bundles to be created
+     * @return the list of bundle groups created using the data from the accepted
+     *         sheets of the source file, in the order of the sheets
+     * 
+     * @throws IOException if the file does not exist, cannot be read or it is not
+     *             a valid '.xlsx' document
+     * @throws IllegalStateException if the accepted sheet contains translation
+     *             column not supported by the API
+     */
+    public List<BundleGroup> toBundleGroupList(Path path, File outputDirectory,
+            Predicate<String> sheetFilter, Set<Language> languages) throws IOException {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(outputDirectory);
+        Objects.requireNonNull(sheetFilter);
+        Objects.requireNonNull(languages);
+
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+        OPCPackage xlsxPackage;
+        try {
+            xlsxPackage = OPCPackage.open(path.toFile(), PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException(READ_FAILURE_MESSAGE, e);
         }
-        return groups;
+        return toBundleGroupList(xlsxPackage, outputDirectory, sheetFilter, languages);
     }
 
     /**
@@ -240,29 +606,119 @@ public class XlsxConverter {
         Objects.requireNonNull(sheet);
         Objects.requireNonNull(outputDirectory);
 
-        Row firstRow = sheet.rowIterator().next();
-        Iterator<Cell> cellIterator = firstRow.cellIterator();
-        // skip the column with keys
-        cellIterator.next();
+        return toBundleGroup(sheet.getSheetName(), sheetToLocaleProperties(sheet),
+                outputDirectory);
+    }
 
-        List<Bundle> bundleList = new ArrayList<>();
+    /**
+     * Converts the <b>sheet</b> into a {@link BundleGroup} containing only the
+     * {@link Bundle}s of given <b>languages</b> and the default one. The
+     * <b>outputDirectory</b> parameter is used as the path for the {@link Bundle}s
+     * in the effective {@link BundleGroup}.
+     * 
+     * @param sheet the source sheet
+     * @param outputDirectory the path for the {@link Bundle}s in the effective
+     *            {@link BundleGroup}.
+     * @param languages the languages of the bundles to be created
+     * @return the bundle group created using the data from the source sheet
+     * 
+     * @throws IllegalStateException if the source sheet contains translation column
+     *             not supported by the API
+     * 
+     * @see #sheetToLocaleProperties(Sheet, Set)
+     */
+    public BundleGroup toBundleGroup(Sheet sheet, File outputDirectory, Set<Language> languages) {
+        Objects.requireNonNull(sheet);
+        Objects.requireNonNull(outputDirectory);
 
-        for (int index = DEFAULT_COLUMN; cellIterator.hasNext(); ++index) {
-            String stringCellValue = cellIterator.next().getStringCellValue();
-            Language language = Language.forDisplayLanguage(stringCellValue);
-            if (language == null) {
-                throw new IllegalStateException("Sheet contains unknown language: ["
-                        + stringCellValue + "]. Languages supported by API: " + Language
-                                .supportedDisplayLanguages());
-            }
+        return toBundleGroup(sheet.getSheetName(), sheetToLocaleProperties(sheet, languages),
+                outputDirectory);
+    }
 
-            Properties properties = sheetColumnToProperties(sheet, index);
-            String bundlePath = Bundles.createFileName(outputDirectory, sheet.getSheetName(),
-                    language);
-            Bundle bundle = Bundles.newNotExistingBundle(bundlePath, properties);
-            bundleList.add(bundle);
-        }
-        return Bundles.newBundleGroup(bundleList);
+    /**
+     * Converts all translation columns in a <b>sheet</b> to {@link Properties}.
+     * The languages of the columns are determined using the header row. Unlike
+     * {@link #sheetColumnToProperties(Sheet, int)}, each row of the sheet is
+     * visited only once, no matter how many translation columns there are.
+     * <p>
+     * The columns of the language variants, e.g. <code>English (US)</code>, are
+     * not converted, see {@link #sheetToLocaleProperties(Sheet)}.
+     * 
+     * @param sheet the source sheet
+     * @return the map of languages (in the order of the columns) and the
+     *         Properties containing all properties specified in the
+     *         corresponding sheet column
+     * 
+     * @throws IllegalStateException if the source sheet contains translation column
+     *             not supported by the API
+     */
+    public Map<Language, Properties> sheetToProperties(Sheet sheet) {
+        return sheetToProperties(sheet, EnumSet.allOf(Language.class));
+    }
+
+    /**
+     * Converts the translation columns of given <b>languages</b> in a
+     * <b>sheet</b> to {@link Properties}. The {@link Language#DEFAULT} column is
+     * always converted. The cells of the other columns are not read at all.
+     * <p>
+     * The columns of the language variants, e.g. <code>English (US)</code>, are
+     * not converted, see {@link #sheetToLocaleProperties(Sheet, Set)}.
+     * 
+     * @param sheet the source sheet
+     * @param languages the languages of the columns to be converted
+     * @return the map of languages (in the order of the columns) and the
+     *         Properties containing all properties specified in the
+     *         corresponding sheet column
+     * 
+     * @throws IllegalStateException if the source sheet contains translation column
+     *             not supported by the API
+     */
+    public Map<Language, Properties> sheetToProperties(Sheet sheet, Set<Language> languages) {
+        Map<Language, Properties> propertiesToGenerate = new LinkedHashMap<>();
+        readColumns(sheet, languages, false).forEach((localeKey, properties) -> {
+            propertiesToGenerate.put(localeKey.getLanguage(), properties);
+        });
+        return propertiesToGenerate;
+    }
+
+    /**
+     * Converts all translation columns in a <b>sheet</b> to {@link Properties},
+     * just like {@link #sheetToProperties(Sheet)}, including the columns of the
+     * language variants, e.g. <code>English (US)</code> or
+     * <code>Chinese (Hant_TW)</code>.
+     * 
+     * @param sheet the source sheet
+     * @return the map of the keys of the translations (in the order of the
+     *         columns) and the Properties containing all properties specified in
+     *         the corresponding sheet column
+     * 
+     * @throws IllegalStateException if the source sheet contains translation column
+     *             not supported by the API
+     * 
+     * @see LocaleKey#forDisplayName(String)
+     */
+    public Map<LocaleKey, Properties> sheetToLocaleProperties(Sheet sheet) {
+        return sheetToLocaleProperties(sheet, EnumSet.allOf(Language.class));
+    }
+
+    /**
+     * Converts the translation columns of given <b>languages</b> in a
+     * <b>sheet</b> to {@link Properties}, just like
+     * {@link #sheetToProperties(Sheet, Set)}, including the columns of the
+     * variants of these languages.
+     * 
+     * @param sheet the source sheet
+     * @param languages the languages of the columns to be converted
+     * @return the map of the keys of the translations (in the order of the
+     *         columns) and the Properties containing all properties specified in
+     *         the corresponding sheet column
+     * 
+     * @throws IllegalStateException if the source sheet contains translation column
+     *             not supported by the API
+     */
+    public Map<LocaleKey, Properties> sheetToLocaleProperties(Sheet sheet,
+            Set<Language> languages) {
+        return readColumns(sheet, languages, true);
     }
 
     /**
@@ -295,61 +751,237 @@ public class XlsxConverter {
         return propertiesToGenerate;
     }
 
+    /*
+     * Package-private methods.
+     */
+
+    static LocaleKey headerLocale(String displayName) {
+        LocaleKey localeKey = LocaleKey.forDisplayName(displayName);
+        if (localeKey == null) {
+            throw new IllegalStateException("Sheet contains unknown language: [" + displayName
+                    + "]. Languages supported by API: " + Language.supportedDisplayLanguages());
+        }
+        return localeKey;
+    }
+
+    /**
+     * @param localeKey the key of the translation column
+     * @param languages the requested languages
+     * @return <code>true</code> if the column of given <b>localeKey</b> should be
+     *         decoded, <code>false</code> otherwise
+     */
+    static boolean isRequested(LocaleKey localeKey, Set<Language> languages) {
+        return LocaleKey.DEFAULT.equals(localeKey) || languages.contains(localeKey
+                .getLanguage());
+    }
+
     /*
      * Private methods.
      */
 
-    private void createRow(BundleGroup group, Row row, CellStyle cellStyle, String key,
-            Function<Language, String> valueConverter) {
-        createCellWithStyle(row, KEY_COLUMN, cellStyle, key);
-        createCellWithStyle(row, DEFAULT_COLUMN, cellStyle, valueConverter.apply(Language.DEFAULT));
+    private List<BundleGroup> toBundleGroupList(OPCPackage xlsxPackage, File outputDirectory,
+            Predicate<String> sheetFilter, Set<Language> languages) throws IOException {
+        try {
+            return readPackage(xlsxPackage, outputDirectory, sheetFilter, languages);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException(READ_FAILURE_MESSAGE, e);
+        } finally {
+            xlsxPackage.revert();
+        }
+    }
+
+    private List<BundleGroup> readPackage(OPCPackage xlsxPackage, File outputDirectory,
+            Predicate<String> sheetFilter, Set<Language> languages)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        XSSFReader reader = new XSSFReader(xlsxPackage);
+        ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(xlsxPackage);
+        XMLReader parser = SAXHelper.newXMLReader();
 
-        int colIndex = DEFAULT_COLUMN + 1;
-        for (Language language : group.supportedLanguagesWithoutDefault()) {
-            createCellWithStyle(row, colIndex, cellStyle, valueConverter.apply(language));
-            ++colIndex;
+        ShardStitcher stitcher = new ShardStitcher(outputDirectory, sheetFilter);
+
+        XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (iterator.hasNext()) {
+            try (InputStream sheetData = iterator.next()) {
+                if (!stitcher.accept(iterator.getSheetName())) {
+                    continue;
+                }
+                SheetXmlHandler handler = new SheetXmlHandler(sharedStrings, languages);
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(sheetData));
+                stitcher.add(toBundleGroup(iterator.getSheetName(), handler.getProperties(),
+                        outputDirectory));
+            }
         }
+        return stitcher.getGroups();
     }
 
-    private void createCellWithStyle(Row row, int cellIndex, CellStyle cellStyle, String value) {
-        Cell cell = row.createCell(cellIndex);
-        cell.setCellStyle(cellStyle);
-        cell.setCellValue(value);
+    private Map<LocaleKey, Properties> readColumns(Sheet sheet, Set<Language> languages,
+            boolean variants) {
+        Objects.requireNonNull(sheet);
+        Objects.requireNonNull(languages);
+
+        Iterator<Row> rowIterator = sheet.rowIterator();
+        Row header = rowIterator.next();
+
+        Map<LocaleKey, Properties> propertiesToGenerate = new LinkedHashMap<>();
+        Properties[] columns = new Properties[Math.max(header.getLastCellNum(), 0)];
+
+        Iterator<Cell> cellIterator = header.cellIterator();
+        while (cellIterator.hasNext()) {
+            Cell cell = cellIterator.next();
+            int columnIndex = cell.getColumnIndex();
+            if (columnIndex == KEY_COLUMN) {
+                continue;
+            }
+            LocaleKey localeKey = headerLocale(cell.getStringCellValue());
+            if ((variants || localeKey.isLanguageOnly()) && isRequested(localeKey, languages)) {
+                Properties properties = new Properties();
+                columns[columnIndex] = properties;
+                propertiesToGenerate.putIfAbsent(localeKey, properties);
+            }
+        }
+
+        while (rowIterator.hasNext()) {
+            Row row = rowIterator.next();
+            Cell keyCell = row.getCell(KEY_COLUMN);
+            if (keyCell == null) {
+                continue;
+            }
+            String key = keyCell.getStringCellValue();
+            for (int columnIndex = 0; columnIndex < columns.length; ++columnIndex) {
+                Cell valueCell = columns[columnIndex] == null ? null : row.getCell(columnIndex);
+                if (valueCell != null) {
+                    columns[columnIndex].setProperty(key, valueCell.getStringCellValue());
+                }
+            }
+        }
+        return propertiesToGenerate;
+    }
+
+    private BundleGroup toBundleGroup(String sheetName, Map<LocaleKey, Properties> properties,
+            File outputDirectory) {
+        List<Bundle> bundleList = new ArrayList<>();
+        for (Map.Entry<LocaleKey, Properties> entry : properties.entrySet()) {
+            String bundlePath = Bundles.createFileName(outputDirectory, sheetName, entry.getKey());
+            bundleList.add(Bundles.newNotExistingBundle(bundlePath, entry.getValue()));
+        }
+        return Bundles.newBundleGroup(bundleList);
     }
 
-    private CellStyle getHeaderCellStyle(Workbook workbook) {
-        Font font = createFont(workbook);
-        font.setBold(true);
+    private SXSSFWorkbook newStreamingWorkbook(int rowAccessWindowSize,
+            boolean compressTempFiles) {
+        if (rowAccessWindowSize < 1) {
+            throw new IllegalArgumentException("Row access window size must be positive: "
+                    + rowAccessWindowSize);
+        }
+        return new SXSSFWorkbook(null, rowAccessWindowSize, compressTempFiles);
+    }
 
-        CellStyle cellStyle = getContentCellStyle(workbook);
-        cellStyle.setFont(font);
-        return cellStyle;
+    private void createSheets(Workbook workbook, List<BundleGroup> bundleGroups) {
+        for (BundleGroup group : bundleGroups) {
+            Objects.requireNonNull(group, "The BundleGroup list contain null value");
+            createSheet(workbook, group);
+        }
     }
 
-    private CellStyle getContentCellStyle(Workbook workbook) {
-        CellStyle cellStyle = workbook.createCellStyle();
-        cellStyle.setFont(createFont(workbook));
-        cellStyle.setWrapText(true);
-        cellStyle.setAlignment(HorizontalAlignment.LEFT);
-        cellStyle.setVerticalAlignment(VerticalAlignment.TOP);
-        return cellStyle;
+    private void createSheets(SXSSFWorkbook workbook, List<BundleGroup> bundleGroups,
+            Executor executor) {
+        CellStyle cellStyle = getCellStyles(workbook).getContentStyle(workbook);
+
+        List<CompletableFuture<Void>> translations = new ArrayList<>();
+        for (BundleGroup group : bundleGroups) {
+            Objects.requireNonNull(group, "The BundleGroup list contain null value");
+
+            for (SheetShard shard : SheetShard.split(group, maxRowsPerSheet)) {
+                Sheet sheet = createShardSheet(workbook, shard);
+                translations.add(CompletableFuture.runAsync(() -> {
+                    createTranslations(sheet, shard, cellStyle);
+                }, executor));
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(translations.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            workbook.dispose();
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    private Sheet createShardSheet(Workbook workbook, SheetShard shard) {
+        Sheet sheet = workbook.createSheet(shard.getSheetName());
+        createHeader(sheet, shard.getMatrix());
+        formatSheet(sheet, shard.getMatrix().localeCount(), shard.getKeys().size());
+        return sheet;
+    }
+
+    private void createHeader(Sheet sheet, TranslationMatrix matrix) {
+        Workbook workbook = sheet.getWorkbook();
+        CellStyle cellStyle = getCellStyles(workbook).getHeaderStyle(workbook);
+
+        Row row = sheet.createRow(HEADER_ROW);
+        createCellWithStyle(row, KEY_COLUMN, cellStyle, KEY_LABEL);
+        List<LocaleKey> locales = matrix.getLocales();
+        for (int column = 0; column < locales.size(); ++column) {
+            createCellWithStyle(row, DEFAULT_COLUMN + column, cellStyle, locales.get(column)
+                    .getDisplayName());
+        }
+    }
+
+    private void createSheetContent(Sheet sheet, TranslationMatrix matrix) {
+        createHeader(sheet, matrix);
+        createTranslations(sheet, matrix);
+    }
+
+    private void createTranslations(Sheet sheet, TranslationMatrix matrix) {
+        Workbook workbook = sheet.getWorkbook();
+        createTranslations(sheet, matrix, 0, matrix.keyCount(), getCellStyles(workbook)
+                .getContentStyle(workbook));
+    }
+
+    private void createTranslations(Sheet sheet, SheetShard shard, CellStyle cellStyle) {
+        createTranslations(sheet, shard.getMatrix(), shard.getFromRow(), shard.getToRow(),
+                cellStyle);
+    }
+
+    private void createTranslations(Sheet sheet, TranslationMatrix matrix, int fromRow,
+            int toRow, CellStyle cellStyle) {
+        int rowIndex = CONTENT_FIRST_ROW;
+        for (int matrixRow = fromRow; matrixRow < toRow; ++matrixRow) {
+            Row row = sheet.createRow(rowIndex);
+            createCellWithStyle(row, KEY_COLUMN, cellStyle, matrix.getKey(matrixRow));
+            for (int column = 0; column < matrix.localeCount(); ++column) {
+                createCellWithStyle(row, DEFAULT_COLUMN + column, cellStyle, matrix.get(
+                        matrixRow, column));
+            }
+            ++rowIndex;
+        }
+    }
+
+    private void formatSheet(Sheet sheet, int localeCount, int rowCount) {
+        setAutoFilter(sheet, localeCount, rowCount);
+        sheet.createFreezePane(KEY_COLUMN, CONTENT_FIRST_ROW);
+        setWidthForAllColumns(sheet, localeCount);
+    }
+
+    private void createCellWithStyle(Row row, int cellIndex, CellStyle cellStyle, String value) {
+        Cell cell = row.createCell(cellIndex);
+        cell.setCellStyle(cellStyle);
+        cell.setCellValue(value);
     }
 
-    private Font createFont(Workbook workbook) {
-        Font font = workbook.createFont();
-        font.setFontName(FONT_NAME);
-        font.setFontHeightInPoints(FONT_SIZE);
-        return font;
+    private CellStyles getCellStyles(Workbook workbook) {
+        return cellStyles.computeIfAbsent(workbook, CellStyles::new);
     }
 
-    private void setAutoFilter(Sheet sheet, BundleGroup group) {
-        int maxRows = group.getDefaultBundle().getProperties().size();
-        int maxCols = group.supportedLanguages().size();
-        sheet.setAutoFilter(new CellRangeAddress(HEADER_ROW, maxRows, KEY_COLUMN, maxCols));
+    private void setAutoFilter(Sheet sheet, int localeCount, int rowCount) {
+        int maxCols = DEFAULT_COLUMN + localeCount - 1;
+        sheet.setAutoFilter(new CellRangeAddress(HEADER_ROW, rowCount, KEY_COLUMN, maxCols));
     }
 
-    private void setWidthForAllColumns(Sheet sheet, BundleGroup group) {
-        for (int colIndex = 0; colIndex <= group.size(); ++colIndex) {
+    private void setWidthForAllColumns(Sheet sheet, int localeCount) {
+        for (int colIndex = 0; colIndex < DEFAULT_COLUMN + localeCount; ++colIndex) {
             sheet.setColumnWidth(colIndex, COLUMN_WIDTH);
         }
     }
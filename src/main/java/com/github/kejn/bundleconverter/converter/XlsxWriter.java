@@ -0,0 +1,77 @@
+package com.github.kejn.bundleconverter.converter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import com.github.kejn.bundleconverter.BundleGroup;
+
+/**
+ * Writes {@link BundleGroup}s as an '.xlsx' document. Each group is written to
+ * a separate sheet with the same layout as the one created by
+ * {@link XlsxConverter#createSheet(org.apache.poi.ss.usermodel.Workbook, BundleGroup)}.
+ * <p>
+ * There are the following implementations available:
+ * <ul>
+ * <li>{@link XlsxConverter} - uses the Apache POI object model
+ * <li>{@link DirectXlsxWriter} - writes the document parts directly, without
+ * the Apache POI object model
+ * </ul>
+ * so the backend can be chosen separately for each written document.
+ *
+ * @author kejn
+ *
+ * @see XlsxConverter
+ * @see DirectXlsxWriter
+ */
+public interface XlsxWriter {
+
+    /**
+     * Size of the buffer used by {@link #write(List, Path)}.
+     */
+    int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes the <b>bundleGroups</b> as an '.xlsx' document to given
+     * <b>outputStream</b>. For each group there is created a separate sheet with
+     * name of the corresponding group.
+     *
+     * @param bundleGroups list of {@link BundleGroup}s
+     * @param outputStream the target stream; it is not closed by this method
+     *
+     * @throws IOException if writing to the <b>outputStream</b> fails
+     */
+    void write(List<BundleGroup> bundleGroups, OutputStream outputStream) throws IOException;
+
+    /**
+     * Writes the <b>bundleGroups</b> as an '.xlsx' document to the file at given
+     * <b>target</b> path. The file is created, or truncated if it already exists,
+     * and the document is written through a buffered stream backed by the file
+     * channel. If the document cannot be written, the incomplete file is deleted.
+     *
+     * @param bundleGroups list of {@link BundleGroup}s
+     * @param target the path of the result '.xlsx' file
+     *
+     * @throws IOException if the file cannot be created or written
+     */
+    default void write(List<BundleGroup> bundleGroups, Path target) throws IOException {
+        Objects.requireNonNull(target);
+
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(target),
+                OUTPUT_BUFFER_SIZE)) {
+            write(bundleGroups, outputStream);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException deleteFailure) {
+                e.addSuppressed(deleteFailure);
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link BundleCache} class.
+ *
+ * @author kejn
+ */
+public class BundleCacheTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        BundleCache.setMaximumWeight(BundleCache.defaultMaximumWeight());
+    }
+
+    @After
+    public void tearDown() {
+        BundleCache.setMaximumWeight(BundleCache.defaultMaximumWeight());
+    }
+
+    @Test
+    public void bundlesOfSameFileShouldShareTranslations() throws IOException {
+        // given
+        File file = writeBundle("bundle.properties", "key=value");
+        Bundle bundle = new Bundle(file);
+        Bundle otherBundle = new Bundle(file);
+
+        // when
+        TranslationTable translations = bundle.getTranslations();
+        TranslationTable otherTranslations = otherBundle.getTranslations();
+
+        // then
+        assertSame(translations, otherTranslations);
+        assertEquals(1, BundleCache.stats().loadCount());
+        assertEquals(1, BundleCache.size());
+    }
+
+    /**
+     * With no room in the cache, the translations are evicted right after they
+     * are loaded, so they should be loaded again on each access.
+     */
+    @Test
+    public void shouldLoadEvictedTranslationsAgain() throws IOException {
+        // given
+        BundleCache.setMaximumWeight(0);
+        Bundle bundle = new Bundle(writeBundle("bundle.properties", "key=value"));
+
+        // when
+        assertEquals("value", bundle.getProperty("key"));
+        assertEquals("value", bundle.getProperty("key"));
+
+        // then
+        assertEquals(0, BundleCache.size());
+        assertEquals(2, BundleCache.stats().loadCount());
+        assertEquals(2, BundleCache.stats().evictionCount());
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() throws IOException {
+        // given
+        Bundle bundle = new Bundle(writeBundle("bundle.properties", "key=value"));
+
+        // when
+        bundle.getProperty("key");
+        bundle.getProperty("key");
+        bundle.stringPropertyNames();
+
+        // then
+        assertEquals(1, BundleCache.stats().missCount());
+        assertEquals(2, BundleCache.stats().hitCount());
+    }
+
+    @Test
+    public void shouldLoadTranslationsAgainAfterInvalidation() throws IOException {
+        // given
+        Bundle bundle = new Bundle(writeBundle("bundle.properties", "key=value"));
+        TranslationTable translations = bundle.getTranslations();
+
+        // when
+        BundleCache.invalidateAll();
+
+        // then
+        assertEquals(0, BundleCache.size());
+        assertEquals(translations, bundle.getTranslations());
+        assertEquals(2, BundleCache.stats().loadCount());
+    }
+
+    @Test
+    public void shouldNotCacheTranslationsNotLoadedFromFile() throws IOException {
+        // given
+        File file = writeBundle("bundle.properties", "key=value");
+        TranslationTable translations = TranslationTable.builder().put("key", "other value")
+                .build();
+        Bundle bundle = new Bundle(file, translations);
+
+        // when
+        TranslationTable result = bundle.getTranslations();
+
+        // then
+        assertSame(translations, result);
+        assertEquals(0, BundleCache.size());
+    }
+
+    @Test
+    public void modifiedPropertiesShouldNotBeEvicted() throws IOException {
+        // given
+        BundleCache.setMaximumWeight(0);
+        Bundle bundle = new Bundle(writeBundle("bundle.properties", "key=value"));
+
+        // when
+        bundle.getProperties().setProperty("key", "new value");
+
+        // then
+        assertEquals(0, BundleCache.size());
+        assertEquals("new value", bundle.getProperty("key"));
+        assertTrue(BundleCache.stats().evictionCount() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeMaximumWeight() {
+        // when
+        BundleCache.setMaximumWeight(-1);
+    }
+
+    private File writeBundle(String fileName, String content) throws IOException {
+        File file = folder.newFile(fileName);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        return file;
+    }
+
+}
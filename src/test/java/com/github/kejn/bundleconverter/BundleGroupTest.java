@@ -7,23 +7,34 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isNull;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import com.github.kejn.bundleconverter.Bundle;
 import com.github.kejn.bundleconverter.BundleGroup;
 import com.github.kejn.bundleconverter.Bundles;
 import com.github.kejn.bundleconverter.Language;
+import com.github.kejn.bundleconverter.LocaleKey;
 import com.github.kejn.bundleconverter.shared.Path;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Tests for {@link BundleGroup} class.
@@ -38,6 +49,9 @@ public class BundleGroupTest {
 
     private BundleGroup group;
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void setUp() {
         group = new BundleGroup(BUNDLE_DEFAULT);
@@ -239,13 +253,14 @@ public class BundleGroupTest {
         BundleGroup group = new BundleGroup(defaultSpy, polishSpy);
 
         // when
-        doNothing().when(defaultSpy).saveToFile(isNull());
-        doNothing().when(polishSpy).saveToFile(isNull());
+        doReturn(true).when(defaultSpy).saveWithTemplate(isNull());
+        doReturn(true).when(polishSpy).saveWithTemplate(isNull());
 
-        group.saveGroupAsPropertiesFiles();
+        SaveReport report = group.saveGroupAsPropertiesFiles();
 
-        verify(defaultSpy).saveToFile(isNull());
-        verify(polishSpy).saveToFile(isNull());
+        assertEquals(new SaveReport(2, 0), report);
+        verify(defaultSpy).saveWithTemplate(isNull());
+        verify(polishSpy).saveWithTemplate(isNull());
     }
 
     @Test
@@ -254,15 +269,163 @@ public class BundleGroupTest {
         Bundle defaultSpy = spy(BUNDLE_DEFAULT);
         Bundle polishSpy = spy(BUNDLE_POLISH);
         BundleGroup group = new BundleGroup(defaultSpy, polishSpy);
-        File templateFile = new File("bundle_es.properties");
+        File templateFile = new File(Path.DEFAULT_BUNDLE_OTHER_LOCATION);
 
         // when
-        doNothing().when(defaultSpy).saveToFile(any(File.class));
-        doNothing().when(polishSpy).saveToFile(any(File.class));
+        doReturn(true).when(defaultSpy).saveWithTemplate(any(PropertiesTemplate.class));
+        doReturn(true).when(polishSpy).saveWithTemplate(any(PropertiesTemplate.class));
 
         group.saveGroupAsPropertiesFiles(templateFile);
 
-        verify(defaultSpy).saveToFile(any(File.class));
-        verify(polishSpy).saveToFile(any(File.class));
+        verify(defaultSpy).saveWithTemplate(any(PropertiesTemplate.class));
+        verify(polishSpy).saveWithTemplate(any(PropertiesTemplate.class));
+    }
+
+    @Test
+    public void shouldSaveAllGroupsInParallel() throws IOException {
+        // given
+        File directory = folder.getRoot();
+        List<BundleGroup> groups = newGroups(directory, 10);
+
+        // when
+        SaveReport firstReport = Bundles.saveGroups(groups, 4);
+        SaveReport secondReport = Bundles.saveGroups(groups, 4);
+
+        // then
+        assertEquals(new SaveReport(30, 0), firstReport);
+        assertEquals(new SaveReport(0, 30), secondReport);
+        List<BundleGroup> savedGroups = Bundles.groupsInDirectory(directory);
+        assertEquals(10, savedGroups.size());
+        for (BundleGroup savedGroup : savedGroups) {
+            assertEquals(3, savedGroup.size());
+            assertEquals("value_de", savedGroup.getProperty("key", Language.GERMAN));
+        }
+    }
+
+    @Test
+    public void shouldLoadAllGroupsInParallel() throws IOException {
+        // given
+        File directory = folder.getRoot();
+        Bundles.saveGroups(newGroups(directory, 10), 4);
+        List<BundleGroup> groups = Bundles.groupsInDirectory(directory);
+
+        // when
+        Bundles.loadGroups(groups, 4);
+        for (File file : directory.listFiles()) {
+            assertTrue(file.delete());
+        }
+
+        // then
+        for (BundleGroup loadedGroup : groups) {
+            assertEquals("value", loadedGroup.getProperty("key", Language.DEFAULT));
+            assertEquals("value_pl", loadedGroup.getProperty("key", Language.POLISH));
+        }
+    }
+
+    @Test
+    public void shouldSaveGroupInParallelUsingTemplate() throws IOException {
+        // given
+        File directory = folder.getRoot();
+        BundleGroup savedGroup = newGroups(directory, 1).get(0);
+        File templateFile = folder.newFile("template.properties");
+        Files.write(templateFile.toPath(), Arrays.asList("# template", "key="));
+        ExecutorService executor = Bundles.newIoExecutor(2);
+
+        // when
+        SaveReport report;
+        try {
+            report = savedGroup.saveGroupAsPropertiesFiles(templateFile, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertEquals(new SaveReport(3, 0), report);
+        assertEquals(Arrays.asList("# template", "key=value_pl"), Files.readAllLines(Bundles
+                .createFile(directory, savedGroup.getName(), Language.POLISH).toPath()));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRethrowIOExceptionOfParallelSave() throws IOException {
+        // given
+        File directory = folder.getRoot();
+        List<BundleGroup> groups = newGroups(directory, 3);
+        assertTrue(Bundles.createFile(directory, groups.get(1).getName(), Language.POLISH)
+                .mkdir());
+
+        // when
+        Bundles.saveGroups(groups, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNotPositiveParallelism() throws IOException {
+        // when
+        Bundles.saveGroups(Arrays.asList(group), 0);
+    }
+
+    @Test
+    public void shouldRefreshOnlyChangedBundles() throws IOException {
+        // given
+        File directory = folder.getRoot();
+        Bundles.saveGroups(newGroups(directory, 1), 1);
+        BundleGroup savedGroup = Bundles.groupsInDirectory(directory).get(0);
+        Bundles.loadGroups(Arrays.asList(savedGroup), 1);
+        File polishFile = Bundles.createFile(directory, savedGroup.getName(), Language.POLISH);
+
+        // when
+        Set<LocaleKey> unchanged = savedGroup.refresh();
+        Files.write(polishFile.toPath(), Arrays.asList("key=nowa wartosc"));
+        Files.setLastModifiedTime(polishFile.toPath(), FileTime.fromMillis(0));
+        Set<LocaleKey> changed = savedGroup.refresh();
+
+        // then
+        assertTrue(unchanged.isEmpty());
+        assertEquals(Collections.singleton(LocaleKey.of(Language.POLISH)), changed);
+        assertEquals("nowa wartosc", savedGroup.getProperty("key", Language.POLISH));
+        assertEquals("value_de", savedGroup.getProperty("key", Language.GERMAN));
+    }
+
+    @Test
+    public void shouldRefreshLanguageVariantsSeparately() throws IOException {
+        // given
+        File directory = folder.getRoot();
+        LocaleKey english = LocaleKey.of(Language.ENGLISH);
+        LocaleKey americanEnglish = LocaleKey.of(Language.ENGLISH, null, "US");
+        List<File> files = Arrays.asList(Bundles.createFile(directory, "messages",
+                Language.DEFAULT), Bundles.createFile(directory, "messages", english), Bundles
+                        .createFile(directory, "messages", americanEnglish));
+        for (File file : files) {
+            Files.write(file.toPath(), Arrays.asList("key=" + file.getName()));
+        }
+        BundleGroup savedGroup = Bundles.groupsInDirectory(directory).get(0);
+        Bundles.loadGroups(Arrays.asList(savedGroup), 1);
+
+        // when
+        for (File file : files.subList(1, 3)) {
+            Files.write(file.toPath(), Arrays.asList("key=changed"));
+            Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(0));
+        }
+        Set<LocaleKey> changed = savedGroup.refresh();
+
+        // then
+        assertEquals(new HashSet<>(Arrays.asList(english, americanEnglish)), changed);
+        assertEquals("changed", savedGroup.getProperty("key", americanEnglish));
+    }
+
+    private static List<BundleGroup> newGroups(File directory, int count) {
+        List<BundleGroup> groups = new ArrayList<>();
+        for (int index = 0; index < count; ++index) {
+            List<Bundle> bundles = new ArrayList<>();
+            for (Language language : Arrays.asList(Language.DEFAULT, Language.POLISH,
+                    Language.GERMAN)) {
+                Properties properties = new Properties();
+                properties.setProperty("key", language == Language.DEFAULT ? "value" : "value_"
+                        + language.getIsoCode());
+                bundles.add(Bundles.newNotExistingBundle(Bundles.createFileName(directory,
+                        "group" + index, language), properties));
+            }
+            groups.add(Bundles.newBundleGroup(bundles));
+        }
+        return groups;
     }
 }
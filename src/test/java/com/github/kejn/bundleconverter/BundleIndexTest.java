@@ -0,0 +1,202 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link BundleIndex} class.
+ *
+ * @author kejn
+ */
+public class BundleIndexTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path indexFile;
+    private File defaultFile;
+    private File polishFile;
+
+    @Before
+    public void setUp() throws IOException {
+        BundleCache.setMaximumWeight(BundleCache.defaultMaximumWeight());
+        indexFile = folder.getRoot().toPath().resolve("index/bundles.idx");
+        defaultFile = writeBundle("bundle.properties", "key=value\nkey2=value2", 1000);
+        polishFile = writeBundle("bundle_pl.properties", "key=warto\\u015b\\u0107", 1000);
+    }
+
+    @After
+    public void tearDown() {
+        BundleCache.setMaximumWeight(BundleCache.defaultMaximumWeight());
+    }
+
+    @Test
+    public void shouldServeUnchangedBundlesFromSavedIndex() throws IOException {
+        // given
+        BundleIndex index = BundleIndex.open(indexFile);
+        BundleIndex.Changes firstChanges = index.refresh(groups());
+        assertTrue(index.save());
+        BundleCache.invalidateAll();
+
+        // when
+        BundleIndex reopenedIndex = BundleIndex.open(indexFile);
+        BundleIndex.Changes changes = reopenedIndex.refresh(groups());
+        List<BundleGroup> groups = groups();
+
+        // then
+        assertEquals(Arrays.asList(path(defaultFile), path(polishFile)), firstChanges
+                .getAdded());
+        assertTrue(changes.isEmpty());
+        assertEquals("value2", groups.get(0).getProperty("key2", Language.DEFAULT));
+        assertEquals("wartość", groups.get(0).getProperty("key", Language.POLISH));
+        assertEquals(0, BundleCache.stats().loadCount());
+        assertEquals(2, reopenedIndex.keyCount(defaultFile));
+        assertFalse(reopenedIndex.save());
+    }
+
+    @Test
+    public void shouldReadSnapshotsOnlyOfBundlesInUse() throws IOException {
+        // given
+        BundleIndex index = BundleIndex.open(indexFile);
+        index.refresh(groups());
+        index.save();
+        BundleCache.invalidateAll();
+
+        // when
+        BundleIndex reopenedIndex = BundleIndex.open(indexFile);
+        reopenedIndex.refresh(groups());
+        long cachedAfterRefresh = BundleCache.size();
+        String value = new Bundle(defaultFile).getProperty("key2");
+
+        // then
+        assertEquals(0, cachedAfterRefresh);
+        assertEquals("value2", value);
+        assertEquals(1, BundleCache.size());
+        assertEquals(0, BundleCache.stats().loadCount());
+        assertEquals(1, reopenedIndex.keyCount(polishFile));
+    }
+
+    @Test
+    public void shouldSaveTranslationsEvictedFromCache() throws IOException {
+        // given
+        BundleIndex index = BundleIndex.open(indexFile);
+        index.refresh(groups());
+        BundleCache.invalidateAll();
+
+        // when
+        index.save();
+        BundleCache.invalidateAll();
+        BundleIndex.open(indexFile).refresh(groups());
+        List<BundleGroup> groups = groups();
+
+        // then
+        assertEquals("value2", groups.get(0).getProperty("key2", Language.DEFAULT));
+        assertEquals("wartość", groups.get(0).getProperty("key", Language.POLISH));
+        assertEquals(0, BundleCache.stats().loadCount());
+    }
+
+    @Test
+    public void shouldReportFileChangedBeforeSaveAsModified() throws IOException {
+        // given
+        BundleIndex index = BundleIndex.open(indexFile);
+        index.refresh(groups());
+        BundleCache.invalidateAll();
+        writeBundle("bundle_pl.properties", "key=nowa warto\\u015b\\u0107", 2000);
+        index.save();
+
+        // when
+        BundleIndex.Changes changes = BundleIndex.open(indexFile).refresh(groups());
+
+        // then
+        assertEquals(Collections.singletonList(path(polishFile)), changes.getModified());
+        assertEquals("nowa wartość", new Bundle(polishFile).getProperty("key"));
+    }
+
+    @Test
+    public void shouldReportOnlyChangedFiles() throws IOException {
+        // given
+        BundleIndex index = BundleIndex.open(indexFile);
+        index.refresh(groups());
+        BundleCache.invalidateAll();
+
+        // when
+        writeBundle("bundle_pl.properties", "key=nowa warto\\u015b\\u0107", 2000);
+        Files.setLastModifiedTime(defaultFile.toPath(), FileTime.fromMillis(2000));
+        BundleIndex.Changes changes = index.refresh(groups());
+
+        // then
+        assertEquals(Collections.emptyList(), changes.getAdded());
+        assertEquals(Collections.singletonList(path(polishFile)), changes.getModified());
+        assertEquals(Collections.emptyList(), changes.getRemoved());
+        assertEquals("nowa wartość", new Bundle(polishFile).getProperty("key"));
+        assertEquals(0, BundleCache.stats().loadCount());
+    }
+
+    @Test
+    public void shouldReportRemovedFiles() throws IOException {
+        // given
+        BundleIndex index = BundleIndex.open(indexFile);
+        index.refresh(groups());
+
+        // when
+        Files.delete(polishFile.toPath());
+        BundleIndex.Changes changes = index.refresh(groups());
+
+        // then
+        assertEquals(Collections.singletonList(path(polishFile)), changes.getRemoved());
+        assertEquals(1, index.size());
+        assertEquals(-1, index.keyCount(polishFile));
+    }
+
+    @Test
+    public void shouldIgnoreCorruptedIndexFile() throws IOException {
+        // given
+        BundleIndex index = BundleIndex.open(indexFile);
+        index.refresh(groups());
+        index.save();
+        byte[] content = Files.readAllBytes(indexFile);
+        content[content.length / 2] ^= 1;
+        Files.write(indexFile, content);
+
+        // when
+        BundleIndex corruptedIndex = BundleIndex.open(indexFile);
+
+        // then
+        assertEquals(0, corruptedIndex.size());
+        assertEquals(2, corruptedIndex.refresh(groups()).getAdded().size());
+    }
+
+    private List<BundleGroup> groups() {
+        return Bundles.groupsInDirectory(folder.getRoot());
+    }
+
+    private File writeBundle(String fileName, String content, long lastModifiedMillis)
+            throws IOException {
+        File file = new File(folder.getRoot(), fileName);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModifiedMillis));
+        return file;
+    }
+
+    private static Path path(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link BundleScanner} class.
+ *
+ * @author kejn
+ */
+public class BundleScannerTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.getRoot().toPath();
+        createFiles("messages.properties", "messages_pl.properties", "readme.txt",
+                "app/i18n/messages.properties", "app/i18n/messages_de.properties",
+                "app/i18n/labels.properties", "lib/i18n/messages.properties",
+                "lib/target/i18n/messages.properties", "lib/i18n/nested/errors.properties");
+        Files.createDirectories(root.resolve("app/i18n/directory.properties"));
+    }
+
+    @Test
+    public void shouldDiscoverBundlesInWholeTree() throws IOException {
+        // when
+        List<Bundle> bundles = BundleScanner.builder().build().scanBundles(root);
+
+        // then
+        assertEquals(Arrays.asList("app/i18n/labels.properties",
+                "app/i18n/messages.properties", "app/i18n/messages_de.properties",
+                "lib/i18n/messages.properties", "lib/i18n/nested/errors.properties",
+                "lib/target/i18n/messages.properties", "messages.properties",
+                "messages_pl.properties"), relativePaths(bundles));
+    }
+
+    @Test
+    public void shouldGroupBundlesOfEachDirectorySeparately() throws IOException {
+        // when
+        List<BundleGroup> groups = Bundles.groupsInTree(root);
+
+        // then
+        List<String> groupSizes = new ArrayList<>();
+        for (BundleGroup group : groups) {
+            groupSizes.add(group.getName() + ":" + group.size());
+        }
+        assertEquals(Arrays.asList("messages:2", "labels:1", "messages:2", "messages:1",
+                "errors:1", "messages:1"), groupSizes);
+    }
+
+    @Test
+    public void shouldApplyIncludeAndExcludeRules() throws IOException {
+        // given
+        BundleScanner scanner = BundleScanner.builder().include("**/i18n/*").exclude(
+                "**/target").exclude("**/labels.properties").build();
+
+        // when
+        List<Bundle> bundles = scanner.scanBundles(root);
+
+        // then
+        assertEquals(Arrays.asList("app/i18n/messages.properties",
+                "app/i18n/messages_de.properties", "lib/i18n/messages.properties"),
+                relativePaths(bundles));
+    }
+
+    @Test
+    public void shouldLimitDepthOfWalk() throws IOException {
+        // when
+        List<Bundle> bundles = BundleScanner.builder().maxDepth(3).build().scanBundles(root);
+
+        // then
+        assertEquals(Arrays.asList("app/i18n/labels.properties",
+                "app/i18n/messages.properties", "app/i18n/messages_de.properties",
+                "lib/i18n/messages.properties", "messages.properties",
+                "messages_pl.properties"), relativePaths(bundles));
+        assertEquals(relativePaths(Bundles.bundlesInDirectory(root.toFile())), relativePaths(
+                BundleScanner.builder().maxDepth(1).build().scanBundles(root)));
+    }
+
+    @Test
+    public void parallelScanShouldFindSameBundlesAsSequentialScan() throws IOException {
+        // given
+        BundleScanner sequential = BundleScanner.builder().exclude("lib/target").maxDepth(4)
+                .build();
+        BundleScanner parallel = BundleScanner.builder().exclude("lib/target").maxDepth(4)
+                .parallelism(4).build();
+
+        // when
+        List<Bundle> sequentialBundles = sequential.scanBundles(root);
+        List<Bundle> parallelBundles = parallel.scanBundles(root);
+
+        // then
+        assertEquals(7, sequentialBundles.size());
+        assertEquals(relativePaths(sequentialBundles), relativePaths(parallelBundles));
+    }
+
+    @Test
+    public void shouldReturnEmptyListForMissingDirectory() throws IOException {
+        // given
+        Path missing = root.resolve("missing");
+
+        // when
+        List<Bundle> bundles = BundleScanner.builder().parallelism(2).build().scanBundles(
+                missing);
+
+        // then
+        assertTrue(bundles.isEmpty());
+        assertEquals(Collections.emptyList(), Bundles.groupsInTree(missing));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveParallelism() {
+        BundleScanner.builder().parallelism(0);
+    }
+
+    private void createFiles(String... relativePaths) throws IOException {
+        for (String relativePath : relativePaths) {
+            Path file = root.resolve(relativePath);
+            Files.createDirectories(file.getParent());
+            Files.createFile(file);
+        }
+    }
+
+    private List<String> relativePaths(List<Bundle> bundles) {
+        List<String> paths = new ArrayList<>();
+        for (Bundle bundle : bundles) {
+            String path = root.relativize(bundle.getFile().toPath()).toString();
+            paths.add(path.replace(File.separatorChar, '/'));
+        }
+        return paths;
+    }
+
+}
@@ -4,6 +4,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
@@ -11,7 +14,20 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.github.kejn.bundleconverter.Bundle;
 import com.github.kejn.bundleconverter.Bundles;
@@ -192,6 +208,57 @@ public class BundleTest {
         assertTrue(bundle.isDefaultBundle());
     }
 
+    @Test
+    public void shouldSeparateNameAndLocaleKeyOfLanguageVariant() {
+        // given
+        Bundle chinese = new Bundle(new File("my_bundle_zh_Hant_TW.properties"));
+        Bundle serbian = new Bundle(new File("my_bundle_sr_Latn.properties"));
+        Bundle english = new Bundle(new File("my_bundle_en_US.properties"));
+        Bundle underscored = new Bundle(new File("my_bundle.properties"));
+
+        // then
+        assertEquals("my_bundle", chinese.getName());
+        assertEquals(LocaleKey.of(Language.CHINESE, "Hant", "TW"), chinese.getLocaleKey());
+        assertEquals(Language.CHINESE, chinese.getLanguage());
+        assertEquals("my_bundle", serbian.getName());
+        assertEquals(LocaleKey.of(Language.SERBIAN, "Latn", null), serbian.getLocaleKey());
+        assertEquals("my_bundle", english.getName());
+        assertEquals(LocaleKey.of(Language.ENGLISH, null, "US"), english.getLocaleKey());
+        assertFalse(english.isDefaultBundle());
+        assertEquals("my_bundle", underscored.getName());
+        assertEquals(LocaleKey.DEFAULT, underscored.getLocaleKey());
+        assertTrue(underscored.isDefaultBundle());
+    }
+
+    @Test
+    public void shouldKeepLanguageVariantsInSeparateBundlesOfGroup() throws IOException {
+        // given
+        File directory = folder.getRoot();
+        LocaleKey american = LocaleKey.of(Language.ENGLISH, null, "US");
+        LocaleKey british = LocaleKey.of(Language.ENGLISH, null, "GB");
+        List<Bundle> bundles = new ArrayList<>();
+        bundles.add(new Bundle(Bundles.createFile(directory, "messages", Language.DEFAULT),
+                properties("color", "colour")));
+        bundles.add(new Bundle(Bundles.createFile(directory, "messages", american),
+                properties("color", "color")));
+        bundles.add(new Bundle(Bundles.createFile(directory, "messages", british),
+                properties("color", "colour")));
+
+        // when
+        BundleGroup group = Bundles.newBundleGroup(bundles);
+
+        // then
+        assertEquals(3, group.size());
+        assertEquals(new File(directory, "messages_en_US.properties").getAbsoluteFile(), group
+                .getBundle(american).getFile());
+        assertEquals("color", group.getProperty("color", american));
+        assertEquals("colour", group.getProperty("color", british));
+        assertNull(group.getBundle(Language.ENGLISH));
+        assertEquals(EnumSet.of(Language.DEFAULT, Language.ENGLISH), group.supportedLanguages());
+        assertEquals(new HashSet<>(Arrays.asList(american, british)), group
+                .supportedLocalesWithoutDefault());
+    }
+
     @Test
     public void canSavePropertiesToFile() throws IOException {
         // given
@@ -244,4 +311,282 @@ public class BundleTest {
         assertFalse(String.format("Assertion failed. templateLine(%s) != targetLine(%s)",
                 templateLine, targetLine), testFailed);
     }
+
+    @Test
+    public void shouldReadTranslationsWithoutCreatingProperties() {
+        // given
+        bundle = Bundles.newExistingBundle(Path.DEFAULT_BUNDLE);
+        final Properties expected = Bundles.newExistingBundle(Path.DEFAULT_BUNDLE)
+                .getProperties();
+
+        // when
+        final TranslationTable translations = bundle.getTranslations();
+
+        // then
+        assertEquals(expected, translations.toProperties());
+        for (String key : expected.stringPropertyNames()) {
+            assertEquals(expected.getProperty(key), bundle.getProperty(key));
+        }
+        assertEquals(expected.stringPropertyNames(), bundle.stringPropertyNames());
+        assertSame(translations, bundle.getTranslations());
+    }
+
+    /**
+     * The {@link Properties} returned by the bundle can be modified, so the
+     * bundle should use them once they are created.
+     */
+    @Test
+    public void shouldUseModifiedProperties() {
+        // given
+        bundle = new Bundle(new File("bundle.properties"), TranslationTable.builder().put("key",
+                "value").build());
+
+        // when
+        bundle.getProperties().setProperty("key", "updated value");
+        bundle.getProperties().setProperty("new.key", "new value");
+
+        // then
+        assertEquals("updated value", bundle.getProperty("key"));
+        assertEquals("new value", bundle.getTranslations().get("new.key"));
+        assertEquals(2, bundle.stringPropertyNames().size());
+    }
+
+    @Test
+    public void shouldCopyPropertiesOfKeysFromTranslationsAndProperties() {
+        // given
+        bundle = new Bundle(new File("bundle.properties"), TranslationTable.builder().put("key",
+                "value").put("other.key", "other value").build());
+        String[] keys = { "other.key", "missing.key", "key" };
+        String[] values = { "stale", "stale", "stale" };
+
+        // when
+        bundle.copyProperties(keys, values);
+
+        // then
+        assertEquals(Arrays.asList("other value", null, "value"), Arrays.asList(values));
+
+        // when
+        String value = "updated value";
+        bundle.getProperties().setProperty("key", value);
+        bundle.copyProperties(keys, values);
+
+        // then
+        assertSame(value, values[2]);
+    }
+
+    /**
+     * The file of the bundle can be used as its own template, so it has to be
+     * read before it is overwritten.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void canSavePropertiesToFileUsingItselfAsTemplate() throws IOException {
+        // given
+        final File file = folder.newFile("bundle.properties");
+        Files.write(file.toPath(), Arrays.asList("# comment", "key1=old",
+                "key2=old"), StandardCharsets.ISO_8859_1);
+        bundle = new Bundle(file);
+        bundle.getProperties().setProperty("key1", "new ąę");
+
+        // when
+        bundle.saveToFile(file);
+
+        // then
+        assertEquals(Arrays.asList("# comment", "key1=new \\u0105\\u0119", "key2=old"),
+                Files.readAllLines(file.toPath(), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void shouldNotRewriteUnchangedFile() throws IOException {
+        // given
+        final File file = folder.newFile("tempBundle.properties");
+        final Properties properties = new Properties();
+        properties.setProperty("key", "value");
+        bundle = Bundles.newNotExistingBundle(file, properties);
+
+        // when
+        final boolean firstSaveWritten = bundle.saveToFile();
+        final boolean secondSaveWritten = bundle.saveToFile();
+        properties.setProperty("key", "new value");
+        final boolean thirdSaveWritten = bundle.saveToFile();
+
+        // then
+        assertTrue(firstSaveWritten);
+        assertFalse(secondSaveWritten);
+        assertTrue(thirdSaveWritten);
+        assertEquals("new value", new Bundle(file).getProperty("key"));
+    }
+
+    @Test
+    public void shouldSaveAndLoadUtf8BundleWithoutEscaping() throws IOException {
+        // given
+        final File file = folder.newFile("utf8.properties");
+        final Properties properties = new Properties();
+        properties.setProperty("key", "中文 wartość");
+        bundle = Bundles.newNotExistingBundle(file, properties);
+        bundle.setEncoding(PropertiesEncoding.UTF_8);
+
+        // when
+        bundle.saveToFile();
+        final Bundle loaded = new Bundle(file);
+        loaded.setEncoding(PropertiesEncoding.UTF_8);
+
+        // then
+        assertEquals(Arrays.asList("key=中文 wartość"), Files.readAllLines(file.toPath(),
+                StandardCharsets.UTF_8));
+        assertEquals("中文 wartość", loaded.getProperty("key"));
+    }
+
+    /**
+     * Many threads using the same not loaded bundle at the same time should
+     * share the translations loaded once, and the single {@link Properties}
+     * created from them.
+     * 
+     * @throws Exception should not be thrown
+     */
+    @Test
+    public void shouldLoadBundleOnceForConcurrentThreads() throws Exception {
+        // given
+        final int threads = 8;
+        final File file = folder.newFile("concurrent.properties");
+        final List<String> lines = new ArrayList<>();
+        for (int index = 0; index < 1000; ++index) {
+            lines.add("key" + index + "=value" + index);
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.ISO_8859_1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int round = 0; round < 200; ++round) {
+                final Bundle concurrentBundle = new Bundle(file);
+                final CyclicBarrier barrier = new CyclicBarrier(threads);
+                final List<Future<Object>> results = new ArrayList<>();
+                for (int thread = 0; thread < threads; ++thread) {
+                    final boolean createsProperties = thread % 2 == 0;
+                    results.add(executor.submit(() -> {
+                        barrier.await();
+                        assertEquals("value999", concurrentBundle.getProperty("key999"));
+                        if (createsProperties) {
+                            return concurrentBundle.getProperties();
+                        }
+                        assertEquals(1000, concurrentBundle.stringPropertyNames().size());
+                        return concurrentBundle.getTranslations();
+                    }));
+                }
+
+                // then
+                Properties properties = concurrentBundle.getProperties();
+                assertEquals(1000, properties.size());
+                for (int thread = 0; thread < threads; ++thread) {
+                    Object result = results.get(thread).get(10, TimeUnit.SECONDS);
+                    if (thread % 2 == 0) {
+                        assertSame(properties, result);
+                    } else {
+                        assertEquals(1000, ((TranslationTable) result).size());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldShareTranslationsLoadedByConcurrentThreads() throws Exception {
+        // given
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int round = 0; round < 200; ++round) {
+                final Bundle concurrentBundle = Bundles.newExistingBundle(Path.DEFAULT_BUNDLE);
+                final CyclicBarrier barrier = new CyclicBarrier(threads);
+                final List<Future<TranslationTable>> results = new ArrayList<>();
+                for (int thread = 0; thread < threads; ++thread) {
+                    results.add(executor.submit(() -> {
+                        barrier.await();
+                        return concurrentBundle.getTranslations();
+                    }));
+                }
+
+                // then
+                TranslationTable translations = concurrentBundle.getTranslations();
+                for (Future<TranslationTable> result : results) {
+                    assertSame(translations, result.get(10, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReloadOnlyChangedFile() throws IOException {
+        // given
+        final File file = folder.newFile("reloaded.properties");
+        writeBundle(file, "key=value", 1000);
+        bundle = new Bundle(file);
+        assertEquals("value", bundle.getProperty("key"));
+        final Properties properties = bundle.getProperties();
+
+        // when
+        final boolean reloadedUnchanged = bundle.reloadIfChanged();
+        writeBundle(file, "key=new value", 2000);
+        final boolean reloadedChanged = bundle.reloadIfChanged();
+
+        // then
+        assertFalse(reloadedUnchanged);
+        assertTrue(reloadedChanged);
+        assertEquals("new value", bundle.getProperty("key"));
+        assertNotSame(properties, bundle.getProperties());
+        assertFalse(bundle.reloadIfChanged());
+    }
+
+    @Test
+    public void validatingBundleShouldFollowChangesOfFile() throws IOException {
+        // given
+        final File file = folder.newFile("validated.properties");
+        writeBundle(file, "key=value", 1000);
+        bundle = new Bundle(file);
+        bundle.setValidating(true);
+        assertEquals("value", bundle.getProperty("key"));
+
+        // when
+        writeBundle(file, "key=new value", 1000);
+
+        // then
+        assertTrue(bundle.isValidating());
+        assertEquals("new value", bundle.getProperty("key"));
+    }
+
+    @Test
+    public void shouldNotReloadBundleNotLoadedFromFile() throws IOException {
+        // given
+        final File file = folder.newFile("saved.properties");
+        final Properties properties = new Properties();
+        properties.setProperty("key", "value");
+        bundle = Bundles.newNotExistingBundle(file, properties);
+        bundle.saveToFile();
+
+        // when
+        writeBundle(file, "key=new value", 1000);
+
+        // then
+        assertFalse(bundle.reloadIfChanged());
+        assertSame(properties, bundle.getProperties());
+    }
+
+    private static void writeBundle(File file, String content, long lastModifiedMillis)
+            throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModifiedMillis));
+    }
+
+    private static Properties properties(String key, String value) {
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        return properties;
+    }
+
 }
@@ -0,0 +1,138 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ContentComparingOutputStream} class.
+ *
+ * @author kejn
+ */
+public class ContentComparingOutputStreamTest {
+
+    private static final FileTime LAST_MODIFIED_TIME = FileTime.fromMillis(0);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldNotWriteSameContent() throws IOException {
+        // given
+        byte[] content = randomContent(100000);
+        File file = newFile(content);
+
+        // when
+        boolean written = write(file, content);
+
+        // then
+        assertFalse(written);
+        assertEquals(LAST_MODIFIED_TIME, Files.getLastModifiedTime(file.toPath()));
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void shouldWriteChangedContent() throws IOException {
+        // given
+        byte[] content = randomContent(100000);
+        File file = newFile(content);
+        byte[] changedContent = content.clone();
+        ++changedContent[50000];
+
+        // when
+        boolean written = write(file, changedContent);
+
+        // then
+        assertTrue(written);
+        assertArrayEquals(changedContent, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void shouldWriteShorterContent() throws IOException {
+        // given
+        File file = newFile("key=value\nkey2=value2\n".getBytes(StandardCharsets.ISO_8859_1));
+        byte[] shorterContent = "key=value\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        // when
+        boolean written = write(file, shorterContent);
+
+        // then
+        assertTrue(written);
+        assertArrayEquals(shorterContent, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void shouldWriteLongerContent() throws IOException {
+        // given
+        File file = newFile("key=value\n".getBytes(StandardCharsets.ISO_8859_1));
+        byte[] longerContent = "key=value\nkey2=value2\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        // when
+        boolean written = write(file, longerContent);
+
+        // then
+        assertTrue(written);
+        assertArrayEquals(longerContent, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void shouldWriteNewFile() throws IOException {
+        // given
+        File file = new File(folder.getRoot(), "new.properties");
+        byte[] content = "key=value\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        // when
+        boolean written = write(file, content);
+
+        // then
+        assertTrue(written);
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+    }
+
+    private File newFile(byte[] content) throws IOException {
+        File file = folder.newFile("bundle.properties");
+        Files.write(file.toPath(), content);
+        Files.setLastModifiedTime(file.toPath(), LAST_MODIFIED_TIME);
+        return file;
+    }
+
+    private boolean write(File file, byte[] content) throws IOException {
+        ContentComparingOutputStream out = new ContentComparingOutputStream(file.toPath());
+        try {
+            // the content is written in chunks of various sizes, like by a writer
+            Random random = new Random(42);
+            int offset = 0;
+            while (offset < content.length) {
+                int length = Math.min(content.length - offset, random.nextInt(10000));
+                if (length == 1) {
+                    out.write(content[offset]);
+                } else {
+                    out.write(content, offset, length);
+                }
+                offset += length;
+            }
+        } finally {
+            out.close();
+        }
+        return out.isWritten();
+    }
+
+    private static byte[] randomContent(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+}
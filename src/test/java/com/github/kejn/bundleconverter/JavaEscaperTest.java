@@ -0,0 +1,67 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JavaEscaper} class.
+ *
+ * @author kejn
+ */
+public class JavaEscaperTest {
+
+    @Test
+    public void shouldEscapeLikeStringEscapeUtils() throws IOException {
+        // given
+        String[] strings = { "", "key=value", "\"quoted\"", "back\\slash", "\b\t\n\f\r",
+                "\u0000\u0001\u001f\u007f\u0080", "zażółć gęślą jaźń", "значение",
+                "😀", "\ud83d", "\ude00x", "#comment", "tab\tin the middle" };
+
+        // then
+        for (String string : strings) {
+            assertEscapedLikeStringEscapeUtils(string);
+        }
+    }
+
+    @Test
+    public void shouldEscapeRandomStringsLikeStringEscapeUtils() throws IOException {
+        // given
+        Random random = new Random(42);
+
+        // then
+        for (int count = 0; count < 10000; ++count) {
+            char[] chars = new char[random.nextInt(40)];
+            int range = count % 3 == 0 ? 0x80 : count % 3 == 1 ? 0x100 : 0x10000;
+            for (int index = 0; index < chars.length; ++index) {
+                chars[index] = (char) random.nextInt(range);
+            }
+            assertEscapedLikeStringEscapeUtils(new String(chars));
+        }
+    }
+
+    @Test
+    public void shouldReturnSameStringIfNoEscapingIsNeeded() {
+        // given
+        String string = "key.name = some value, with ASCII only!";
+
+        // then
+        assertSame(string, JavaEscaper.escape(string));
+    }
+
+    private static void assertEscapedLikeStringEscapeUtils(String string) throws IOException {
+        String expected = StringEscapeUtils.escapeJava(string);
+        StringWriter writer = new StringWriter();
+        JavaEscaper.escape(string, writer);
+
+        assertEquals(expected, writer.toString());
+        assertEquals(expected, JavaEscaper.escape(string));
+    }
+
+}
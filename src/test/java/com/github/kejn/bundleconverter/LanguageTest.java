@@ -1,5 +1,6 @@
 package com.github.kejn.bundleconverter;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -84,4 +85,22 @@ public class LanguageTest {
         assertNull(language);
     }
 
+    /**
+     * The lookups should ignore the case, and the duplicated mappings should be
+     * resolved to the first enum constant, just like a linear search would.
+     */
+    @Test
+    public void shouldFindLanguagesIgnoringCase() {
+        // then
+        assertEquals(Language.POLISH, Language.forIsoCode("PL"));
+        assertEquals(Language.NORWEGIAN_BOKMAL, Language.forDisplayLanguage("NORWEGIAN BOKMÅL"));
+        assertEquals(Language.DEFAULT, Language.forIsoCode(""));
+        assertEquals(Language.YIDDISH, Language.forDisplayLanguage("yiddish"));
+        assertNull(Language.forIsoCode(null));
+        assertNull(Language.forDisplayLanguage(null));
+        for (Language language : Language.values()) {
+            assertEquals(language, Language.forDisplayLanguage(language.getDisplayLanguage()));
+        }
+    }
+
 }
@@ -0,0 +1,92 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LocaleKey} class.
+ *
+ * @author kejn
+ */
+public class LocaleKeyTest {
+
+    @Test
+    public void shouldParseSuffixesOfFileNames() {
+        // when
+        LocaleKey chinese = LocaleKey.forSuffix("zh_hant_tw");
+        LocaleKey serbian = LocaleKey.forSuffix("sr_Latn");
+        LocaleKey spanish = LocaleKey.forSuffix("es_419");
+
+        // then
+        assertEquals(Language.CHINESE, chinese.getLanguage());
+        assertEquals("Hant", chinese.getScript());
+        assertEquals("TW", chinese.getRegion());
+        assertEquals("zh_Hant_TW", chinese.getSuffix());
+        assertEquals("sr_Latn", serbian.getSuffix());
+        assertEquals("es_419", spanish.getSuffix());
+        assertSame(LocaleKey.of(Language.POLISH), LocaleKey.forSuffix("PL"));
+        assertSame(LocaleKey.DEFAULT, LocaleKey.forSuffix(""));
+        assertTrue(LocaleKey.forSuffix("pl").isLanguageOnly());
+    }
+
+    @Test
+    public void shouldReturnNullForInvalidSuffixes() {
+        assertNull(LocaleKey.forSuffix("iso"));
+        assertNull(LocaleKey.forSuffix("en_"));
+        assertNull(LocaleKey.forSuffix("en_USA"));
+        assertNull(LocaleKey.forSuffix("en_Latn_US_POSIX"));
+        assertNull(LocaleKey.forSuffix("_US"));
+        assertNull(LocaleKey.forSuffix(null));
+    }
+
+    @Test
+    public void displayNameShouldBeParsedBackToSameKey() {
+        // given
+        LocaleKey[] keys = { LocaleKey.DEFAULT, LocaleKey.of(Language.GERMAN), LocaleKey.of(
+                Language.ENGLISH, null, "us"), LocaleKey.of(Language.CHINESE, "HANT", "TW"),
+                LocaleKey.of(Language.SERBIAN, "latn", "") };
+
+        // then
+        assertEquals("English (US)", keys[2].getDisplayName());
+        assertEquals("Chinese (Hant_TW)", keys[3].getDisplayName());
+        for (LocaleKey key : keys) {
+            assertEquals(key, LocaleKey.forDisplayName(key.getDisplayName()));
+            assertEquals(key, LocaleKey.forSuffix(key.getSuffix()));
+        }
+        assertNull(LocaleKey.forDisplayName("Default (US)"));
+        assertNull(LocaleKey.forDisplayName("English (United States)"));
+    }
+
+    @Test
+    public void shouldCreateFileNamesWithWholeKey() {
+        // given
+        File directory = new File(".");
+
+        // when
+        String fileName = Bundles.createFileName(directory, "messages", LocaleKey.of(
+                Language.CHINESE, "Hant", "TW"));
+
+        // then
+        assertEquals(new File(directory.getAbsoluteFile(), "messages_zh_Hant_TW.properties")
+                .getPath(), fileName);
+        assertEquals(Bundles.createFileName(directory, "messages", Language.POLISH), Bundles
+                .createFileName(directory, "messages", LocaleKey.of(Language.POLISH)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectRegionOfDefaultLanguage() {
+        LocaleKey.of(Language.DEFAULT, null, "US");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMalformedScript() {
+        LocaleKey.of(Language.SERBIAN, "Lat", null);
+    }
+
+}
@@ -0,0 +1,267 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link PropertiesParser} class.
+ * 
+ * @author kejn
+ */
+public class PropertiesParserTest {
+
+    private static final String FUZZ_ALPHABET = "ab=: \t\f\\\r\n#!u0F\u00e9";
+    private static final String[] UTF_8_FUZZ_ALPHABET = { "a", "=", " ", "\t", "\\", "\n",
+            "#", "u", "0", "\u00e9", "\u0105", "\u4e2d", "\ud83d\ude00" };
+    private static final Pattern TRUNCATED_UNICODE_ESCAPE = Pattern.compile(
+            "\\\\u[^\r\n]{0,3}(\r|\n|$)");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * All the constructs of the '.properties' format should be parsed just like
+     * by the {@link Properties#load(java.io.InputStream)} method.
+     */
+    @Test
+    public void shouldParseAllConstructsOfFormat() {
+        assertParsed("key=value\nkey2 = value2 \n", "key", "value", "key2", "value2 ");
+        assertParsed("key:value\r\nkey2 value2\rkey3\t\f=\t value3", "key", "value", "key2",
+                "value2", "key3", "value3");
+        assertParsed("# comment\n! comment\n   # indented comment\n\nkey=v", "key", "v");
+        assertParsed("key=multi\\\n    line \\\r\n\tvalue\\\r    end", "key",
+                "multiline valueend");
+        assertParsed("key=even\\\\\nkey2=odd\\\\\\\n  continued", "key", "even\\",
+                "key2", "odd\\continued");
+        assertParsed("a\\=b\\:c\\ d=e\\tf\\ng\\rh\\fi\\jk", "a=b:c d", "e\tf\ng\rh\fijk");
+        assertParsed("key=\\u0105\\u00F3\\u017c\\u0041 \u00e9\u00ff", "key",
+                "\u0105\u00f3\u017cA \u00e9\u00ff");
+        assertParsed("key\nkey2=\nkey3 :\n=value\n:value2", "key", "", "key2", "", "key3", "",
+                "", "value2");
+        assertParsed("key==value\nkey2:=value2\nkey3 = =value3", "key", "=value", "key2",
+                "=value2", "key3", "=value3");
+        assertParsed("key=value\\", "key", "value");
+        assertParsed("\\", "", "");
+        assertParsed("\\\n\nkey=value", "key", "value");
+        assertParsed("key=first\\\n\nkey2=second", "key", "first", "key2", "second");
+        assertParsed("key=a\\\n#not a comment", "key", "a#not a comment");
+        assertParsed("key=first\nkey=second", "key", "second");
+    }
+
+    /**
+     * A comment should always end with its line, and a line continued before
+     * any other character should still be able to turn out to be a comment,
+     * just like in the {@link Properties} of Java 9 and later. The Properties of
+     * Java 8 parse these cases differently.
+     */
+    @Test
+    public void shouldParseCommentsLikeJava9() {
+        assertParsed("#comment continued? \\\nkey=value", "key", "value");
+        assertParsed("#comment\\\n\\\\\nkey=value", "\\", "", "key", "value");
+        assertParsed("  \\\n#a comment\n\\\r\n  !also=comment\nkey=value", "key", "value");
+    }
+
+    /**
+     * Randomly generated content should be parsed just like by the
+     * {@link Properties#load(java.io.InputStream)} method, unless it is parsed
+     * differently by the Properties of different Java versions.
+     */
+    @Test
+    public void shouldParseRandomContentLikePropertiesLoad() {
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 20000; ++iteration) {
+            char[] content = new char[random.nextInt(40)];
+            for (int i = 0; i < content.length; ++i) {
+                content[i] = FUZZ_ALPHABET.charAt(random.nextInt(FUZZ_ALPHABET.length()));
+            }
+            String text = new String(content) + "b";
+            if (!dependsOnJavaVersion(text)) {
+                assertParsedLikePropertiesLoad(text);
+            }
+        }
+    }
+
+    /**
+     * In UTF-8, the content should be parsed just like by the
+     * {@link Properties#load(java.io.Reader)} method reading it in UTF-8, which
+     * is used by {@link java.util.PropertyResourceBundle} since Java 9, unless it
+     * is parsed differently by the Properties of different Java versions.
+     */
+    @Test
+    public void shouldParseUtf8LikePropertiesLoadOfReader() {
+        assertParsed("klucz=wartość\nключ=значение", PropertiesEncoding.UTF_8, "klucz",
+                "wartość", "ключ", "значение");
+        assertParsed("键 = 值\\\n  继续\\中", PropertiesEncoding.UTF_8, "键", "值继续中");
+        assertParsed("emoji=\ud83d\ude00\\u0105", PropertiesEncoding.UTF_8, "emoji",
+                "\ud83d\ude00\u0105");
+
+        Random random = new Random(42);
+        for (int iteration = 0; iteration < 20000; ++iteration) {
+            StringBuilder content = new StringBuilder();
+            for (int length = random.nextInt(40); length > 0; --length) {
+                content.append(UTF_8_FUZZ_ALPHABET[random.nextInt(UTF_8_FUZZ_ALPHABET.length)]);
+            }
+            String text = content.append('a').toString();
+            if (!dependsOnJavaVersion(text)) {
+                assertParsedLikePropertiesLoad(text, PropertiesEncoding.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Just like {@link java.util.PropertyResourceBundle}, the content which is
+     * not valid UTF-8 should be parsed in ISO 8859-1.
+     */
+    @Test
+    public void shouldParseInvalidUtf8InIso88591() {
+        // given
+        byte[] data = "key=café \u00f3".getBytes(StandardCharsets.ISO_8859_1);
+        Properties properties = new Properties();
+
+        // when
+        PropertiesParser.parse(data, data.length, PropertiesEncoding.UTF_8,
+                properties::setProperty);
+
+        // then
+        assertEquals("café \u00f3", properties.getProperty("key"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMalformedUnicodeEscape() {
+        // when
+        parse("key=\\u00G1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTruncatedUnicodeEscape() {
+        // when
+        parse("key=\\u00");
+    }
+
+    /**
+     * The keys and values should be passed in the order of the file, including
+     * the duplicated keys.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldPassPropertiesInOrderOfFile() throws IOException {
+        // given
+        File file = folder.newFile("bundle.properties");
+        Files.write(file.toPath(), "b=1\na=2\nb=3".getBytes(StandardCharsets.ISO_8859_1));
+        List<String> entries = new ArrayList<>();
+
+        // when
+        PropertiesParser.parse(file.toPath(), (key, value) -> entries.add(key + "=" + value));
+
+        // then
+        assertEquals(3, entries.size());
+        assertEquals("b=1", entries.get(0));
+        assertEquals("a=2", entries.get(1));
+        assertEquals("b=3", entries.get(2));
+    }
+
+    private void assertParsed(String content, String... keysAndValues) {
+        assertParsed(content, PropertiesEncoding.ISO_8859_1, keysAndValues);
+    }
+
+    private void assertParsed(String content, PropertiesEncoding encoding,
+            String... keysAndValues) {
+        Properties expected = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            expected.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        assertEquals(escape(content), expected, parse(content, encoding));
+    }
+
+    private void assertParsedLikePropertiesLoad(String content) {
+        assertParsedLikePropertiesLoad(content, PropertiesEncoding.ISO_8859_1);
+    }
+
+    private void assertParsedLikePropertiesLoad(String content, PropertiesEncoding encoding) {
+        Properties expected = new Properties();
+        try {
+            if (encoding == PropertiesEncoding.UTF_8) {
+                expected.load(new StringReader(content));
+            } else {
+                expected.load(new ByteArrayInputStream(content.getBytes(
+                        StandardCharsets.ISO_8859_1)));
+            }
+        } catch (IllegalArgumentException e) {
+            try {
+                parse(content, encoding);
+                fail("Malformed content should be rejected: " + escape(content));
+            } catch (IllegalArgumentException expectedException) {
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            // the content which is not handled by Properties at all
+            return;
+        }
+        Properties actual;
+        try {
+            actual = parse(content, encoding);
+        } catch (IllegalArgumentException e) {
+            throw new AssertionError(escape(content), e);
+        }
+        assertEquals(escape(content), expected, actual);
+    }
+
+    /**
+     * Checks whether the <b>content</b> is parsed differently by the Properties
+     * of different Java versions, so it cannot be compared with the Properties
+     * of the running one. The Properties of Java 8 read past the end of the line,
+     * decoding whatever is left in their buffer, if the line ends with a
+     * truncated <code>&#92;uXXXX</code> escape, or with a lone backslash after
+     * a comment ending with a backslash. Since Java 9, a comment ends with its
+     * line, and a line continued before any other character can be a comment.
+     */
+    private boolean dependsOnJavaVersion(String content) {
+        if (TRUNCATED_UNICODE_ESCAPE.matcher(content).find()) {
+            return true;
+        }
+        boolean continuedBeforeAnyCharacter = false;
+        for (String line : content.split("\r\n|\r|\n")) {
+            String trimmed = line.replaceFirst("^[ \t\f]*", "");
+            boolean comment = trimmed.startsWith("#") || trimmed.startsWith("!");
+            if (comment && (line.endsWith("\\") || continuedBeforeAnyCharacter)) {
+                return true;
+            }
+            continuedBeforeAnyCharacter = trimmed.equals("\\");
+        }
+        return false;
+    }
+
+    private Properties parse(String content) {
+        return parse(content, PropertiesEncoding.ISO_8859_1);
+    }
+
+    private Properties parse(String content, PropertiesEncoding encoding) {
+        byte[] data = content.getBytes(encoding.getCharset());
+        Properties properties = new Properties();
+        PropertiesParser.parse(data, data.length, encoding, properties::setProperty);
+        return properties;
+    }
+
+    private String escape(String content) {
+        return content.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r").replace(
+                "\t", "\\t").replace("\f", "\\f");
+    }
+
+}
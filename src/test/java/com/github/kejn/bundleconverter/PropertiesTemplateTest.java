@@ -0,0 +1,150 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link PropertiesTemplate} class.
+ *
+ * @author kejn
+ */
+public class PropertiesTemplateTest {
+
+    private static final List<String> TEMPLATE_LINES = Arrays.asList("# comment \"quoted\"",
+            "", "key1=value1", "  key2 = value2", "key3", "#key4=commented");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteTemplateWithGivenValues() throws IOException {
+        // given
+        PropertiesTemplate template = PropertiesTemplate.compile(newTemplate(TEMPLATE_LINES));
+        StringWriter writer = new StringWriter();
+
+        // when
+        template.write(writer, key -> key.equals("key1") ? "wartość \"1\"" : key.equals("key2")
+                ? "" : null, PropertiesEncoding.ISO_8859_1);
+
+        // then
+        String separator = System.lineSeparator();
+        assertEquals("# comment \\\"quoted\\\"" + separator + separator
+                + "key1=warto\\u015B\\u0107 \\\"1\\\"" + separator + "#key2=" + separator
+                + "#key3=null" + separator + "#key4=commented" + separator, writer.toString());
+    }
+
+    @Test
+    public void shouldNotEscapeNonAsciiCharactersInUtf8() throws IOException {
+        // given
+        PropertiesTemplate template = PropertiesTemplate.compile(newTemplate(Arrays.asList(
+                "# komentarz", "klucz=")));
+        StringWriter writer = new StringWriter();
+
+        // when
+        template.write(writer, key -> "zażółć\tgęślą jaźń", PropertiesEncoding.UTF_8);
+
+        // then
+        String separator = System.lineSeparator();
+        assertEquals("# komentarz" + separator + "klucz=zażółć\\tgęślą jaźń" + separator, writer
+                .toString());
+    }
+
+    @Test
+    public void shouldReadNonAsciiTemplateInUtf8OrIso88591() throws IOException {
+        // given
+        PropertiesTemplate utf8Template = PropertiesTemplate.compile(newTemplate(
+                "template_utf8.properties", Arrays.asList("# zażółć gęślą jaźń", "klucz="),
+                StandardCharsets.UTF_8));
+        PropertiesTemplate latin1Template = PropertiesTemplate.compile(newTemplate(
+                "template_latin1.properties", Arrays.asList("# café crème", "clé="),
+                StandardCharsets.ISO_8859_1));
+        StringWriter utf8Writer = new StringWriter();
+        StringWriter latin1Writer = new StringWriter();
+
+        // when
+        utf8Template.write(utf8Writer, key -> "wartość", PropertiesEncoding.UTF_8);
+        latin1Template.write(latin1Writer, key -> "valeur", PropertiesEncoding.UTF_8);
+
+        // then
+        String separator = System.lineSeparator();
+        assertEquals("# zażółć gęślą jaźń" + separator + "klucz=wartość" + separator,
+                utf8Writer.toString());
+        assertEquals("# café crème" + separator + "clé=valeur" + separator, latin1Writer
+                .toString());
+    }
+
+    @Test
+    public void shouldCacheCompiledTemplateUntilFileChanges() throws IOException {
+        // given
+        File templateFile = newTemplate(TEMPLATE_LINES);
+
+        // when
+        PropertiesTemplate template = PropertiesTemplate.forFile(templateFile);
+        PropertiesTemplate sameTemplate = PropertiesTemplate.forFile(new File(templateFile
+                .getParentFile(), "./" + templateFile.getName()));
+        Files.write(templateFile.toPath(), Arrays.asList("key=value"),
+                StandardCharsets.ISO_8859_1);
+        Files.setLastModifiedTime(templateFile.toPath(), FileTime.fromMillis(0));
+        PropertiesTemplate changedTemplate = PropertiesTemplate.forFile(templateFile);
+
+        // then
+        assertSame(template, sameTemplate);
+        assertNotSame(template, changedTemplate);
+        StringWriter writer = new StringWriter();
+        changedTemplate.write(writer, key -> "new value", PropertiesEncoding.ISO_8859_1);
+        assertEquals("key=new value" + System.lineSeparator(), writer.toString());
+    }
+
+    /**
+     * The default bundle of a group can be the template of the group. The other
+     * bundles should still be saved with the template read before the default
+     * bundle was overwritten.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldSaveGroupUsingItsDefaultBundleAsTemplate() throws IOException {
+        // given
+        File defaultFile = newTemplate(Arrays.asList("key1=value1", "key2="));
+        File polishFile = folder.newFile("template_pl.properties");
+        Files.write(polishFile.toPath(), Arrays.asList("key1=wartosc1", "key2=wartosc2"),
+                StandardCharsets.ISO_8859_1);
+        BundleGroup group = new BundleGroup(new Bundle(defaultFile), new Bundle(polishFile));
+
+        // when
+        group.saveGroupAsPropertiesFiles(defaultFile);
+
+        // then
+        assertEquals(Arrays.asList("key1=value1", "#key2="), Files.readAllLines(defaultFile
+                .toPath(), StandardCharsets.ISO_8859_1));
+        assertEquals(Arrays.asList("key1=wartosc1", "key2=wartosc2"), Files.readAllLines(
+                polishFile.toPath(), StandardCharsets.ISO_8859_1));
+    }
+
+    private File newTemplate(List<String> lines) throws IOException {
+        return newTemplate("template.properties", lines, StandardCharsets.ISO_8859_1);
+    }
+
+    private File newTemplate(String fileName, List<String> lines, Charset charset)
+            throws IOException {
+        File templateFile = folder.newFile(fileName);
+        Files.write(templateFile.toPath(), lines, charset);
+        return templateFile;
+    }
+
+}
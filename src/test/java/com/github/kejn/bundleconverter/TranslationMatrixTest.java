@@ -0,0 +1,138 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link TranslationMatrix} class.
+ *
+ * @author kejn
+ */
+public class TranslationMatrixTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private BundleGroup group;
+
+    @Before
+    public void setUp() throws IOException {
+        group = Bundles.newBundleGroup(new ArrayList<>(Arrays.asList(
+                bundle("messages.properties", "key1=one\nkey2=two\nkey3=three\n"),
+                bundle("messages_pl.properties", "key1=jeden\nkey3=trzy\nextra=dodatkowy\n"),
+                bundle("messages_de.properties", "key2=zwei\n"))));
+    }
+
+    @Test
+    public void shouldIndexKeysAndLanguagesOfGroup() {
+        // when
+        TranslationMatrix matrix = group.toMatrix();
+
+        // then
+        assertEquals("messages", matrix.getName());
+        assertEquals(3, matrix.keyCount());
+        assertEquals(group.stringPropertyNames(), new HashSet<>(matrix.getKeys()));
+        assertEquals(3, matrix.localeCount());
+        assertEquals(LocaleKey.DEFAULT, matrix.getLocales().get(0));
+        assertEquals(group.supportedLocales(), new HashSet<>(matrix.getLocales()));
+        for (int row = 0; row < matrix.keyCount(); ++row) {
+            assertEquals(row, matrix.indexOfKey(matrix.getKey(row)));
+        }
+        assertEquals(-1, matrix.indexOfKey("extra"));
+        assertEquals(-1, matrix.indexOfLanguage(Language.forIsoCode("fr")));
+    }
+
+    @Test
+    public void shouldOrderLocalesByLanguageScriptAndRegion() throws IOException {
+        // given
+        group.put(bundle("messages_en_US.properties", "key1=one\n"));
+        group.put(bundle("messages_en.properties", "key1=one\n"));
+        group.put(bundle("messages_en_GB.properties", "key1=one\n"));
+
+        // when
+        TranslationMatrix matrix = group.toMatrix();
+
+        // then
+        assertEquals(Arrays.asList(LocaleKey.DEFAULT, LocaleKey.of(Language.ENGLISH), LocaleKey
+                .of(Language.ENGLISH, null, "GB"), LocaleKey.of(Language.ENGLISH, null, "US"),
+                LocaleKey.of(Language.GERMAN), LocaleKey.of(Language.POLISH)), matrix
+                        .getLocales());
+    }
+
+    @Test
+    public void shouldHoldSameValuesAsGroup() {
+        // when
+        TranslationMatrix matrix = group.toMatrix();
+
+        // then
+        for (int row = 0; row < matrix.keyCount(); ++row) {
+            String key = matrix.getKey(row);
+            for (int column = 0; column < matrix.localeCount(); ++column) {
+                LocaleKey localeKey = matrix.getLocales().get(column);
+                assertEquals(group.getProperty(key, localeKey), matrix.get(row, column));
+                assertEquals(group.getProperty(key, localeKey), matrix.get(key, localeKey));
+            }
+        }
+        assertEquals("trzy", matrix.get("key3", Language.forIsoCode("pl")));
+        assertNull(matrix.get("key2", Language.forIsoCode("pl")));
+        assertNull(matrix.get("extra", Language.forIsoCode("pl")));
+    }
+
+    @Test
+    public void shouldCopyRowInOrderOfColumns() {
+        // given
+        TranslationMatrix matrix = group.toMatrix();
+        int row = matrix.indexOfKey("key1");
+        String[] expected = new String[matrix.localeCount() + 1];
+        for (int column = 0; column < matrix.localeCount(); ++column) {
+            expected[column + 1] = matrix.get(row, column);
+        }
+
+        // when
+        String[] values = new String[matrix.localeCount() + 1];
+        matrix.copyRow(row, values, 1);
+
+        // then
+        assertEquals(Arrays.asList(expected), Arrays.asList(values));
+        assertEquals("one", values[1]);
+    }
+
+    @Test
+    public void shouldNotReflectLaterChangesOfGroup() {
+        // given
+        TranslationMatrix matrix = group.toMatrix();
+
+        // when
+        group.getDefaultBundle().getProperties().setProperty("key1", "changed");
+
+        // then
+        assertEquals("one", matrix.get("key1", Language.DEFAULT));
+        assertEquals("changed", group.toMatrix().get("key1", Language.DEFAULT));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectRowOutOfRange() {
+        TranslationMatrix matrix = group.toMatrix();
+        matrix.get(matrix.keyCount(), 0);
+    }
+
+    private Bundle bundle(String fileName, String content) throws IOException {
+        File file = folder.newFile(fileName);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        return new Bundle(file);
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.github.kejn.bundleconverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TranslationTable} class.
+ *
+ * @author kejn
+ */
+public class TranslationTableTest {
+
+    @Test
+    public void shouldReturnValuesOfAllKeys() {
+        // given
+        TranslationTable table = TranslationTable.builder().put("key1", "value1").put("key2",
+                "wartość2").put("key3", "значение3").put("", "").build();
+
+        // then
+        assertEquals(4, table.size());
+        assertEquals("value1", table.get("key1"));
+        assertEquals("wartość2", table.get("key2"));
+        assertEquals("значение3", table.get("key3"));
+        assertEquals("", table.get(""));
+        assertNull(table.get("key4"));
+        assertNull(table.get(null));
+        assertTrue(table.containsKey("key3"));
+        assertFalse(table.containsKey("key"));
+    }
+
+    @Test
+    public void shouldStoreStringsWithAnyCharacters() {
+        // given
+        Random random = new Random(42);
+        Properties properties = new Properties();
+        for (int index = 0; index < 1000; ++index) {
+            char[] key = new char[random.nextInt(20)];
+            char[] value = new char[random.nextInt(20)];
+            for (int i = 0; i < key.length; ++i) {
+                key[i] = (char) random.nextInt(index % 2 == 0 ? 0x100 : 0x10000);
+            }
+            for (int i = 0; i < value.length; ++i) {
+                value[i] = (char) random.nextInt(index % 3 == 0 ? 0x100 : 0x10000);
+            }
+            properties.setProperty(new String(key), new String(value));
+        }
+
+        // when
+        TranslationTable table = TranslationTable.of(properties);
+
+        // then
+        assertEquals(properties.size(), table.size());
+        for (String key : properties.stringPropertyNames()) {
+            assertEquals(properties.getProperty(key), table.get(key));
+        }
+        assertEquals(properties, table.toProperties());
+    }
+
+    /**
+     * Just like in {@link Properties}, the last value put for a key should be
+     * used. The key should keep its first position.
+     */
+    @Test
+    public void shouldUseLastValueOfDuplicatedKey() {
+        // given
+        TranslationTable table = TranslationTable.builder().put("b", "1").put("a", "2").put("b",
+                "3").build();
+
+        // then
+        assertEquals(2, table.size());
+        assertEquals("3", table.get("b"));
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<>(table.keySet()));
+    }
+
+    @Test
+    public void shouldPassTranslationsInOrderOfBuilder() {
+        // given
+        TranslationTable table = TranslationTable.builder().put("z", "1").put("y", "2").put("x",
+                "3").build();
+        List<String> entries = new ArrayList<>();
+
+        // when
+        table.forEach((key, value) -> entries.add(key + "=" + value));
+
+        // then
+        assertEquals(Arrays.asList("z=1", "y=2", "x=3"), entries);
+    }
+
+    @Test
+    public void keySetShouldBeViewOfTable() {
+        // given
+        TranslationTable table = TranslationTable.builder().put("key1", "value1").put("key2",
+                "value2").build();
+
+        // then
+        assertEquals(2, table.keySet().size());
+        assertTrue(table.keySet().contains("key1"));
+        assertFalse(table.keySet().contains("key3"));
+        assertFalse(table.keySet().contains(1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void keySetShouldBeUnmodifiable() {
+        // given
+        TranslationTable table = TranslationTable.builder().put("key", "value").build();
+
+        // when
+        table.keySet().remove("key");
+    }
+
+    @Test
+    public void tablesWithSameTranslationsShouldBeEqual() {
+        // given
+        TranslationTable table = TranslationTable.builder().put("key1", "value1").put("key2",
+                "wartość2").build();
+        TranslationTable sameTable = TranslationTable.builder().put("key2", "wartość2").put(
+                "key1", "value1").build();
+        TranslationTable otherTable = TranslationTable.builder().put("key1", "value1").put(
+                "key2", "value2").build();
+
+        // then
+        assertEquals(table, sameTable);
+        assertEquals(table.hashCode(), sameTable.hashCode());
+        assertNotEquals(table, otherTable);
+        assertNotEquals(table, TranslationTable.EMPTY);
+        assertTrue(TranslationTable.EMPTY.isEmpty());
+    }
+
+    @Test
+    public void shouldReadSnapshotWrittenByTable() {
+        // given
+        TranslationTable table = TranslationTable.builder().put("key1", "value1").put("key2",
+                "значение2").put("", "").build();
+        ByteBuffer buffer = ByteBuffer.allocate(table.serializedSize()
+                + TranslationTable.EMPTY.serializedSize());
+
+        // when
+        table.writeTo(buffer);
+        TranslationTable.EMPTY.writeTo(buffer);
+        buffer.flip();
+        TranslationTable readTable = TranslationTable.readFrom(buffer);
+        TranslationTable readEmptyTable = TranslationTable.readFrom(buffer);
+
+        // then
+        assertEquals(table, readTable);
+        assertEquals(Arrays.asList("key1", "key2", ""), new ArrayList<>(readTable.keySet()));
+        assertEquals("значение2", readTable.get("key2"));
+        assertTrue(readEmptyTable.isEmpty());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidSnapshot() {
+        // given
+        ByteBuffer buffer = ByteBuffer.allocate(16).putInt(1).putInt(100).putInt(4).putInt(2);
+        buffer.flip();
+
+        // when
+        TranslationTable.readFrom(buffer);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldRejectNullValue() {
+        // when
+        TranslationTable.builder().put("key", null);
+    }
+
+}
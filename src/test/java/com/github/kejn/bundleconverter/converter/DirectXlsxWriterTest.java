@@ -0,0 +1,342 @@
+package com.github.kejn.bundleconverter.converter;
+
+import static com.github.kejn.bundleconverter.converter.AssertionHelper.verifyBundle;
+import static com.github.kejn.bundleconverter.converter.AssertionHelper.verifyGroup;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.Deflater;
+
+import com.github.kejn.bundleconverter.Bundle;
+import com.github.kejn.bundleconverter.BundleGroup;
+import com.github.kejn.bundleconverter.Bundles;
+import com.github.kejn.bundleconverter.Language;
+import com.github.kejn.bundleconverter.shared.Path;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link DirectXlsxWriter} class.
+ *
+ * @author kejn
+ */
+public class DirectXlsxWriterTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final DirectXlsxWriter writer = new DirectXlsxWriter();
+    private final XlsxConverter converter = new XlsxConverter();
+
+    private final Bundle defaultBundle = Bundles.newExistingBundle(Path.DEFAULT_BUNDLE);
+    private final Bundle polishBundle = Bundles.newExistingBundle(Path.POLISH_BUNDLE);
+
+    private final Bundle defaultValues = Bundles.newExistingBundle(Path.DEFAULT_VALUES);
+    private final Bundle germanValues = Bundles.newExistingBundle(Path.GERMAN_VALUES);
+
+    /**
+     * The document written directly should have the same sheets, cells, styles,
+     * frozen panes, auto-filters and column widths as the one written by the
+     * {@link XlsxConverter}. Only the reserved second fill differs on purpose.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldWriteTheSameSheetsAsXlsxConverter() throws IOException {
+        // given
+        List<BundleGroup> groups = Arrays.asList(new BundleGroup(defaultBundle, polishBundle),
+                new BundleGroup(defaultValues, germanValues));
+
+        // when
+        XSSFWorkbook expected = read(converter, groups);
+        XSSFWorkbook actual = read(writer, groups);
+
+        // then
+        assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+        for (int index = 0; index < expected.getNumberOfSheets(); ++index) {
+            assertSheetsEqual(expected.getSheetAt(index), actual.getSheetAt(index));
+        }
+        assertEquals(expected.getStylesSource().getFills().size(), actual.getStylesSource()
+                .getFills().size());
+        assertEquals(expected.getStylesSource().getFillAt(0).getPatternType(), actual
+                .getStylesSource().getFillAt(0).getPatternType());
+        // POI writes 'darkGray' as the reserved second fill, the specification 'gray125'
+        assertEquals("gray125", actual.getStylesSource().getFillAt(1).getPatternType()
+                .toString());
+    }
+
+    /**
+     * The document written directly should be converted back to the same groups.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldBeConvertedBackToTheSameGroups() throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        BundleGroup groupBundle = new BundleGroup(defaultBundle, polishBundle);
+        BundleGroup groupValues = new BundleGroup(defaultValues, germanValues);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        writer.write(Arrays.asList(groupBundle, groupValues), out);
+        List<BundleGroup> result = converter.toBundleGroupList(new ByteArrayInputStream(out
+                .toByteArray()), directory);
+
+        // then
+        assertEquals(2, result.size());
+
+        verifyGroup(groupBundle, result.get(0));
+        verifyBundle(defaultBundle, result.get(0).getBundle(Language.DEFAULT));
+        verifyBundle(polishBundle, result.get(0).getBundle(Language.POLISH));
+
+        verifyGroup(groupValues, result.get(1));
+        verifyBundle(defaultValues, result.get(1).getBundle(Language.DEFAULT));
+        verifyBundle(germanValues, result.get(1).getBundle(Language.GERMAN));
+    }
+
+    /**
+     * The characters which have a special meaning in XML, or which are not
+     * allowed in XML at all, should not break the document.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldEscapeSpecialCharacters() throws IOException {
+        // given
+        final String key = "key";
+        final String value = " <b>Tom & \"Jerry\"</b> ";
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        properties.setProperty("control", "a\u0001b");
+        Bundle bundle = Bundles.newNotExistingBundle("special.properties", properties);
+
+        // when
+        XSSFWorkbook workbook = read(writer, Arrays.asList(new BundleGroup(bundle)));
+
+        // then
+        AssertionHelper.assertSheetContainsTranslationInColumn(workbook.getSheet("special"), key,
+                value, XlsxConverter.DEFAULT_COLUMN);
+    }
+
+    /**
+     * The <code>_xHHHH_</code> sequences written literally in the values should
+     * not be decoded as the escaped characters, neither by Apache POI nor by the
+     * {@link XlsxConverter}.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldEscapeLiteralEscapedCharacterSequences() throws IOException {
+        // given
+        final String key = "key";
+        final String value = "_x0041_ a_x00e9_b _x12_ _xZZZZ_ \u0001";
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        properties.setProperty("control", "a\u0001_x0041_");
+        Bundle bundle = Bundles.newNotExistingBundle("underscores.properties", properties);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        writer.write(Arrays.asList(new BundleGroup(bundle)), out);
+        XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+        List<BundleGroup> result = converter.toBundleGroupList(new ByteArrayInputStream(out
+                .toByteArray()), folder.getRoot());
+
+        // then
+        AssertionHelper.assertSheetContainsTranslationInColumn(workbook.getSheet("underscores"),
+                key, value, XlsxConverter.DEFAULT_COLUMN);
+        verifyBundle(bundle, result.get(0).getBundle(Language.DEFAULT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidSheetNames() throws IOException {
+        // given
+        Bundle bundle = Bundles.newNotExistingBundle("a[1].properties", new Properties());
+
+        // when
+        writer.write(Arrays.asList(new BundleGroup(bundle)), new ByteArrayOutputStream());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicatedSheetNames() throws IOException {
+        // given
+        BundleGroup group = new BundleGroup(defaultBundle);
+
+        // when
+        writer.write(Arrays.asList(group, group), new ByteArrayOutputStream());
+    }
+
+    /**
+     * The document written with a higher compression level should be smaller,
+     * and it should contain the same sheets.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldCompressDocumentWithGivenLevel() throws IOException {
+        // given
+        List<BundleGroup> groups = Arrays.asList(new BundleGroup(defaultBundle, polishBundle));
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        // when
+        new DirectXlsxWriter(Deflater.NO_COMPRESSION).write(groups, stored);
+        new DirectXlsxWriter(Deflater.BEST_COMPRESSION).write(groups, compressed);
+
+        // then
+        assertTrue(compressed.size() < stored.size());
+        assertSheetsEqual(new XSSFWorkbook(new ByteArrayInputStream(stored.toByteArray()))
+                .getSheetAt(0), new XSSFWorkbook(new ByteArrayInputStream(compressed
+                        .toByteArray())).getSheetAt(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidCompressionLevel() {
+        // when
+        new DirectXlsxWriter(Deflater.BEST_COMPRESSION + 1);
+    }
+
+    /**
+     * The document written to a file should be converted back to the same
+     * groups.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldWriteDocumentToPath() throws IOException {
+        // given
+        File file = new File(folder.getRoot(), "bundles.xlsx");
+        BundleGroup group = new BundleGroup(defaultBundle, polishBundle);
+
+        // when
+        new DirectXlsxWriter(Deflater.BEST_SPEED).write(Arrays.asList(group), file.toPath());
+        List<BundleGroup> result = converter.toBundleGroupList(file.toPath(), new File(
+                Path.DIR_PATH));
+
+        // then
+        assertEquals(1, result.size());
+        verifyGroup(group, result.get(0));
+        verifyBundle(defaultBundle, result.get(0).getBundle(Language.DEFAULT));
+        verifyBundle(polishBundle, result.get(0).getBundle(Language.POLISH));
+    }
+
+    /**
+     * The incomplete file should be deleted if the document cannot be written.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldDeleteFileWhichCouldNotBeWritten() throws IOException {
+        // given
+        File file = new File(folder.getRoot(), "bundles.xlsx");
+        Bundle bundle = Bundles.newNotExistingBundle("a[1].properties", new Properties());
+
+        // when
+        try {
+            writer.write(Arrays.asList(new BundleGroup(bundle)), file.toPath());
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // then
+        assertFalse(file.exists());
+    }
+
+    /**
+     * The groups should be split into the same continuation sheets as the ones
+     * created by the {@link XlsxConverter}.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldSplitGroupsLikeXlsxConverter() throws IOException {
+        // given
+        List<BundleGroup> groups = Arrays.asList(new BundleGroup(defaultBundle, polishBundle),
+                new BundleGroup(defaultValues, germanValues));
+
+        // when
+        XSSFWorkbook expected = read(new XlsxConverter(1), groups);
+        XSSFWorkbook actual = read(new DirectXlsxWriter(Deflater.DEFAULT_COMPRESSION, 1), groups);
+
+        // then
+        assertEquals(4, actual.getNumberOfSheets());
+        for (int index = 0; index < expected.getNumberOfSheets(); ++index) {
+            assertSheetsEqual(expected.getSheetAt(index), actual.getSheetAt(index));
+        }
+    }
+
+    private XSSFWorkbook read(XlsxWriter xlsxWriter, List<BundleGroup> groups)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        xlsxWriter.write(groups, out);
+        return new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private void assertSheetsEqual(XSSFSheet expected, XSSFSheet actual) {
+        assertEquals(expected.getSheetName(), actual.getSheetName());
+        assertEquals(expected.getLastRowNum(), actual.getLastRowNum());
+
+        assertTrue(actual.getPaneInformation().isFreezePane());
+        assertEquals(expected.getPaneInformation().getHorizontalSplitPosition(), actual
+                .getPaneInformation().getHorizontalSplitPosition());
+        assertEquals(expected.getPaneInformation().getVerticalSplitPosition(), actual
+                .getPaneInformation().getVerticalSplitPosition());
+
+        assertNotNull(actual.getCTWorksheet().getAutoFilter());
+        assertEquals(expected.getCTWorksheet().getAutoFilter().getRef(), actual.getCTWorksheet()
+                .getAutoFilter().getRef());
+
+        Iterator<Row> rows = expected.rowIterator();
+        while (rows.hasNext()) {
+            Row expectedRow = rows.next();
+            Row actualRow = actual.getRow(expectedRow.getRowNum());
+            assertNotNull(actualRow);
+            assertEquals(expectedRow.getLastCellNum(), actualRow.getLastCellNum());
+
+            for (int column = 0; column < expectedRow.getLastCellNum(); ++column) {
+                assertEquals(expected.getColumnWidth(column), actual.getColumnWidth(column));
+                assertCellsEqual(expectedRow.getCell(column), actualRow.getCell(column));
+            }
+        }
+    }
+
+    private void assertCellsEqual(Cell expected, Cell actual) {
+        assertEquals(expected.getStringCellValue(), actual.getStringCellValue());
+
+        CellStyle expectedStyle = expected.getCellStyle();
+        CellStyle actualStyle = actual.getCellStyle();
+        assertEquals(expectedStyle.getWrapText(), actualStyle.getWrapText());
+        assertEquals(expectedStyle.getAlignmentEnum(), actualStyle.getAlignmentEnum());
+        assertEquals(expectedStyle.getVerticalAlignmentEnum(), actualStyle
+                .getVerticalAlignmentEnum());
+
+        XSSFWorkbook expectedWorkbook = (XSSFWorkbook) expected.getSheet().getWorkbook();
+        XSSFWorkbook actualWorkbook = (XSSFWorkbook) actual.getSheet().getWorkbook();
+        assertEquals(expectedWorkbook.getFontAt(expectedStyle.getFontIndex()).getBold(),
+                actualWorkbook.getFontAt(actualStyle.getFontIndex()).getBold());
+        assertEquals(expectedWorkbook.getFontAt(expectedStyle.getFontIndex()).getFontName(),
+                actualWorkbook.getFontAt(actualStyle.getFontIndex()).getFontName());
+        assertEquals(expectedWorkbook.getFontAt(expectedStyle.getFontIndex())
+                .getFontHeightInPoints(), actualWorkbook.getFontAt(actualStyle.getFontIndex())
+                        .getFontHeightInPoints());
+    }
+
+}
@@ -4,38 +4,59 @@ import static com.github.kejn.bundleconverter.converter.AssertionHelper.assertSh
 import static com.github.kejn.bundleconverter.converter.AssertionHelper.verifyBundle;
 import static com.github.kejn.bundleconverter.converter.AssertionHelper.verifyGroup;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import com.github.kejn.bundleconverter.Bundle;
 import com.github.kejn.bundleconverter.BundleGroup;
 import com.github.kejn.bundleconverter.Bundles;
 import com.github.kejn.bundleconverter.Language;
+import com.github.kejn.bundleconverter.LocaleKey;
 import com.github.kejn.bundleconverter.converter.XlsxConverter;
 import com.github.kejn.bundleconverter.shared.Path;
 
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Test for {@link XlsxConverter} class.
@@ -44,6 +65,9 @@ import org.junit.Test;
  */
 public class XlsxConverterTest {
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     private final XlsxConverter converter = new XlsxConverter();
 
     private final Bundle defaultBundle = Bundles.newExistingBundle(Path.DEFAULT_BUNDLE);
@@ -202,6 +226,153 @@ public class XlsxConverterTest {
                 XlsxConverter.DEFAULT_COLUMN + 1);
     }
 
+    /**
+     * The cell styles and fonts should be created once per workbook, no matter
+     * how many sheets it contains.
+     */
+    @Test
+    public void cellStylesShouldBeSharedByAllSheets() {
+        // given
+        BundleGroup bundlesGroup = new BundleGroup(defaultBundle, polishBundle);
+        BundleGroup valuesGroup = new BundleGroup(defaultValues, germanValues);
+
+        // when
+        Workbook singleSheetWorkbook = converter.toXlsx(bundlesGroup);
+        Workbook multipleSheetsWorkbook = converter.toXlsx(bundlesGroup, valuesGroup);
+
+        // then
+        assertEquals(singleSheetWorkbook.getNumCellStyles(), multipleSheetsWorkbook
+                .getNumCellStyles());
+        assertEquals(singleSheetWorkbook.getNumberOfFonts(), multipleSheetsWorkbook
+                .getNumberOfFonts());
+
+        Sheet bundlesSheet = multipleSheetsWorkbook.getSheet(bundlesGroup.getName());
+        Sheet valuesSheet = multipleSheetsWorkbook.getSheet(valuesGroup.getName());
+        CellStyle headerStyle = bundlesSheet.getRow(XlsxConverter.HEADER_ROW).getCell(
+                XlsxConverter.KEY_COLUMN).getCellStyle();
+        CellStyle contentStyle = bundlesSheet.getRow(XlsxConverter.CONTENT_FIRST_ROW).getCell(
+                XlsxConverter.KEY_COLUMN).getCellStyle();
+
+        assertTrue(multipleSheetsWorkbook.getFontAt(headerStyle.getFontIndex()).getBold());
+        assertFalse(multipleSheetsWorkbook.getFontAt(contentStyle.getFontIndex()).getBold());
+        assertEquals(headerStyle.getIndex(), valuesSheet.getRow(XlsxConverter.HEADER_ROW)
+                .getCell(XlsxConverter.KEY_COLUMN).getCellStyle().getIndex());
+        assertEquals(contentStyle.getIndex(), valuesSheet.getRow(XlsxConverter.CONTENT_FIRST_ROW)
+                .getCell(XlsxConverter.KEY_COLUMN).getCellStyle().getIndex());
+    }
+
+    /**
+     * The streaming workbook should contain the same translations as the regular
+     * one, even if the rows were already flushed out of memory.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void streamingWorkbookShouldContainTranslationsInProperColumns() throws IOException {
+        // given
+        BundleGroup group = new BundleGroup(defaultBundle, polishBundle);
+        String key1 = "key1";
+        String value1 = defaultBundle.getProperties().getProperty(key1);
+        String value1_pl = polishBundle.getProperties().getProperty(key1);
+        String key2 = "key2";
+        String value2 = defaultBundle.getProperties().getProperty(key2);
+        String value2_pl = polishBundle.getProperties().getProperty(key2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        SXSSFWorkbook streamingWorkbook = converter.toStreamingXlsx(Arrays.asList(group), 1, true);
+        try {
+            streamingWorkbook.write(out);
+        } finally {
+            streamingWorkbook.dispose();
+            streamingWorkbook.close();
+        }
+
+        // then
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(1, workbook.getNumberOfSheets());
+
+            Sheet sheet = workbook.getSheet(group.getName());
+            assertNotNull(sheet);
+            assertTrue(sheet.getPaneInformation().isFreezePane());
+
+            assertSheetContainsTranslationInColumn(sheet, key1, value1,
+                    XlsxConverter.DEFAULT_COLUMN);
+            assertSheetContainsTranslationInColumn(sheet, key1, value1_pl,
+                    XlsxConverter.DEFAULT_COLUMN + 1);
+            assertSheetContainsTranslationInColumn(sheet, key2, value2,
+                    XlsxConverter.DEFAULT_COLUMN);
+            assertSheetContainsTranslationInColumn(sheet, key2, value2_pl,
+                    XlsxConverter.DEFAULT_COLUMN + 1);
+        }
+    }
+
+    /**
+     * The sheets created in parallel should contain the same translations as the
+     * ones created one after another.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void sheetsCreatedInParallelShouldContainTranslationsInProperColumns()
+            throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        BundleGroup bundlesGroup = new BundleGroup(defaultBundle, polishBundle);
+        BundleGroup valuesGroup = new BundleGroup(defaultValues, germanValues);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        byte[] document;
+
+        // when
+        try {
+            SXSSFWorkbook streamingWorkbook = converter.toStreamingXlsx(Arrays.asList(
+                    bundlesGroup, valuesGroup), 1, false, executor);
+            try {
+                document = toBytes(streamingWorkbook);
+            } finally {
+                streamingWorkbook.dispose();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        List<BundleGroup> result = converter.toBundleGroupList(new ByteArrayInputStream(document),
+                directory);
+        assertEquals(2, result.size());
+
+        verifyGroup(bundlesGroup, result.get(0));
+        verifyBundle(defaultBundle, result.get(0).getBundle(Language.DEFAULT));
+        verifyBundle(polishBundle, result.get(0).getBundle(Language.POLISH));
+
+        verifyGroup(valuesGroup, result.get(1));
+        verifyBundle(defaultValues, result.get(1).getBundle(Language.DEFAULT));
+        verifyBundle(germanValues, result.get(1).getBundle(Language.GERMAN));
+    }
+
+    /**
+     * An exception thrown while creating the rows of any sheet should be
+     * propagated to the caller.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void exceptionThrownWhileCreatingSheetsInParallelShouldBePropagated() {
+        // given
+        BundleGroup group = spy(new BundleGroup(defaultBundle));
+        doThrow(new IllegalStateException()).when(group).stringPropertyNames();
+
+        // when
+        converter.toStreamingXlsx(Arrays.asList(group), 1, false, ForkJoinPool.commonPool());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamingWorkbookRequiresPositiveRowAccessWindow() {
+        // given
+        BundleGroup group = new BundleGroup(defaultBundle);
+
+        // when
+        converter.toStreamingXlsx(Arrays.asList(group), 0, false);
+    }
+
     @Test
     public void shouldCreateBundleForEachLanguage() throws IOException {
         // given
@@ -251,6 +422,336 @@ public class XlsxConverterTest {
         verifyBundle(germanValues, resultGroupValues.getBundle(Language.GERMAN));
     }
 
+    /**
+     * The document read from a stream should be converted to the same groups as
+     * the {@link Workbook} it was written from.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldCreateBundleGroupForEachSheetReadFromStream() throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        BundleGroup groupBundle = new BundleGroup(defaultBundle, polishBundle);
+        BundleGroup groupValues = new BundleGroup(defaultValues, germanValues);
+        byte[] document = toBytes(converter.toXlsx(groupBundle, groupValues));
+
+        // when
+        List<BundleGroup> result = converter.toBundleGroupList(new ByteArrayInputStream(document),
+                directory);
+
+        // then
+        assertNotNull(result);
+        assertEquals(2, result.size());
+
+        BundleGroup resultGroupBundle = result.get(0);
+        verifyGroup(groupBundle, resultGroupBundle);
+
+        verifyBundle(defaultBundle, resultGroupBundle.getBundle(Language.DEFAULT));
+        verifyBundle(polishBundle, resultGroupBundle.getBundle(Language.POLISH));
+
+        BundleGroup resultGroupValues = result.get(1);
+        verifyGroup(groupValues, resultGroupValues);
+
+        verifyBundle(defaultValues, resultGroupValues.getBundle(Language.DEFAULT));
+        verifyBundle(germanValues, resultGroupValues.getBundle(Language.GERMAN));
+    }
+
+    /**
+     * The columns of the language variants should be written with their display
+     * names and read back to the bundles of the same variants, both from the
+     * {@link Workbook} and from a stream.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldConvertLanguageVariantsBackAndForth() throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        LocaleKey american = LocaleKey.of(Language.ENGLISH, null, "US");
+        LocaleKey chinese = LocaleKey.of(Language.CHINESE, "Hant", "TW");
+        Properties defaults = new Properties();
+        defaults.setProperty("color", "colour");
+        Properties americanValues = new Properties();
+        americanValues.setProperty("color", "color");
+        Properties chineseValues = new Properties();
+        chineseValues.setProperty("color", "顏色");
+        BundleGroup group = new BundleGroup(Bundles.newNotExistingBundle(Bundles.createFileName(
+                directory, "variants", Language.DEFAULT), defaults), Bundles.newNotExistingBundle(
+                        Bundles.createFileName(directory, "variants", american), americanValues),
+                Bundles.newNotExistingBundle(Bundles.createFileName(directory, "variants",
+                        chinese), chineseValues));
+
+        try (Workbook workbook = converter.toXlsx(group)) {
+            byte[] document = toBytes(workbook);
+
+            // when
+            BundleGroup fromWorkbook = converter.toBundleGroupList(workbook, directory).get(0);
+            BundleGroup fromStream = converter.toBundleGroupList(new ByteArrayInputStream(
+                    document), directory).get(0);
+
+            // then
+            List<String> header = new ArrayList<>();
+            for (Cell cell : workbook.getSheetAt(0).getRow(XlsxConverter.HEADER_ROW)) {
+                header.add(cell.getStringCellValue());
+            }
+            List<String> values = new ArrayList<>();
+            for (Cell cell : workbook.getSheetAt(0).getRow(XlsxConverter.CONTENT_FIRST_ROW)) {
+                values.add(cell.getStringCellValue());
+            }
+            assertEquals(Arrays.asList(XlsxConverter.KEY_LABEL, Language.DEFAULT
+                    .getDisplayLanguage(), "Chinese (Hant_TW)", "English (US)"), header);
+            assertEquals(Arrays.asList("color", "colour", "顏色", "color"), values);
+            assertEquals("A1:D2", ((XSSFSheet) workbook.getSheetAt(0)).getCTWorksheet()
+                    .getAutoFilter().getRef());
+            for (BundleGroup result : Arrays.asList(fromWorkbook, fromStream)) {
+                assertEquals(group.supportedLocales(), result.supportedLocales());
+                assertEquals("color", result.getProperty("color", american));
+                assertEquals("顏色", result.getProperty("color", chinese));
+                assertEquals("variants_zh_Hant_TW", result.getBundle(chinese)
+                        .getNameWithLanguageVariant());
+            }
+        }
+    }
+
+    /**
+     * The streaming workbooks store the values as inline strings instead of the
+     * shared strings. They should be read from a stream as well.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldReadStreamingWorkbookFromStream() throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        BundleGroup group = new BundleGroup(defaultBundle, polishBundle);
+        SXSSFWorkbook streamingWorkbook = converter.toStreamingXlsx(Arrays.asList(group));
+        byte[] document;
+        try {
+            document = toBytes(streamingWorkbook);
+        } finally {
+            streamingWorkbook.dispose();
+        }
+
+        // when
+        List<BundleGroup> result = converter.toBundleGroupList(new ByteArrayInputStream(document),
+                directory);
+
+        // then
+        assertEquals(1, result.size());
+
+        BundleGroup resultGroup = result.get(0);
+        verifyGroup(group, resultGroup);
+
+        verifyBundle(defaultBundle, resultGroup.getBundle(Language.DEFAULT));
+        verifyBundle(polishBundle, resultGroup.getBundle(Language.POLISH));
+    }
+
+    /**
+     * The document written to a file should be read back from the file path.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldReadDocumentWrittenToPath() throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        File file = new File(folder.getRoot(), "bundles.xlsx");
+        BundleGroup groupBundle = new BundleGroup(defaultBundle, polishBundle);
+        BundleGroup groupValues = new BundleGroup(defaultValues, germanValues);
+
+        // when
+        converter.write(Arrays.asList(groupBundle, groupValues), file.toPath());
+        List<BundleGroup> result = converter.toBundleGroupList(file.toPath(), directory);
+
+        // then
+        assertEquals(2, result.size());
+
+        verifyGroup(groupBundle, result.get(0));
+        verifyBundle(defaultBundle, result.get(0).getBundle(Language.DEFAULT));
+        verifyBundle(polishBundle, result.get(0).getBundle(Language.POLISH));
+
+        verifyGroup(groupValues, result.get(1));
+        verifyBundle(defaultValues, result.get(1).getBundle(Language.DEFAULT));
+        verifyBundle(germanValues, result.get(1).getBundle(Language.GERMAN));
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void shouldRejectMissingFile() throws IOException {
+        // given
+        File file = new File(folder.getRoot(), "missing.xlsx");
+
+        // when
+        converter.toBundleGroupList(file.toPath(), new File(Path.DIR_PATH));
+    }
+
+    /**
+     * The keys of a group which do not fit into a single sheet should be split
+     * into the continuation sheets.
+     */
+    @Test
+    public void shouldSplitGroupIntoContinuationSheets() {
+        // given
+        XlsxConverter shardingConverter = new XlsxConverter(2);
+        BundleGroup group = largeGroup("big", 5);
+
+        // when
+        Workbook workbook = shardingConverter.toXlsx(group);
+
+        // then
+        assertEquals(3, workbook.getNumberOfSheets());
+        assertEquals("big", workbook.getSheetAt(0).getSheetName());
+        assertEquals("big~2", workbook.getSheetAt(1).getSheetName());
+        assertEquals("big~3", workbook.getSheetAt(2).getSheetName());
+
+        assertEquals(2, workbook.getSheetAt(0).getLastRowNum());
+        assertEquals(2, workbook.getSheetAt(1).getLastRowNum());
+        assertEquals(1, workbook.getSheetAt(2).getLastRowNum());
+        for (Sheet sheet : workbook) {
+            assertRowContainsValuesInOrder(sheet, XlsxConverter.HEADER_ROW,
+                    XlsxConverter.KEY_LABEL, Language.DEFAULT.getDisplayLanguage(),
+                    Language.POLISH.getDisplayLanguage());
+        }
+    }
+
+    /**
+     * The continuation sheets should be joined back into a single group, no
+     * matter how the document is read.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldJoinContinuationSheetsIntoSingleGroup() throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        XlsxConverter shardingConverter = new XlsxConverter(2);
+        BundleGroup group = largeGroup("big", 5);
+        BundleGroup groupValues = new BundleGroup(defaultValues, germanValues);
+        File file = new File(folder.getRoot(), "sharded.xlsx");
+        shardingConverter.write(Arrays.asList(group, groupValues), file.toPath());
+
+        List<List<BundleGroup>> results = new ArrayList<>();
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(Files.readAllBytes(
+                file.toPath())))) {
+            assertEquals(4, workbook.getNumberOfSheets());
+
+            // when
+            results.add(converter.toBundleGroupList(workbook, directory));
+            results.add(converter.toBundleGroupList(workbook, directory, "big"::equals, EnumSet
+                    .of(Language.POLISH)));
+        }
+        results.add(converter.toBundleGroupList(file.toPath(), directory));
+
+        // then
+        for (List<BundleGroup> result : results) {
+            BundleGroup resultGroup = result.get(0);
+            verifyGroup(group, resultGroup);
+            verifyBundle(group.getDefaultBundle(), resultGroup.getBundle(Language.DEFAULT));
+            verifyBundle(group.getBundle(Language.POLISH), resultGroup.getBundle(
+                    Language.POLISH));
+        }
+        assertEquals(2, results.get(0).size());
+        assertEquals(1, results.get(1).size());
+        assertEquals(2, results.get(2).size());
+        verifyGroup(groupValues, results.get(2).get(1));
+        verifyBundle(germanValues, results.get(2).get(1).getBundle(Language.GERMAN));
+    }
+
+    /**
+     * A sheet which is named like a continuation sheet, but does not follow the
+     * first sheet of its group, should be read as a separate group.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldNotJoinSheetNamedLikeContinuationOfOtherGroup() throws IOException {
+        // given
+        final String[] sheetnames = { "first", "second~2", "second" };
+        try (Workbook workbook = new XSSFWorkbook()) {
+            for (String sheetname : sheetnames) {
+                Sheet sheet = workbook.createSheet(sheetname);
+                createRow(sheet, 0, XlsxConverter.KEY_LABEL, Language.DEFAULT.getDisplayLanguage());
+                createRow(sheet, 1, "key", sheetname);
+            }
+
+            // when
+            List<BundleGroup> result = converter.toBundleGroupList(workbook, new File(
+                    Path.DIR_PATH));
+
+            // then
+            assertEquals(3, result.size());
+            assertEquals("second~2", result.get(1).getProperty("key", Language.DEFAULT));
+        }
+    }
+
+    /**
+     * The name of the group should be shortened in the names of the continuation
+     * sheets, so they do not exceed the limit of Excel, and the sheets should
+     * still be joined back into a single group.
+     *
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldShortenLongGroupNameInContinuationSheetNames() throws IOException {
+        // given
+        final String name = "abcdefghijklmnopqrstuvwxyz01234";
+        XlsxConverter shardingConverter = new XlsxConverter(1);
+        BundleGroup group = largeGroup(name, 10);
+        File file = new File(folder.getRoot(), "long.xlsx");
+
+        // when
+        shardingConverter.write(Arrays.asList(group), file.toPath());
+        List<BundleGroup> result = converter.toBundleGroupList(file.toPath(), new File(
+                Path.DIR_PATH));
+
+        // then
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(Files.readAllBytes(
+                file.toPath())))) {
+            assertEquals(10, workbook.getNumberOfSheets());
+            assertEquals(name, workbook.getSheetAt(0).getSheetName());
+            assertEquals(name.substring(0, 29) + "~2", workbook.getSheetAt(1).getSheetName());
+            assertEquals(name.substring(0, 28) + "~10", workbook.getSheetAt(9).getSheetName());
+        }
+        assertEquals(1, result.size());
+        verifyGroup(group, result.get(0));
+        verifyBundle(group.getDefaultBundle(), result.get(0).getBundle(Language.DEFAULT));
+        verifyBundle(group.getBundle(Language.POLISH), result.get(0).getBundle(
+                Language.POLISH));
+    }
+
+    /**
+     * A group named like a continuation sheet would be joined with the group
+     * written before it when the document is read, so it should not be written.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectGroupNamedLikeContinuationSheet() {
+        // given
+        BundleGroup group = largeGroup("messages~2", 1);
+
+        // when
+        converter.toXlsx(group);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNotPositiveMaxRowsPerSheet() {
+        // when
+        new XlsxConverter(0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectUnknownLanguageReadFromStream() throws IOException {
+        // given
+        byte[] document;
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("name");
+            createRow(sheet, 0, XlsxConverter.KEY_LABEL, "polskii");
+            document = toBytes(workbook);
+        }
+
+        // when
+        converter.toBundleGroupList(new ByteArrayInputStream(document), spyDirectory());
+    }
+
     /**
      * 
      * @throws IOException should not be thrown
@@ -287,6 +788,156 @@ public class XlsxConverterTest {
         }
     }
 
+    /**
+     * All translation columns should be read in a single pass over the rows.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldGetAllPropertiesFromAllColumns() throws IOException {
+        // given
+        final String key1 = "key1";
+        final String key2 = "key2";
+
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            createRow(sheet, 0, XlsxConverter.KEY_LABEL, Language.DEFAULT.getDisplayLanguage(),
+                    Language.POLISH.getDisplayLanguage(), Language.GERMAN.getDisplayLanguage());
+            createRow(sheet, 1, key1, "value1", "wartość1", "Wehrt1");
+            createRow(sheet, 2, key2, "value2", "wartość2");
+
+            // when
+            Map<Language, Properties> properties = converter.sheetToProperties(sheet);
+
+            // then
+            assertEquals(Arrays.asList(Language.DEFAULT, Language.POLISH, Language.GERMAN),
+                    new ArrayList<>(properties.keySet()));
+
+            assertEquals("value1", properties.get(Language.DEFAULT).getProperty(key1));
+            assertEquals("value2", properties.get(Language.DEFAULT).getProperty(key2));
+            assertEquals("wartość1", properties.get(Language.POLISH).getProperty(key1));
+            assertEquals("wartość2", properties.get(Language.POLISH).getProperty(key2));
+            assertEquals("Wehrt1", properties.get(Language.GERMAN).getProperty(key1));
+            assertNull(properties.get(Language.GERMAN).getProperty(key2));
+        }
+    }
+
+    /**
+     * Only the columns of the requested languages and the default column should
+     * be converted.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldGetPropertiesFromColumnsOfRequestedLanguagesOnly() throws IOException {
+        // given
+        final String key = "key";
+
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            createRow(sheet, 0, XlsxConverter.KEY_LABEL, Language.DEFAULT.getDisplayLanguage(),
+                    Language.POLISH.getDisplayLanguage(), Language.GERMAN.getDisplayLanguage());
+            createRow(sheet, 1, key, "value", "wartość", "Wehrt");
+
+            // when
+            Map<Language, Properties> properties = converter.sheetToProperties(sheet, EnumSet.of(
+                    Language.GERMAN));
+
+            // then
+            assertEquals(Arrays.asList(Language.DEFAULT, Language.GERMAN), new ArrayList<>(
+                    properties.keySet()));
+            assertEquals("value", properties.get(Language.DEFAULT).getProperty(key));
+            assertEquals("Wehrt", properties.get(Language.GERMAN).getProperty(key));
+        }
+    }
+
+    /**
+     * Only the accepted sheets should be converted to the groups, and the groups
+     * should contain only the bundles of the requested languages.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldConvertAcceptedSheetsOfWorkbookToRequestedLanguages() throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        BundleGroup groupBundle = new BundleGroup(defaultBundle, polishBundle);
+        BundleGroup groupValues = new BundleGroup(defaultValues, germanValues);
+
+        try (Workbook workbook = converter.toXlsx(groupBundle, groupValues)) {
+            // when
+            List<BundleGroup> result = converter.toBundleGroupList(workbook, directory,
+                    groupValues.getName()::equals, EnumSet.of(Language.POLISH));
+
+            // then
+            assertEquals(1, result.size());
+            assertEquals(groupValues.getName(), result.get(0).getName());
+            assertEquals(Collections.singleton(Language.DEFAULT), result.get(0)
+                    .supportedLanguages());
+            verifyBundle(defaultValues, result.get(0).getBundle(Language.DEFAULT));
+        }
+    }
+
+    /**
+     * The sheets which are not accepted should not be read from a stream, and
+     * the groups should contain only the bundles of the requested languages.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldReadAcceptedSheetsInRequestedLanguagesFromStream() throws IOException {
+        // given
+        File directory = new File(Path.DIR_PATH);
+        BundleGroup groupBundle = new BundleGroup(defaultBundle, polishBundle);
+        BundleGroup groupValues = new BundleGroup(defaultValues, germanValues);
+        byte[] document = toBytes(converter.toXlsx(groupBundle, groupValues));
+
+        // when
+        List<BundleGroup> result = converter.toBundleGroupList(new ByteArrayInputStream(document),
+                directory, groupBundle.getName()::equals, EnumSet.of(Language.POLISH));
+
+        // then
+        assertEquals(1, result.size());
+
+        BundleGroup resultGroup = result.get(0);
+        verifyGroup(groupBundle, resultGroup);
+        verifyBundle(defaultBundle, resultGroup.getBundle(Language.DEFAULT));
+        verifyBundle(polishBundle, resultGroup.getBundle(Language.POLISH));
+    }
+
+    /**
+     * The columns of the languages which are not requested should be skipped
+     * while reading from a stream.
+     * 
+     * @throws IOException should not be thrown
+     */
+    @Test
+    public void shouldSkipColumnsOfNotRequestedLanguagesReadFromStream() throws IOException {
+        // given
+        final String key = "key";
+        byte[] document;
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("name");
+            createRow(sheet, 0, XlsxConverter.KEY_LABEL, Language.POLISH.getDisplayLanguage(),
+                    Language.DEFAULT.getDisplayLanguage(), Language.GERMAN.getDisplayLanguage());
+            createRow(sheet, 1, key, "wartość", "value", "Wehrt");
+            document = toBytes(workbook);
+        }
+
+        // when
+        List<BundleGroup> result = converter.toBundleGroupList(new ByteArrayInputStream(document),
+                new File(Path.DIR_PATH), sheetName -> true, EnumSet.of(Language.GERMAN));
+
+        // then
+        assertEquals(1, result.size());
+
+        BundleGroup resultGroup = result.get(0);
+        assertEquals(EnumSet.of(Language.DEFAULT, Language.GERMAN), resultGroup
+                .supportedLanguages());
+        assertEquals("value", resultGroup.getProperty(key, Language.DEFAULT));
+        assertEquals("Wehrt", resultGroup.getProperty(key, Language.GERMAN));
+    }
+
     @Test
     public void shouldCreateGroupWithNameEqualToSheetTitle() throws IOException {
         // given
@@ -302,12 +953,11 @@ public class XlsxConverterTest {
             XlsxConverter spyConverter = spy(converter);
             
             // when
-            doReturn(new Properties()).when(spyConverter).sheetColumnToProperties(any(Sheet.class),
-                    anyInt());
             BundleGroup group = spyConverter.toBundleGroup(sheet, directory);
 
             // then
-            verify(spyConverter, times(4)).sheetColumnToProperties(any(Sheet.class), anyInt());
+            verify(spyConverter, times(1)).sheetToLocaleProperties(sheet);
+            verify(spyConverter, never()).sheetColumnToProperties(any(Sheet.class), anyInt());
 
             assertNotNull(group);
             assertEquals(sheetname, group.getName());
@@ -341,16 +991,34 @@ public class XlsxConverterTest {
 
     }
 
+    private BundleGroup largeGroup(String name, int size) {
+        Properties defaults = new Properties();
+        Properties translations = new Properties();
+        for (int index = 0; index < size; ++index) {
+            defaults.setProperty("key" + index, "value" + index);
+            translations.setProperty("key" + index, "wartość" + index);
+        }
+        File directory = new File(Path.DIR_PATH);
+        return new BundleGroup(Bundles.newNotExistingBundle(Bundles.createFileName(directory,
+                name, Language.DEFAULT), defaults), Bundles.newNotExistingBundle(Bundles
+                        .createFileName(directory, name, Language.POLISH), translations));
+    }
+
     private Workbook dummyWorkbook(List<BundleGroup> groups) {
         Workbook workbook = new XSSFWorkbook();
         for (BundleGroup group : groups) {
             Sheet sheet = workbook.createSheet(group.getName());
-            converter.createHeader(sheet, group);
-            converter.createTranslations(sheet, group);
+            converter.createSheetContent(sheet, group);
         }
         return workbook;
     }
 
+    private byte[] toBytes(Workbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+
     private void createRow(Sheet sheet, int rowIndex, final String... cellValues) {
         Row row = sheet.createRow(rowIndex);
         for (int i = 0; i < cellValues.length; ++i) {